@@ -1,15 +1,35 @@
 package com.nextgenbank.backend.configuration;
 
+import com.nextgenbank.backend.security.CalibratedPasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class BeanFactory {
 
+    private static final Logger logger = LoggerFactory.getLogger(BeanFactory.class);
+
+    /**
+     * BCrypt at the fixed strength when one is set, otherwise at the strength that fits the
+     * latency budget on this machine
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${bank.password.strength:0}") int fixedStrength,
+                                           @Value("${bank.password.hash-budget-ms:100}") long budgetMillis,
+                                           @Value("${bank.password.min-strength:10}") int minStrength,
+                                           @Value("${bank.password.max-strength:16}") int maxStrength) {
+        if (fixedStrength > 0) {
+            logger.info("Password hashing uses BCrypt strength {}", fixedStrength);
+            return new CalibratedPasswordEncoder(fixedStrength);
+        }
+        long start = System.nanoTime();
+        int strength = CalibratedPasswordEncoder.calibrate(budgetMillis, minStrength, maxStrength);
+        logger.info("Password hashing calibrated to BCrypt strength {} for a budget of {} ms (took {} ms)",
+                strength, budgetMillis, (System.nanoTime() - start) / 1_000_000);
+        return new CalibratedPasswordEncoder(strength);
     }
 }
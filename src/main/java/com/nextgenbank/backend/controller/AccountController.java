@@ -1,12 +1,12 @@
 package com.nextgenbank.backend.controller;
 
 import com.nextgenbank.backend.model.Account;
-import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.dto.AccountDto;
 import com.nextgenbank.backend.model.dto.ApprovalRequestDto;
 
+import com.nextgenbank.backend.security.CurrentUser;
+import com.nextgenbank.backend.security.UserPrincipal;
 import com.nextgenbank.backend.service.AccountService;
-import com.nextgenbank.backend.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,25 +16,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.stream.Collectors;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
-    private final UserService userService;
     private final AccountService accountService;
 
-    public AccountController(UserService userService, AccountService accountService) {
-        this.userService = userService;
+    public AccountController(AccountService accountService) {
         this.accountService = accountService;
     }
 
     @GetMapping("/my")
-    public ResponseEntity<?> getMyAccounts(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userService.getByEmailOrThrow(userDetails.getUsername());
-        return ResponseEntity.ok(accountService.getAccountsForUser(user));
+    public ResponseEntity<?> getMyAccounts(@CurrentUser UserPrincipal principal) {
+        return ResponseEntity.ok(accountService.getAccountsForUser(principal.getUser()));
     }
 
     @GetMapping("/customer/{customerId}")
@@ -82,6 +77,16 @@ public class AccountController {
         }
     }
     
+    /**
+     * Split the balance of a busy account into shards
+     * Only employees can change the number of balance shards
+     */
+    @PutMapping("/{iban}/balance-shards")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<AccountDto> updateBalanceShards(@PathVariable String iban, @RequestParam int shards) {
+        return ResponseEntity.ok(new AccountDto(accountService.updateBalanceShards(iban, shards)));
+    }
+
     /**
      * Get all accounts with customer information
      * Returns accounts with embedded customer data for more efficient frontend rendering
@@ -1,6 +1,7 @@
 package com.nextgenbank.backend.controller;
 
 import com.nextgenbank.backend.model.dto.AccountLookupDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -31,6 +32,20 @@ public class AccountLookupController {
         return ResponseEntity.ok(accountService.lookupAccounts(name, iban, pageable));
     }
 
+    /**
+     * Same lookup without a total count, for scrolling through large results
+     */
+    @GetMapping("/lookup/slice")
+    public ResponseEntity<SliceDto<AccountLookupDto>> lookupAccountsSlice(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String iban,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(accountService.lookupAccountsSlice(name, iban, pageable));
+    }
+
     @GetMapping("/lookup/all")
     public ResponseEntity<Page<AccountLookupDto>> getAllUsersWithIbans(
             @RequestParam(defaultValue = "0") int page,
@@ -4,21 +4,22 @@ import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserRole;
 import com.nextgenbank.backend.model.UserStatus;
 import com.nextgenbank.backend.model.dto.ErrorResponseDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.TransactionDto;
 import com.nextgenbank.backend.model.dto.UserDto;
 import com.nextgenbank.backend.model.dto.TransferRequestDto;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.security.CurrentUser;
+import com.nextgenbank.backend.security.UserPrincipal;
 import com.nextgenbank.backend.service.EmployeeService;
 import com.nextgenbank.backend.service.TransactionService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import com.nextgenbank.backend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,14 +33,12 @@ public class EmployeeController {
     private final UserRepository userRepository;
     private final EmployeeService employeeService;
     private final TransactionService transactionService;
-    private final UserService userService;
 
     public EmployeeController(AccountRepository accountRepository,
-                              UserRepository userRepository, EmployeeService employeeService, TransactionService transactionService, UserService userService) {
+                              UserRepository userRepository, EmployeeService employeeService, TransactionService transactionService) {
         this.userRepository   = userRepository;
         this.employeeService = employeeService;
         this.transactionService = transactionService;
-        this.userService = userService;
     }
 
     /**
@@ -55,6 +54,19 @@ public class EmployeeController {
         }
     }
 
+    /**
+     * Get all customers without a total count; estimatedTotal is counted in the background
+     */
+    @GetMapping("/customers/slice")
+    public ResponseEntity<SliceDto<UserDto>> getAllCustomersSlice(
+            @PageableDefault(size = 10, page = 0) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(employeeService.getAllCustomersSlice(pageable));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching customers: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Get a specific customer by ID
      */
@@ -117,13 +129,10 @@ public class EmployeeController {
     @PutMapping("/approve/{customerId}")
     public ResponseEntity<?> approveCustomer(
             @PathVariable Long customerId,
-            Authentication authentication
+            @CurrentUser UserPrincipal principal
     ) {
         try {
-            String email = authentication.getName();
-            User employee = userService.getByEmailOrThrow(email);
-
-            employeeService.approveCustomer(customerId, employee);
+            employeeService.approveCustomer(customerId, principal.getUser());
 
             return ResponseEntity.ok(Map.of("message", "Customer approved successfully"));
         } catch (RuntimeException e) {
@@ -3,10 +3,12 @@ package com.nextgenbank.backend.controller;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.dto.LoginRequestDto;
 import com.nextgenbank.backend.model.dto.LoginResponseDto;
-import com.nextgenbank.backend.model.dto.UserDto;
-import com.nextgenbank.backend.security.JwtProvider;
-import com.nextgenbank.backend.service.UserService;
+import com.nextgenbank.backend.model.dto.RefreshTokenRequestDto;
+import com.nextgenbank.backend.service.LoginService;
+import com.nextgenbank.backend.service.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,21 +16,43 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/auth")
 public class LoginController {
 
-    private final UserService userService;
-    private final JwtProvider jwtProvider;
+    private final LoginService loginService;
+    private final TokenService tokenService;
 
-    public LoginController(UserService userService, JwtProvider jwtProvider) {
-        this.userService = userService;
-        this.jwtProvider = jwtProvider;
+    public LoginController(LoginService loginService, TokenService tokenService) {
+        this.loginService = loginService;
+        this.tokenService = tokenService;
     }
 
+    /**
+     * Log in; attempts are throttled per email and client address (429) and shed when
+     * password checks are backed up (503)
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto request) {
-        User user = userService.authenticate(request.getEmail(), request.getPassword());
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto request, HttpServletRequest httpRequest) {
+        User user = loginService.authenticate(request.getEmail(), request.getPassword(), httpRequest.getRemoteAddr());
 
-        String token = jwtProvider.generateToken(user);
-        UserDto userDto = new UserDto(user);
+        return ResponseEntity.ok(tokenService.issueTokens(user));
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and refresh token
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDto> refresh(@Valid @RequestBody RefreshTokenRequestDto request) {
+        return ResponseEntity.ok(tokenService.refresh(request.getRefreshToken()));
+    }
 
-        return ResponseEntity.ok(new LoginResponseDto(token, userDto));
+    /**
+     * Revoke the access token in the Authorization header and the refresh token in the body (both optional)
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequestDto request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        tokenService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
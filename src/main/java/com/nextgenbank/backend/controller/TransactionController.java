@@ -1,9 +1,12 @@
 package com.nextgenbank.backend.controller;
 
-import com.nextgenbank.backend.mapper.TransactionMapper;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.Transaction;
 import com.nextgenbank.backend.model.TransactionType;
+import com.nextgenbank.backend.model.dto.AsyncTransferStatusDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.CursorPageDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.TransactionDto;
 import com.nextgenbank.backend.model.dto.SwitchFundsRequestDto;
 import com.nextgenbank.backend.model.dto.SwitchFundsResponseDto;
@@ -11,17 +14,29 @@ import com.nextgenbank.backend.model.dto.TransactionResponseDto;
 import com.nextgenbank.backend.model.dto.TransferRequestDto;
 import com.nextgenbank.backend.security.CurrentUser;
 import com.nextgenbank.backend.security.UserPrincipal;
+import com.nextgenbank.backend.service.AsyncTransferService;
+import com.nextgenbank.backend.service.IdempotencyService;
+import com.nextgenbank.backend.service.TransactionExportService;
+import com.nextgenbank.backend.service.TransactionFeedService;
 import com.nextgenbank.backend.service.TransactionService;
-import com.nextgenbank.backend.service.UserService;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.security.Principal;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,11 +51,26 @@ import jakarta.servlet.http.HttpServletRequest;
 public class TransactionController {
 
     private final TransactionService transactionService;
-    private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
+    private final TransactionFeedService transactionFeedService;
+    private final TransactionExportService transactionExportService;
+    private final long exportTimeoutMs;
 
-    public TransactionController(TransactionService transactionService, UserService userService) {
+    // Longest time a status request may wait for an asynchronous transfer to finish
+    private static final long MAX_STATUS_WAIT_MS = 30_000;
+
+    public TransactionController(TransactionService transactionService,
+                                 IdempotencyService idempotencyService, AsyncTransferService asyncTransferService,
+                                 TransactionFeedService transactionFeedService,
+                                 TransactionExportService transactionExportService,
+                                 @Value("${bank.export.timeout-ms:3600000}") long exportTimeoutMs) {
         this.transactionService = transactionService;
-        this.userService = userService;
+        this.idempotencyService = idempotencyService;
+        this.asyncTransferService = asyncTransferService;
+        this.transactionFeedService = transactionFeedService;
+        this.transactionExportService = transactionExportService;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
 
     @GetMapping
@@ -53,25 +83,48 @@ public class TransactionController {
             @RequestParam(required = false) BigDecimal amount,
             @RequestParam(required = false) String amountFilter,
             @PageableDefault(size = 10, page = 0) Pageable pageable,
-            Principal principal
+            @CurrentUser UserPrincipal principal
 //            HttpServletRequest request // Full HTTP request metadata
     ) {
         try {
-            User user = userService.getByEmailOrThrow(principal.getName());
+            User user = principal.getUser();
 
-            Page<Transaction> pageResult = transactionService.getFilteredTransactionsForUser(
-                    user.getUserId(), iban, name, type, startDate, endDate, amount, amountFilter, pageable
+            Page<TransactionResponseDto> dtoPage = transactionFeedService.getHistory(
+                    user, iban, name, type, startDate, endDate, amount, amountFilter, pageable
             );
 
-            Page<TransactionResponseDto> dtoPage = pageResult.map(txn ->
-                    TransactionMapper.toResponseDto(txn, user.getUserId()));
-
             return ResponseEntity.ok(dtoPage);
         } catch (Exception e) {
             throw new RuntimeException("Error fetching transactions: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * The customer's own transactions with the same filters as above, paged by cursor.
+     * Pass the nextCursor of a response to get the page after it.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDto<TransactionResponseDto>> getTransactionsAfter(
+            @RequestParam(required = false) String iban,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) BigDecimal amount,
+            @RequestParam(required = false) String amountFilter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @CurrentUser UserPrincipal principal) {
+        try {
+            User user = principal.getUser();
+
+            return ResponseEntity.ok(transactionFeedService.getHistoryAfter(
+                    user, iban, name, type, startDate, endDate, amount, amountFilter, cursor, size));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching transactions: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Get all transactions with pagination for employee view
      */
@@ -86,6 +139,46 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Get all transactions without a total count; estimatedTotal is counted in the background
+     */
+    @GetMapping("/all/slice")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<SliceDto<TransactionDto>> getAllTransactionsSlice(
+            @PageableDefault(size = 10, page = 0) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(transactionService.getAllTransactionsSlice(pageable));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching all transactions: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get all transactions paged by cursor for employee view
+     */
+    @GetMapping("/all/cursor")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<CursorPageDto<TransactionDto>> getAllTransactionsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(transactionService.getAllTransactionsAfter(cursor, size));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching all transactions: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Export all transactions, newest first, as NDJSON or CSV; streamed row by row
+     */
+    @GetMapping("/all/export")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> exportAllTransactions(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return export(request, transactionExportService.allTransactions(), format);
+    }
+
     /**
      * Get transactions for a specific customer with pagination
      */
@@ -102,13 +195,63 @@ public class TransactionController {
     }
 
     /**
-     * Process a transfer between accounts
+     * Get transactions for a specific customer paged by cursor
+     */
+    @GetMapping("/customer/{customerId}/cursor")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<CursorPageDto<TransactionDto>> getCustomerTransactionsAfter(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionsByCustomerIdAfter(customerId, cursor, size));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching customer transactions: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Export the transactions of a specific customer, newest first, as NDJSON or CSV
+     */
+    @GetMapping("/customer/{customerId}/export")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> exportCustomerTransactions(
+            HttpServletRequest request,
+            @PathVariable Long customerId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return export(request, transactionExportService.customerTransactions(customerId), format);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request,
+                                                         TransactionExportService.Export export, String format) {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.parse(format);
+        // The body is written on an async thread; an export may take longer than the global async timeout
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportTimeoutMs);
+        }
+        StreamingResponseBody body = out -> transactionExportService.write(export, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + export.name() + "." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Process a transfer between accounts.
+     * A retry with the same Idempotency-Key returns the original result instead of transferring again.
      */
     @PostMapping("/transfer")
     public ResponseEntity<TransactionDto> transferFunds(
-            @RequestBody TransferRequestDto transferRequest) {
+            @RequestBody TransferRequestDto transferRequest,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @CurrentUser UserPrincipal principal) {
         try {
-            TransactionDto transactionDto = transactionService.transferFunds(transferRequest);
+            bindInitiator(principal, transferRequest);
+            TransactionDto transactionDto = idempotencyService.execute("transfer",
+                    principal.getUsername(), idempotencyKey, transferRequest,
+                    TransactionDto.class, () -> transactionService.transferFunds(transferRequest));
             return ResponseEntity.ok(transactionDto);
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid transfer request: " + e.getMessage(), e);
@@ -120,14 +263,93 @@ public class TransactionController {
     }
 
     /**
-     * Switch funds between accounts for a customer
+     * Process a batch of transfers in a single database transaction.
+     * Each transfer gets its own result, so one rejected transfer does not fail the batch.
+     */
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResponseDto> transferFundsBatch(
+            @CurrentUser UserPrincipal principal,
+            @RequestBody List<TransferRequestDto> transferRequests) {
+        try {
+            if (transferRequests != null) {
+                transferRequests.forEach(transferRequest -> bindInitiator(principal, transferRequest));
+            }
+            return ResponseEntity.ok(transactionService.transferFundsBatch(transferRequests));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid batch transfer request: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Batch transfer failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Queue a transfer to be booked in the background together with other queued transfers.
+     * Responds with 202 and the transfer id; the result is available from the status endpoint.
+     */
+    @PostMapping("/transfer/async")
+    public ResponseEntity<AsyncTransferStatusDto> submitTransfer(
+            @CurrentUser UserPrincipal principal,
+            @RequestBody TransferRequestDto transferRequest) {
+        try {
+            bindInitiator(principal, transferRequest);
+            String transferId = asyncTransferService.submit(principal.getUser().getUserId(), transferRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/transactions/transfer/async/" + transferId))
+                    .body(AsyncTransferStatusDto.queued(transferId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new AsyncTransferStatusDto(null, AsyncTransferStatusDto.Status.FAILED, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Status of a queued transfer; only the user who submitted it can see it (404 for anyone else).
+     * With waitMs the request is held open until the transfer finishes or the wait runs out.
+     */
+    @GetMapping("/transfer/async/{transferId}")
+    public DeferredResult<ResponseEntity<AsyncTransferStatusDto>> getTransferStatus(
+            @CurrentUser UserPrincipal principal,
+            @PathVariable String transferId,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        Long userId = principal.getUser().getUserId();
+        long timeout = Math.max(1, Math.min(waitMs, MAX_STATUS_WAIT_MS));
+        DeferredResult<ResponseEntity<AsyncTransferStatusDto>> deferred = new DeferredResult<>(timeout,
+                () -> ResponseEntity.ok(asyncTransferService.getStatus(transferId, userId)));
+
+        CompletableFuture<AsyncTransferStatusDto> result = asyncTransferService.subscribe(transferId, userId);
+        if (result == null) {
+            deferred.setResult(ResponseEntity.notFound().build());
+        } else if (waitMs <= 0 || result.isDone()) {
+            deferred.setResult(ResponseEntity.ok(asyncTransferService.getStatus(transferId, userId)));
+        } else {
+            result.thenAccept(status -> deferred.setResult(ResponseEntity.ok(status)));
+        }
+        return deferred;
+    }
+
+    /**
+     * Transfers are always made on behalf of the authenticated user, whatever initiator the body names;
+     * the service then only lets a customer debit their own accounts
+     */
+    private static void bindInitiator(UserPrincipal principal, TransferRequestDto transferRequest) {
+        if (transferRequest != null) {
+            transferRequest.setInitiatorId(principal.getUser().getUserId());
+        }
+    }
+
+    /**
+     * Switch funds between accounts for a customer.
+     * A retry with the same Idempotency-Key returns the original balances instead of switching again.
      */
     @PostMapping("/switch")
     public ResponseEntity<SwitchFundsResponseDto> switchFunds(
             @CurrentUser UserPrincipal principal,
-            @RequestBody SwitchFundsRequestDto request) {
+            @RequestBody SwitchFundsRequestDto request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
-            SwitchFundsResponseDto responseDto = transactionService.switchFunds(principal.getUser(), request);
+            SwitchFundsResponseDto responseDto = idempotencyService.execute("switch",
+                    principal.getUser().getEmail(), idempotencyKey, request, SwitchFundsResponseDto.class,
+                    () -> transactionService.switchFunds(principal.getUser(), request));
             return ResponseEntity.ok(responseDto);
         } catch (IllegalStateException | IllegalArgumentException e) {
             throw new RuntimeException("Invalid switch request: " + e.getMessage(), e);
@@ -150,23 +372,57 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Export the transfers held for review, oldest first, as NDJSON or CSV
+     */
+    @GetMapping("/pending/export")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> exportPendingTransactions(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return export(request, transactionExportService.pendingTransactions(), format);
+    }
+
+    /**
+     * Approve a transfer held for review, which books it
+     */
+    @PutMapping("/pending/{transactionId}/approve")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<TransactionDto> approvePendingTransaction(@PathVariable Long transactionId) {
+        return ResponseEntity.ok(transactionService.approvePendingTransaction(transactionId));
+    }
+
+    /**
+     * Reject a transfer held for review
+     */
+    @PutMapping("/pending/{transactionId}/reject")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<?> rejectPendingTransaction(@PathVariable Long transactionId) {
+        transactionService.rejectPendingTransaction(transactionId);
+        return ResponseEntity.ok(Map.of("message", "Transaction rejected successfully"));
+    }
+
+    /**
+     * Deposit or withdraw through an ATM.
+     * A retry with the same Idempotency-Key returns the original receipt instead of booking again.
+     */
     @PostMapping("/atm")
     public ResponseEntity<?> createAtmTransaction(
             @RequestBody TransactionDto dto,
-            @CurrentUser UserPrincipal principal
+            @CurrentUser UserPrincipal principal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
         try {
             // Step 1: Validate request and extract necessary data
             String iban = validateAndGetIbanForAtm(dto);
             User user = principal.getUser();
 
-            // Step 2: Call the business logic in the service layer
-            Transaction completedTransaction = transactionService.performAtmOperation(
-                    user, iban, dto.getAmount(), dto.getTransactionType()
-            );
-
-            // Step 3: Build and return the successful response
-            TransactionResponseDto responseDto = buildAtmTransactionResponse(completedTransaction);
+            // Step 2: Call the business logic in the service layer and
+            // Step 3: Build the response, stored together with the booking for replays
+            TransactionResponseDto responseDto = idempotencyService.execute("atm", user.getEmail(),
+                    idempotencyKey, dto, TransactionResponseDto.class,
+                    () -> buildAtmTransactionResponse(transactionService.performAtmOperation(
+                            user, iban, dto.getAmount(), dto.getTransactionType())));
             return ResponseEntity.ok(responseDto);
 
         } catch (IllegalArgumentException ex) {
@@ -214,13 +470,13 @@ public class TransactionController {
             String toName = tx.getToAccount().getCustomer().getFirstName() + " " + tx.getToAccount().getCustomer().getLastName();
             return new TransactionResponseDto(
                     tx.getTransactionId(), tx.getTransactionType(), tx.getAmount(), tx.getTimestamp(),
-                    null, null, tx.getToAccount().getIBAN(), toName, "DEPOSIT"
+                    null, null, tx.getToAccount().getIBAN(), toName, "DEPOSIT", tx.getStatus()
             );
         } else { // WITHDRAWAL
             String fromName = tx.getFromAccount().getCustomer().getFirstName() + " " + tx.getFromAccount().getCustomer().getLastName();
             return new TransactionResponseDto(
                     tx.getTransactionId(), tx.getTransactionType(), tx.getAmount(), tx.getTimestamp(),
-                    tx.getFromAccount().getIBAN(), fromName, null, null, "WITHDRAWAL"
+                    tx.getFromAccount().getIBAN(), fromName, null, null, "WITHDRAWAL", tx.getStatus()
             );
         }
     }
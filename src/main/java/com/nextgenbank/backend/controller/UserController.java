@@ -22,6 +22,7 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<UserDto> getCurrentUser(Authentication authentication) {
+        // The access token only carries part of the profile, so the user is loaded here
         String email = authentication.getName();
         User user = userService.getByEmailOrThrow(email);
         return ResponseEntity.ok(new UserDto(user));
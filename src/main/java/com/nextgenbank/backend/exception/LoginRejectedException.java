@@ -0,0 +1,27 @@
+package com.nextgenbank.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A login attempt turned away before its password was checked: throttled (429) or
+ * because password checks are backed up (503)
+ */
+public class LoginRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public LoginRejectedException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,31 +1,26 @@
 package com.nextgenbank.backend.filter;
 
-import com.nextgenbank.backend.security.JwtProvider;
-import com.nextgenbank.backend.service.EmailUserDetailsService;
-import io.jsonwebtoken.Claims;
+import com.nextgenbank.backend.security.UserPrincipal;
+import com.nextgenbank.backend.service.TokenService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtProvider jwtProvider;
-    private final EmailUserDetailsService userDetailsService;
+    private final TokenService tokenService;
 
-    public JwtFilter(JwtProvider jwtProvider, EmailUserDetailsService userDetailsService) {
-        this.jwtProvider = jwtProvider;
-        this.userDetailsService = userDetailsService;
+    public JwtFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
     }
 
     @Override
@@ -52,28 +47,22 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+        //.getContext() returns the SecurityContext which holds the Authentication object
+        //.getAuthentication() returns the current Authentication object
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             String token = authHeader.substring(7); // Remove "Bearer " prefix
-            Claims claims = jwtProvider.extractAllClaims(token); //decodes the JWT and verifies its signature
+            try {
+                // The access token carries the user's id, name, role and status, so no user is loaded here
+                UserPrincipal principal = tokenService.authenticate(token);
 
-            //Header, Payload (Claims), and Signature
-            String email = claims.getSubject(); //Claims: Contains JWT payload ({ "sub": "user@example.com", "role": "CUSTOMER" })
-            String role = claims.get("role", String.class); // Extracts custom "role" claim
-
-            //.getContext() returns the SecurityContext which holds the Authentication object
-            //.getAuthentication() returns the current Authentication object
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-                //creates an Authentication object
+                //creates an Authentication object with the role as its one authority (like "ROLE_CUSTOMER")
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null,
-                                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role))
-                                // hte goal is to create a list with one item (like "ROLE_CUSTOMER")
-                        );
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (JwtException | IllegalArgumentException e) {
+                // An invalid, expired or revoked token leaves the request unauthenticated (401 where a login is needed)
             }
         }
 
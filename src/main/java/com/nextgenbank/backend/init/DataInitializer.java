@@ -2,12 +2,15 @@ package com.nextgenbank.backend.init;
 
 import com.nextgenbank.backend.model.*;
 import com.nextgenbank.backend.repository.*;
+import com.nextgenbank.backend.service.TransactionFeedService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -15,23 +18,48 @@ public class DataInitializer implements CommandLineRunner {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final PostingRepository postingRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final TransactionFeedRepository transactionFeedRepository;
+    private final TransactionFeedService transactionFeedService;
     private final PasswordEncoder passwordEncoder;
 
     public DataInitializer(UserRepository userRepository,
                            AccountRepository accountRepository,
                            TransactionRepository transactionRepository,
+                           PostingRepository postingRepository,
+                           BalanceSnapshotRepository balanceSnapshotRepository,
+                           AccountShardRepository accountShardRepository,
+                           TransactionFeedRepository transactionFeedRepository,
+                           TransactionFeedService transactionFeedService,
                            PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.postingRepository = postingRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.transactionFeedRepository = transactionFeedRepository;
+        this.transactionFeedService = transactionFeedService;
         this.passwordEncoder = passwordEncoder;
     }
 
+    /**
+     * Runs in one transaction so the sample rows are flushed together as JDBC batches
+     */
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
+        postingRepository.deleteAll();
+        balanceSnapshotRepository.deleteAll();
+        accountShardRepository.deleteAll();
+        transactionFeedRepository.deleteAll();
         transactionRepository.deleteAll();
         accountRepository.deleteAll();
         userRepository.deleteAll();
+        // Hibernate flushes inserts before deletes, so remove the old rows before re-adding them
+        userRepository.flush();
 
         // Alice (with transactions)
         User alice = new User();
@@ -116,7 +144,7 @@ public class DataInitializer implements CommandLineRunner {
         aliceChecking.setIBAN("NL12345678901234567890");
         aliceChecking.setCustomer(alice);
         aliceChecking.setAccountType(AccountType.CHECKING);
-        aliceChecking.setBalance(new BigDecimal("1000.00"));
+        aliceChecking.setOpeningBalance(new BigDecimal("1000.00"));
         aliceChecking.setAbsoluteTransferLimit(new BigDecimal("5000.00"));
         aliceChecking.setDailyTransferAmount(BigDecimal.ZERO);
         aliceChecking.setCreatedAt(LocalDateTime.now());
@@ -126,7 +154,7 @@ public class DataInitializer implements CommandLineRunner {
         aliceSavings.setIBAN("NL09876543210987654321");
         aliceSavings.setCustomer(alice);
         aliceSavings.setAccountType(AccountType.SAVINGS);
-        aliceSavings.setBalance(new BigDecimal("5000.00"));
+        aliceSavings.setOpeningBalance(new BigDecimal("5000.00"));
         aliceSavings.setAbsoluteTransferLimit(new BigDecimal("10000.00"));
         aliceSavings.setDailyTransferAmount(BigDecimal.ZERO);
         aliceSavings.setCreatedAt(LocalDateTime.now());
@@ -137,7 +165,7 @@ public class DataInitializer implements CommandLineRunner {
         charlieChecking.setIBAN("NL22223333444455556666");
         charlieChecking.setCustomer(charlie);
         charlieChecking.setAccountType(AccountType.CHECKING);
-        charlieChecking.setBalance(new BigDecimal("2000.00"));
+        charlieChecking.setOpeningBalance(new BigDecimal("2000.00"));
         charlieChecking.setAbsoluteTransferLimit(new BigDecimal("5000.00"));
         charlieChecking.setDailyTransferAmount(BigDecimal.ZERO);
         charlieChecking.setCreatedAt(LocalDateTime.now());
@@ -147,7 +175,7 @@ public class DataInitializer implements CommandLineRunner {
         charlieSavings.setIBAN("NL77778888999900001111");
         charlieSavings.setCustomer(charlie);
         charlieSavings.setAccountType(AccountType.SAVINGS);
-        charlieSavings.setBalance(new BigDecimal("3000.00"));
+        charlieSavings.setOpeningBalance(new BigDecimal("3000.00"));
         charlieSavings.setAbsoluteTransferLimit(new BigDecimal("10000.00"));
         charlieSavings.setDailyTransferAmount(BigDecimal.ZERO);
         charlieSavings.setCreatedAt(LocalDateTime.now());
@@ -158,7 +186,7 @@ public class DataInitializer implements CommandLineRunner {
         newUserAccount.setIBAN("NL00001111222233334444");
         newUserAccount.setCustomer(newUser);
         newUserAccount.setAccountType(AccountType.CHECKING);
-        newUserAccount.setBalance(new BigDecimal("250.00"));
+        newUserAccount.setOpeningBalance(new BigDecimal("250.00"));
         newUserAccount.setAbsoluteTransferLimit(new BigDecimal("1000.00"));
         newUserAccount.setDailyTransferAmount(BigDecimal.ZERO);
         newUserAccount.setCreatedAt(LocalDateTime.now());
@@ -207,6 +235,7 @@ public class DataInitializer implements CommandLineRunner {
         transactionRepository.save(txn2);
         transactionRepository.save(txn3);
         transactionRepository.save(txn4);
+        transactionFeedService.record(List.of(txn1, txn2, txn3, txn4));
 
         // Dana (only incoming transactions)
         User dana = new User();
@@ -226,7 +255,7 @@ public class DataInitializer implements CommandLineRunner {
         danaAccount.setIBAN("NL44556677889900112233");
         danaAccount.setCustomer(dana);
         danaAccount.setAccountType(AccountType.CHECKING);
-        danaAccount.setBalance(new BigDecimal("1000.00"));
+        danaAccount.setOpeningBalance(new BigDecimal("1000.00"));
         danaAccount.setAbsoluteTransferLimit(new BigDecimal("5000.00"));
         danaAccount.setDailyTransferAmount(BigDecimal.ZERO);
         danaAccount.setCreatedAt(LocalDateTime.now());
@@ -242,6 +271,7 @@ public class DataInitializer implements CommandLineRunner {
         txnDana.setInitiator(alice);
         txnDana.setTransactionType(TransactionType.TRANSFER);
         transactionRepository.save(txnDana);
+        transactionFeedService.record(List.of(txnDana));
 
         System.out.println("Sample data initialized with new user (no transactions)");
     }
@@ -1,62 +1,49 @@
 package com.nextgenbank.backend.mapper;
 
-import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.TransactionDirection;
+import com.nextgenbank.backend.model.TransactionFeedEntry;
+import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.dto.TransactionResponseDto;
 
 public class TransactionMapper {
 
-    public static TransactionResponseDto toResponseDto(Transaction txn, Long userId) {
-        String fromIban = getIban(txn.getFromAccount());
-        String toIban = getIban(txn.getToAccount());
-
-        String fromName = getFullNameOrDefault(txn, true, "Bank");
-        String toName = getFullNameOrDefault(txn, false, "Unknown");
-
-        String direction = determineDirection(txn, userId);
-
+    /**
+     * Maps an entry of the user's own feed; the user is the sender of outgoing and internal
+     * entries and the receiver of incoming ones
+     */
+    public static TransactionResponseDto toResponseDto(TransactionFeedEntry entry, User user) {
+        String ownName = user.getFirstName() + " " + user.getLastName();
+        String counterpartyIban = entry.getCounterpartyIban() != null ? entry.getCounterpartyIban() : "N/A";
+
+        if (entry.getDirection() == TransactionDirection.INCOMING) {
+            return new TransactionResponseDto(
+                    entry.getTransactionId(),
+                    entry.getTransactionType(),
+                    entry.getAmount(),
+                    entry.getTimestamp(),
+                    counterpartyIban,
+                    getNameOrDefault(entry, "Bank"),
+                    entry.getAccountIban(),
+                    ownName,
+                    entry.getDirection().name(),
+                    entry.getStatus()
+            );
+        }
         return new TransactionResponseDto(
-                txn.getTransactionId(),
-                txn.getTransactionType(),
-                txn.getAmount(),
-                txn.getTimestamp(),
-                fromIban,
-                fromName,
-                toIban,
-                toName,
-                direction
+                entry.getTransactionId(),
+                entry.getTransactionType(),
+                entry.getAmount(),
+                entry.getTimestamp(),
+                entry.getAccountIban(),
+                ownName,
+                counterpartyIban,
+                getNameOrDefault(entry, "Unknown"),
+                entry.getDirection().name(),
+                entry.getStatus()
         );
     }
 
-    private static String getIban(com.nextgenbank.backend.model.Account account) {
-        return (account != null) ? account.getIBAN() : "N/A";
-    }
-
-    private static String getFullNameOrDefault(Transaction txn, boolean isFrom, String defaultName) {
-        var account = isFrom ? txn.getFromAccount() : txn.getToAccount();
-        if (account != null && account.getCustomer() != null) {
-            return account.getCustomer().getFirstName() + " " + account.getCustomer().getLastName();
-        }
-        return defaultName;
-    }
-
-    private static String determineDirection(Transaction txn, Long userId) {
-        Long fromUserId = getUserId(txn.getFromAccount());
-        Long toUserId = getUserId(txn.getToAccount());
-
-        if (fromUserId != null && toUserId != null && fromUserId.equals(userId) && toUserId.equals(userId)) {
-            return "INTERNAL";
-        } else if (fromUserId != null && fromUserId.equals(userId)) {
-            return "OUTGOING";
-        } else if (toUserId != null && toUserId.equals(userId)) {
-            return "INCOMING";
-        } else {
-            return "UNKNOWN";
-        }
-    }
-
-    private static Long getUserId(com.nextgenbank.backend.model.Account account) {
-        return (account != null && account.getCustomer() != null)
-                ? account.getCustomer().getUserId()
-                : null;
+    private static String getNameOrDefault(TransactionFeedEntry entry, String defaultName) {
+        return entry.getCounterpartyName() != null ? entry.getCounterpartyName() : defaultName;
     }
 }
@@ -1,33 +1,57 @@
 package com.nextgenbank.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_customer", columnList = "customer_id, account_type"),
+        @Index(name = "idx_accounts_daily_transfer_date", columnList = "daily_transfer_date")
+})
+// Lazy references are Hibernate proxies; their interceptor fields are not part of the JSON
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Account {
     @Id
     private String IBAN;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private User customer;
 
     @Enumerated(EnumType.STRING)
     private AccountType accountType;
 
+    // Balance the account was opened with; every later movement is a Posting (see BalanceService)
+    @JsonIgnore
+    private BigDecimal openingBalance;
+
+    // Current balance, filled in by BalanceService when the account is returned to a client
+    @Transient
     private BigDecimal balance;
+
+    // Number of sub-balances the account is split into (see BalanceService); 1 for a normal account
+    @Column(nullable = false)
+    private int balanceShards = 1;
+
     private BigDecimal absoluteTransferLimit;
     private BigDecimal dailyTransferAmount;
+    // Day the dailyTransferAmount was recorded on; the amount does not count on any other day
+    private LocalDate dailyTransferDate;
+
+    @Version
+    @JsonIgnore
+    private Long version;
 
     @Column(columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
@@ -65,6 +89,17 @@ public class Account {
         this.accountType = accountType;
     }
 
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    /**
+     * Current balance as resolved by BalanceService, null if it was not resolved for this instance
+     */
     public BigDecimal getBalance() {
         return balance;
     }
@@ -73,6 +108,19 @@ public class Account {
         this.balance = balance;
     }
 
+    public int getBalanceShards() {
+        return balanceShards;
+    }
+
+    public void setBalanceShards(int balanceShards) {
+        this.balanceShards = balanceShards;
+    }
+
+    @JsonIgnore
+    public boolean isSharded() {
+        return balanceShards > 1;
+    }
+
     public BigDecimal getAbsoluteTransferLimit() {
         return absoluteTransferLimit;
     }
@@ -89,6 +137,32 @@ public class Account {
         this.dailyTransferAmount = dailyTransferAmount;
     }
 
+    public LocalDate getDailyTransferDate() {
+        return dailyTransferDate;
+    }
+
+    public void setDailyTransferDate(LocalDate dailyTransferDate) {
+        this.dailyTransferDate = dailyTransferDate;
+    }
+
+    /**
+     * Amount transferred on the given day according to the stored counter
+     */
+    public BigDecimal getDailyTransferAmountOn(LocalDate day) {
+        if (dailyTransferAmount == null || !day.equals(dailyTransferDate)) {
+            return BigDecimal.ZERO;
+        }
+        return dailyTransferAmount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
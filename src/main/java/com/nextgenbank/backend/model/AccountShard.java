@@ -0,0 +1,99 @@
+package com.nextgenbank.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Row of one shard of a sharded account. A debit taken from a shard records its share of
+ * the daily transfer total here instead of on the account row, so debits from different
+ * shards never write the same row. The balance of a shard lives in the postings ledger.
+ */
+@Entity
+@Table(name = "account_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_shards_account_shard", columnNames = {"account_iban", "shard"}))
+public class AccountShard {
+    @Id
+    @PooledSequence(name = "account_shards_seq")
+    private Long accountShardId;
+
+    @Column(nullable = false)
+    private String accountIban;
+
+    @Column(nullable = false)
+    private int shard;
+
+    // Amount debited through this shard on dailyTransferDate
+    private BigDecimal dailyTransferAmount;
+    private LocalDate dailyTransferDate;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public AccountShard() { }
+
+    public AccountShard(String accountIban, int shard) {
+        this.accountIban = accountIban;
+        this.shard = shard;
+    }
+
+    public Long getAccountShardId() {
+        return accountShardId;
+    }
+
+    public void setAccountShardId(Long accountShardId) {
+        this.accountShardId = accountShardId;
+    }
+
+    public String getAccountIban() {
+        return accountIban;
+    }
+
+    public void setAccountIban(String accountIban) {
+        this.accountIban = accountIban;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public BigDecimal getDailyTransferAmount() {
+        return dailyTransferAmount;
+    }
+
+    public void setDailyTransferAmount(BigDecimal dailyTransferAmount) {
+        this.dailyTransferAmount = dailyTransferAmount;
+    }
+
+    public LocalDate getDailyTransferDate() {
+        return dailyTransferDate;
+    }
+
+    public void setDailyTransferDate(LocalDate dailyTransferDate) {
+        this.dailyTransferDate = dailyTransferDate;
+    }
+
+    /**
+     * Amount debited through this shard on the given day
+     */
+    public BigDecimal getDailyTransferAmountOn(LocalDate day) {
+        if (dailyTransferAmount == null || !day.equals(dailyTransferDate)) {
+            return BigDecimal.ZERO;
+        }
+        return dailyTransferAmount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,83 @@
+package com.nextgenbank.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an account shard including the opening balance (shard 0 only) and every posting
+ * assigned to this or an earlier snapshot. Keeps the number of postings summed per balance read small.
+ */
+@Entity
+@Table(name = "balance_snapshots",
+        indexes = @Index(name = "idx_balance_snapshots_account", columnList = "account_iban, shard, snapshot_id"))
+public class BalanceSnapshot {
+    @Id
+    @PooledSequence(name = "balance_snapshots_seq")
+    private Long snapshotId;
+
+    @Column(nullable = false)
+    private String accountIban;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(15,2)")
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+
+    public BalanceSnapshot() { }
+
+    public BalanceSnapshot(String accountIban, BigDecimal balance, LocalDateTime takenAt) {
+        this(accountIban, 0, balance, takenAt);
+    }
+
+    public BalanceSnapshot(String accountIban, int shard, BigDecimal balance, LocalDateTime takenAt) {
+        this.accountIban = accountIban;
+        this.shard = shard;
+        this.balance = balance;
+        this.takenAt = takenAt;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(Long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public String getAccountIban() {
+        return accountIban;
+    }
+
+    public void setAccountIban(String accountIban) {
+        this.accountIban = accountIban;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+}
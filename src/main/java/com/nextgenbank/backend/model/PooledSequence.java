@@ -0,0 +1,27 @@
+package com.nextgenbank.backend.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generates the annotated id from a database sequence that hands out ids in
+ * blocks, so inserts do not need a database round trip each and can be batched.
+ * The block size is shared by all entities and configured with
+ * spring.jpa.properties.bank.id.allocation-size.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledSequence {
+
+    /**
+     * Name of the database sequence
+     */
+    String name();
+}
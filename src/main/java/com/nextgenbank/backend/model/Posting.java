@@ -0,0 +1,109 @@
+package com.nextgenbank.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One side of a booked transaction on one account: negative for a debit, positive for a credit.
+ * Postings are only ever inserted. The account balance is the latest BalanceSnapshot plus
+ * the postings that are not part of it yet, so moving money never updates the account row.
+ * Sharded accounts keep that per shard; a normal account only uses shard 0.
+ */
+@Entity
+@Table(name = "postings",
+        indexes = @Index(name = "idx_postings_account_snapshot", columnList = "account_iban, shard, snapshot_id"))
+public class Posting {
+    @Id
+    @PooledSequence(name = "postings_seq")
+    private Long postingId;
+
+    // Plain column instead of a relation so writing a posting never touches the account
+    @Column(nullable = false)
+    private String accountIban;
+
+    @Column(nullable = false)
+    private int shard;
+
+    // Null for postings that only move funds between the shards of one account
+    private Long transactionId;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(15,2)")
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private LocalDateTime postedAt;
+
+    // Snapshot that includes this posting, null until the next snapshot of the account
+    private Long snapshotId;
+
+    public Posting() { }
+
+    public Posting(String accountIban, Long transactionId, BigDecimal amount, LocalDateTime postedAt) {
+        this(accountIban, 0, transactionId, amount, postedAt);
+    }
+
+    public Posting(String accountIban, int shard, Long transactionId, BigDecimal amount, LocalDateTime postedAt) {
+        this.accountIban = accountIban;
+        this.shard = shard;
+        this.transactionId = transactionId;
+        this.amount = amount;
+        this.postedAt = postedAt;
+    }
+
+    public Long getPostingId() {
+        return postingId;
+    }
+
+    public void setPostingId(Long postingId) {
+        this.postingId = postingId;
+    }
+
+    public String getAccountIban() {
+        return accountIban;
+    }
+
+    public void setAccountIban(String accountIban) {
+        this.accountIban = accountIban;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getPostedAt() {
+        return postedAt;
+    }
+
+    public void setPostedAt(LocalDateTime postedAt) {
+        this.postedAt = postedAt;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(Long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+}
@@ -5,17 +5,24 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+// Every history listing is "newest first", so each access path ends in the timestamp
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp, transaction_id"),
+        @Index(name = "idx_transactions_from_account", columnList = "from_account, timestamp"),
+        @Index(name = "idx_transactions_to_account", columnList = "to_account, timestamp"),
+        @Index(name = "idx_transactions_initiator", columnList = "initiator_id, timestamp"),
+        @Index(name = "idx_transactions_status", columnList = "status, transaction_id")
+})
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "transactions_seq")
     private Long transactionId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "from_account")
     private Account fromAccount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "to_account")
     private Account toAccount;
 
@@ -25,13 +32,18 @@ public class Transaction {
     @Column(columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime timestamp;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
     private User initiator;
 
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
+    // Rows inserted without a status (bulk loads) are bookings like any other
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "VARCHAR(16) DEFAULT 'COMPLETED'")
+    private TransactionStatus status = TransactionStatus.COMPLETED;
+
     // Getters and Setters
     public Long getTransactionId() {
         return transactionId;
@@ -88,4 +100,12 @@ public class Transaction {
     public void setTransactionType(TransactionType transactionType) {
         this.transactionType = transactionType;
     }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
 }
\ No newline at end of file
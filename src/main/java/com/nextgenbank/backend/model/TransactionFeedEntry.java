@@ -0,0 +1,119 @@
+package com.nextgenbank.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as one customer sees it in their history: one row per customer involved.
+ * Written in the same database transaction as the Transaction itself, with the direction
+ * and the other side already worked out, so reading a history never joins accounts or users.
+ */
+@Entity
+@Table(name = "transaction_feed", indexes = {
+        @Index(name = "idx_transaction_feed_customer", columnList = "customer_id, timestamp, transaction_id"),
+        @Index(name = "idx_transaction_feed_customer_direction", columnList = "customer_id, direction, timestamp")
+})
+public class TransactionFeedEntry {
+    @Id
+    @PooledSequence(name = "transaction_feed_seq")
+    private Long feedEntryId;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(15,2)")
+    private BigDecimal amount;
+
+    // Copied from the transaction, and updated with it when a transfer held for review is decided
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionDirection direction;
+
+    // The customer's own account; the source account for an internal transfer
+    @Column(nullable = false)
+    private String accountIban;
+
+    // The other side, null for deposits and withdrawals
+    private String counterpartyIban;
+    private Long counterpartyId;
+    private String counterpartyName;
+
+    public TransactionFeedEntry() { }
+
+    public TransactionFeedEntry(Long customerId, Transaction transaction, TransactionDirection direction,
+                                String accountIban, String counterpartyIban, Long counterpartyId,
+                                String counterpartyName) {
+        this.customerId = customerId;
+        this.transactionId = transaction.getTransactionId();
+        this.timestamp = transaction.getTimestamp();
+        this.transactionType = transaction.getTransactionType();
+        this.amount = transaction.getAmount();
+        this.status = transaction.getStatus();
+        this.direction = direction;
+        this.accountIban = accountIban;
+        this.counterpartyIban = counterpartyIban;
+        this.counterpartyId = counterpartyId;
+        this.counterpartyName = counterpartyName;
+    }
+
+    public Long getFeedEntryId() {
+        return feedEntryId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public TransactionDirection getDirection() {
+        return direction;
+    }
+
+    public String getAccountIban() {
+        return accountIban;
+    }
+
+    public String getCounterpartyIban() {
+        return counterpartyIban;
+    }
+
+    public Long getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    public String getCounterpartyName() {
+        return counterpartyName;
+    }
+}
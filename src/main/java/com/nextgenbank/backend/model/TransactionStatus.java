@@ -0,0 +1,12 @@
+package com.nextgenbank.backend.model;
+
+/**
+ * PENDING transfers wait for an employee's review and have not moved any money yet;
+ * APPROVED ones were booked after that review and COMPLETED ones were booked right away
+ */
+public enum TransactionStatus {
+    PENDING,
+    APPROVED,
+    REJECTED,
+    COMPLETED
+}
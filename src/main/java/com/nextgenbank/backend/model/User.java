@@ -1,6 +1,7 @@
 package com.nextgenbank.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -8,9 +9,11 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+// Lazy references are Hibernate proxies; their interceptor fields are not part of the JSON
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "users_seq")
     private Long userId;
 
     private String firstName;
@@ -4,6 +4,7 @@ import com.nextgenbank.backend.model.Account;
 import com.nextgenbank.backend.model.AccountType;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class AccountDto {
     private String iban;
@@ -11,13 +12,15 @@ public class AccountDto {
     private BigDecimal balance;
     private BigDecimal absoluteTransferLimit;
     private BigDecimal dailyTransferAmount;
+    private int balanceShards;
 
     public AccountDto(Account account) {
         this.iban = account.getIBAN();
         this.accountType = account.getAccountType();
         this.balance = account.getBalance();
         this.absoluteTransferLimit = account.getAbsoluteTransferLimit();
-        this.dailyTransferAmount = account.getDailyTransferAmount();
+        this.dailyTransferAmount = account.getDailyTransferAmountOn(LocalDate.now());
+        this.balanceShards = account.getBalanceShards();
     }
 
     // Getters
@@ -40,4 +43,8 @@ public class AccountDto {
     public BigDecimal getDailyTransferAmount() {
         return dailyTransferAmount;
     }
+
+    public int getBalanceShards() {
+        return balanceShards;
+    }
 }
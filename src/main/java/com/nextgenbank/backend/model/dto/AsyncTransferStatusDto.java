@@ -0,0 +1,65 @@
+package com.nextgenbank.backend.model.dto;
+
+/**
+ * State of a transfer submitted through the asynchronous transfer endpoint.
+ */
+public class AsyncTransferStatusDto {
+
+    public enum Status {
+        QUEUED,
+        COMPLETED,
+        // Held for review by an employee; the transaction's own status tells whether it was approved later
+        PENDING,
+        FAILED
+    }
+
+    private String transferId;
+    private Status status;
+    private TransactionDto transaction;
+    private String error;
+
+    public AsyncTransferStatusDto() { }
+
+    public AsyncTransferStatusDto(String transferId, Status status, TransactionDto transaction, String error) {
+        this.transferId = transferId;
+        this.status = status;
+        this.transaction = transaction;
+        this.error = error;
+    }
+
+    public static AsyncTransferStatusDto queued(String transferId) {
+        return new AsyncTransferStatusDto(transferId, Status.QUEUED, null, null);
+    }
+
+    public String getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(String transferId) {
+        this.transferId = transferId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public TransactionDto getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(TransactionDto transaction) {
+        this.transaction = transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
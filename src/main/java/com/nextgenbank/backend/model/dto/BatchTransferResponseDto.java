@@ -0,0 +1,41 @@
+package com.nextgenbank.backend.model.dto;
+
+import java.util.List;
+
+public class BatchTransferResponseDto {
+    private int succeeded;
+    private int failed;
+    private List<BatchTransferResultDto> results;
+
+    public BatchTransferResponseDto() { }
+
+    public BatchTransferResponseDto(List<BatchTransferResultDto> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(BatchTransferResultDto::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchTransferResultDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchTransferResultDto> results) {
+        this.results = results;
+    }
+}
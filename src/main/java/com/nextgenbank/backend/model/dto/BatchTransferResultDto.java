@@ -0,0 +1,61 @@
+package com.nextgenbank.backend.model.dto;
+
+/**
+ * Outcome of a single transfer inside a batch, in the order it was submitted.
+ */
+public class BatchTransferResultDto {
+    private int index;
+    private boolean success;
+    private TransactionDto transaction;
+    private String error;
+
+    public BatchTransferResultDto() { }
+
+    public static BatchTransferResultDto succeeded(int index, TransactionDto transaction) {
+        BatchTransferResultDto result = new BatchTransferResultDto();
+        result.index = index;
+        result.success = true;
+        result.transaction = transaction;
+        return result;
+    }
+
+    public static BatchTransferResultDto failed(int index, String error) {
+        BatchTransferResultDto result = new BatchTransferResultDto();
+        result.index = index;
+        result.success = false;
+        result.error = error;
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public TransactionDto getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(TransactionDto transaction) {
+        this.transaction = transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -3,13 +3,15 @@ package com.nextgenbank.backend.model.dto;
 public class LoginResponseDto {
 
     private String token;
+    private String refreshToken;
     private UserDto user;
 
     public LoginResponseDto() {
     }
 
-    public LoginResponseDto(String token, UserDto user) {
+    public LoginResponseDto(String token, String refreshToken, UserDto user) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.user = user;
     }
 
@@ -21,6 +23,14 @@ public class LoginResponseDto {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public UserDto getUser() {
         return user;
     }
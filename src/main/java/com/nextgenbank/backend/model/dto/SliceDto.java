@@ -0,0 +1,78 @@
+package com.nextgenbank.backend.model.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a listing that is paged without counting all its rows.
+ * hasNext tells whether another page follows; estimatedTotal is a recently counted total
+ * for listings that keep one, and null for the others.
+ */
+public class SliceDto<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long estimatedTotal;
+
+    public SliceDto() { }
+
+    public SliceDto(List<T> content, int page, int size, boolean hasNext, Long estimatedTotal) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public static <T> SliceDto<T> of(Slice<T> slice, Long estimatedTotal) {
+        return new SliceDto<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), estimatedTotal);
+    }
+
+    public <R> SliceDto<R> map(Function<? super T, ? extends R> mapper) {
+        return new SliceDto<>(content.stream().<R>map(mapper).toList(), page, size, hasNext, estimatedTotal);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public void setEstimatedTotal(Long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+}
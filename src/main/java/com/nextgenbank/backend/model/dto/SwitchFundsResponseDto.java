@@ -6,6 +6,8 @@ public class SwitchFundsResponseDto {
     private BigDecimal checkingBalance;
     private BigDecimal savingsBalance;
 
+    public SwitchFundsResponseDto() { }
+
     public SwitchFundsResponseDto(BigDecimal checkingBalance, BigDecimal savingsBalance) {
         this.checkingBalance = checkingBalance;
         this.savingsBalance = savingsBalance;
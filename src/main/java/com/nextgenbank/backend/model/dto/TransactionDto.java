@@ -1,6 +1,7 @@
 package com.nextgenbank.backend.model.dto;
 
 import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.TransactionStatus;
 import com.nextgenbank.backend.model.TransactionType;
 import com.nextgenbank.backend.model.UserRole;
 
@@ -8,6 +9,8 @@ import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 
 public class TransactionDto {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy - HH:mm");
+
     private String fromIban;
     private String toIban;
     private BigDecimal amount;
@@ -19,6 +22,7 @@ public class TransactionDto {
     private String userInitiating;
     private UserRole userRole;
     private TransactionType transactionType;
+    private TransactionStatus status;
 
     public TransactionDto() { }
 
@@ -35,8 +39,7 @@ public class TransactionDto {
 
         this.amount = transaction.getAmount();
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy - HH:mm");
-        this.timestamp = transaction.getTimestamp().format(formatter);
+        this.timestamp = transaction.getTimestamp().format(TIMESTAMP_FORMAT);
 
         if (transaction.getInitiator() != null) {
             this.userInitiating = transaction.getInitiator().getFirstName() + " " + transaction.getInitiator().getLastName();
@@ -44,6 +47,23 @@ public class TransactionDto {
         }
 
         this.transactionType = transaction.getTransactionType();
+        this.status = transaction.getStatus();
+    }
+
+    public TransactionDto(TransactionRow row) {
+        this.transactionId = row.transactionId();
+        this.fromAccount = row.fromIban();
+        this.toAccount = row.toIban();
+        this.amount = row.amount();
+        this.timestamp = row.timestamp().format(TIMESTAMP_FORMAT);
+
+        if (row.initiatorRole() != null) {
+            this.userInitiating = row.initiatorFirstName() + " " + row.initiatorLastName();
+            this.userRole = row.initiatorRole();
+        }
+
+        this.transactionType = row.transactionType();
+        this.status = row.status();
     }
 
     public String getFromIban() {
@@ -130,4 +150,12 @@ public class TransactionDto {
     public void setTransactionType(TransactionType transactionType) {
         this.transactionType = transactionType;
     }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nextgenbank.backend.model.dto;
 
+import com.nextgenbank.backend.model.TransactionStatus;
 import com.nextgenbank.backend.model.TransactionType;
 
 import java.math.BigDecimal;
@@ -14,5 +15,6 @@ public record TransactionResponseDto(
         String fromName,
         String toIban,
         String toName,
-        String direction
+        String direction,
+        TransactionStatus status
 ) {}
\ No newline at end of file
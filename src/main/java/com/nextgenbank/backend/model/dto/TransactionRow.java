@@ -0,0 +1,25 @@
+package com.nextgenbank.backend.model.dto;
+
+import com.nextgenbank.backend.model.TransactionStatus;
+import com.nextgenbank.backend.model.TransactionType;
+import com.nextgenbank.backend.model.UserRole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a transaction that the listings show, selected straight into this record
+ * instead of loading the transaction with its accounts and users
+ */
+public record TransactionRow(
+        Long transactionId,
+        String fromIban,
+        String toIban,
+        BigDecimal amount,
+        LocalDateTime timestamp,
+        String initiatorFirstName,
+        String initiatorLastName,
+        UserRole initiatorRole,
+        TransactionType transactionType,
+        TransactionStatus status
+) {}
@@ -3,16 +3,56 @@ package com.nextgenbank.backend.repository;
 import com.nextgenbank.backend.model.Account;
 import com.nextgenbank.backend.model.AccountType;
 import com.nextgenbank.backend.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, String> {
 
+    // The account endpoints return the entity itself, owner and creator included
+    @EntityGraph(attributePaths = {"customer", "createdBy"})
     List<Account> findByCustomer(User user);
 
-    Optional<Account> findByCustomerUserIdAndAccountType(Long userId, AccountType accountType);
+    @Override
+    @EntityGraph(attributePaths = {"customer", "createdBy"})
+    List<Account> findAll();
+
+    @EntityGraph(attributePaths = {"customer", "createdBy"})
+    @Query("SELECT a FROM Account a WHERE a.IBAN = :iban")
+    Optional<Account> findWithUsersByIban(@Param("iban") String iban);
+
+    // Bookings write the owners' names into the transaction feed
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT a FROM Account a WHERE a.IBAN = :iban")
+    Optional<Account> findWithCustomerByIban(@Param("iban") String iban);
+
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT a FROM Account a WHERE a.IBAN IN :ibans")
+    List<Account> findWithCustomersByIbanIn(@Param("ibans") Collection<String> ibans);
+
+    // Explicit query: the derived version joins users for the id and then scans the accounts table
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT a FROM Account a WHERE a.customer.userId = :userId AND a.accountType = :accountType")
+    Optional<Account> findByCustomerUserIdAndAccountType(@Param("userId") Long userId,
+                                                         @Param("accountType") AccountType accountType);
 
     Object findByCustomerAndAccountType(User user, AccountType accountType);
-}
\ No newline at end of file
+
+    @Query("SELECT a.IBAN FROM Account a WHERE a.customer.userId = :userId")
+    List<String> findIbansByCustomerUserId(@Param("userId") Long userId);
+
+    // IBAN and owner id of every account, to load the search index
+    @Query("SELECT a.IBAN, a.customer.userId FROM Account a")
+    List<Object[]> findIbanOwners();
+
+    List<Account> findByDailyTransferDate(LocalDate dailyTransferDate);
+
+    @Query("SELECT a.balanceShards FROM Account a WHERE a.IBAN = :iban")
+    Optional<Integer> findBalanceShardsByIban(@Param("iban") String iban);
+}
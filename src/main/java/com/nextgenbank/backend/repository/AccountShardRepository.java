@@ -0,0 +1,24 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.AccountShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountShardRepository extends JpaRepository<AccountShard, Long> {
+
+    Optional<AccountShard> findByAccountIbanAndShard(String accountIban, int shard);
+
+    List<AccountShard> findByDailyTransferDate(LocalDate dailyTransferDate);
+
+    @Query("""
+        SELECT COALESCE(SUM(s.dailyTransferAmount), 0) FROM AccountShard s
+        WHERE s.accountIban = :iban AND s.dailyTransferDate = :day
+    """)
+    BigDecimal sumDailyTransferAmount(@Param("iban") String iban, @Param("day") LocalDate day);
+}
@@ -0,0 +1,11 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(String accountIban, int shard);
+}
@@ -0,0 +1,53 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.Posting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    /**
+     * Sum of the postings of an account shard that are not part of the given snapshot or an earlier one.
+     * Postings assigned to a newer snapshot are included, so a snapshot taken between reading
+     * the latest snapshot and running this query does not hide them.
+     */
+    @Query("""
+        SELECT COALESCE(SUM(p.amount), 0) FROM Posting p
+        WHERE p.accountIban = :iban AND p.shard = :shard
+          AND (p.snapshotId IS NULL OR p.snapshotId > :snapshotId)
+    """)
+    BigDecimal sumAfterSnapshot(@Param("iban") String iban, @Param("shard") int shard,
+                                @Param("snapshotId") long snapshotId);
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Posting p WHERE p.snapshotId = :snapshotId")
+    BigDecimal sumBySnapshotId(@Param("snapshotId") Long snapshotId);
+
+    @Query("""
+        SELECT p.accountIban AS accountIban, p.shard AS shard FROM Posting p
+        WHERE p.snapshotId IS NULL
+        GROUP BY p.accountIban, p.shard
+        HAVING COUNT(p) >= :minPostings
+    """)
+    List<OpenShard> findShardsWithUnsnapshottedPostings(@Param("minPostings") long minPostings);
+
+    @Modifying
+    @Query("""
+        UPDATE Posting p SET p.snapshotId = :snapshotId
+        WHERE p.accountIban = :iban AND p.shard = :shard AND p.snapshotId IS NULL
+    """)
+    int assignToSnapshot(@Param("iban") String iban, @Param("shard") int shard, @Param("snapshotId") Long snapshotId);
+
+    /**
+     * Account shard that has postings which are not part of a snapshot yet
+     */
+    interface OpenShard {
+        String getAccountIban();
+
+        int getShard();
+    }
+}
@@ -0,0 +1,18 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.TransactionFeedEntry;
+import com.nextgenbank.backend.model.TransactionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TransactionFeedRepository extends JpaRepository<TransactionFeedEntry, Long>,
+        JpaSpecificationExecutor<TransactionFeedEntry> {
+
+    // Every entry of the transaction, i.e. both customers' rows of a transfer
+    @Modifying
+    @Query("UPDATE TransactionFeedEntry e SET e.status = :status WHERE e.transactionId = :transactionId")
+    int updateStatus(@Param("transactionId") Long transactionId, @Param("status") TransactionStatus status);
+}
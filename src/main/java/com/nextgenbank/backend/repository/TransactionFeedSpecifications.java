@@ -0,0 +1,83 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.AmountFilterOperation;
+import com.nextgenbank.backend.model.TransactionDirection;
+import com.nextgenbank.backend.model.TransactionFeedEntry;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Building blocks for the customer history filters on the transaction feed.
+ * Every filter reads a column of the feed row itself, so no filter needs a join.
+ */
+public final class TransactionFeedSpecifications {
+
+    private TransactionFeedSpecifications() {
+    }
+
+    public static Specification<TransactionFeedEntry> forCustomer(Long customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customerId"), customerId);
+    }
+
+    public static Specification<TransactionFeedEntry> hasDirection(TransactionDirection direction) {
+        return (root, query, cb) -> cb.equal(root.get("direction"), direction);
+    }
+
+    /**
+     * Own or counterparty IBAN contains the given text, ignoring case
+     */
+    public static Specification<TransactionFeedEntry> ibanContains(String iban) {
+        // IBANs are stored in upper case, so only the search term needs converting
+        String pattern = "%" + iban.toUpperCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("accountIban"), pattern),
+                cb.like(root.get("counterpartyIban"), pattern));
+    }
+
+    /**
+     * Own or counterparty IBAN is one of the given IBANs
+     */
+    public static Specification<TransactionFeedEntry> ibanIn(Collection<String> ibans) {
+        return (root, query, cb) -> cb.or(root.get("accountIban").in(ibans), root.get("counterpartyIban").in(ibans));
+    }
+
+    public static Specification<TransactionFeedEntry> counterpartyIn(Collection<Long> customerIds) {
+        return (root, query, cb) -> root.get("counterpartyId").in(customerIds);
+    }
+
+    public static Specification<TransactionFeedEntry> counterpartyNameContains(String name) {
+        String pattern = "%" + name.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("counterpartyName")), pattern);
+    }
+
+    public static Specification<TransactionFeedEntry> bookedFrom(LocalDateTime start) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"), start);
+    }
+
+    public static Specification<TransactionFeedEntry> bookedUntil(LocalDateTime end) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("timestamp"), end);
+    }
+
+    public static Specification<TransactionFeedEntry> amountMatches(AmountFilterOperation operation, BigDecimal amount) {
+        return (root, query, cb) -> switch (operation) {
+            case EQUAL -> cb.equal(root.get("amount"), amount);
+            case LESS_THAN -> cb.lessThan(root.get("amount"), amount);
+            case GREATER_THAN -> cb.greaterThan(root.get("amount"), amount);
+        };
+    }
+
+    /**
+     * Entries that come after the given transaction when sorted by timestamp and id, newest first
+     */
+    public static Specification<TransactionFeedEntry> olderThan(LocalDateTime timestamp, Long transactionId) {
+        // The redundant "timestamp <=" gives the database a range start on the feed index
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("timestamp"), timestamp),
+                cb.or(cb.lessThan(root.get("timestamp"), timestamp),
+                        cb.lessThan(root.get("transactionId"), transactionId)));
+    }
+}
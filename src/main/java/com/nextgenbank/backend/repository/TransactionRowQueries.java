@@ -0,0 +1,26 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.dto.TransactionRow;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Transaction listings read as TransactionRow projections: a single SELECT of the listed
+ * columns per call, however many rows it returns.
+ */
+public interface TransactionRowQueries {
+
+    List<TransactionRow> findRows(Specification<Transaction> spec, Sort sort);
+
+    List<TransactionRow> findRows(Specification<Transaction> spec, Sort sort, long offset, int limit);
+
+    /**
+     * The rows as a forward-only cursor, fetched fetchSize at a time instead of all at once.
+     * Has to be consumed inside a transaction and closed afterwards.
+     */
+    Stream<TransactionRow> streamRows(Specification<Transaction> spec, Sort sort, int fetchSize);
+}
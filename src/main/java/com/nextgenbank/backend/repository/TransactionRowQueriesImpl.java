@@ -0,0 +1,75 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.dto.TransactionRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class TransactionRowQueriesImpl implements TransactionRowQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionRow> findRows(Specification<Transaction> spec, Sort sort) {
+        return query(spec, sort).getResultList();
+    }
+
+    @Override
+    public List<TransactionRow> findRows(Specification<Transaction> spec, Sort sort, long offset, int limit) {
+        return query(spec, sort)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TransactionRow> streamRows(Specification<Transaction> spec, Sort sort, int fetchSize) {
+        // Projections are not managed entities, so the persistence context stays empty however far the stream runs
+        return query(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private TypedQuery<TransactionRow> query(Specification<Transaction> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionRow> query = cb.createQuery(TransactionRow.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        // The account IBANs are the foreign keys themselves, so only the initiator needs a join
+        Join<Transaction, User> initiator = root.join("initiator", JoinType.LEFT);
+
+        query.select(cb.construct(TransactionRow.class,
+                root.get("transactionId"),
+                root.get("fromAccount").get("IBAN"),
+                root.get("toAccount").get("IBAN"),
+                root.get("amount"),
+                root.get("timestamp"),
+                initiator.get("firstName"),
+                initiator.get("lastName"),
+                initiator.get("role"),
+                root.get("transactionType"),
+                root.get("status")));
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,63 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.TransactionStatus;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Building blocks for the transaction listings that read the transactions table itself.
+ * Account filters compare the foreign key columns of the transaction directly, without joins.
+ * Customers read their own history from the feed instead (see TransactionFeedSpecifications).
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Transactions from or to one of the given accounts
+     */
+    public static Specification<Transaction> involvesAnyOf(Collection<String> ibans) {
+        return (root, query, cb) -> cb.or(fromIban(root).in(ibans), toIban(root).in(ibans));
+    }
+
+    /**
+     * Transactions in the given review state
+     */
+    public static Specification<Transaction> hasStatus(TransactionStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * The transactions with the given ids
+     */
+    public static Specification<Transaction> idIn(Collection<Long> transactionIds) {
+        return (root, query, cb) -> root.get("transactionId").in(transactionIds);
+    }
+
+    /**
+     * Transactions that come after the given one when sorted by timestamp and id, newest first
+     */
+    public static Specification<Transaction> olderThan(LocalDateTime timestamp, Long transactionId) {
+        // The redundant "timestamp <=" gives the database a range start on the timestamp index;
+        // the OR on its own can only be checked row by row
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("timestamp"), timestamp),
+                cb.or(cb.lessThan(root.get("timestamp"), timestamp),
+                        cb.lessThan(root.get("transactionId"), transactionId)));
+    }
+
+    // Navigating to the id of a to-one association reads the foreign key without a join
+    private static Path<String> fromIban(Root<Transaction> root) {
+        return root.get("fromAccount").get("IBAN");
+    }
+
+    private static Path<String> toIban(Root<Transaction> root) {
+        return root.get("toAccount").get("IBAN");
+    }
+}
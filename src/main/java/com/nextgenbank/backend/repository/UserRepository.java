@@ -5,11 +5,15 @@ import com.nextgenbank.backend.model.UserRole;
 import com.nextgenbank.backend.model.UserStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +31,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByRole(UserRole role, Pageable pageable);
     List<User> findByRole(UserRole role); // Keep non-paginated version for compatibility
 
+    Slice<User> findSliceByRole(UserRole role, Pageable pageable);
+
+    long countByRole(UserRole role);
+
     @Query("""
         SELECT DISTINCT u FROM User u
         LEFT JOIN FETCH u.accountsOwned a
@@ -40,4 +48,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
             @Param("name") String name,
             @Param("iban") String iban,
             Pageable pageable);
+
+    // Same filters as findApprovedUsersWithAccounts; without the fetch join the limit runs in the database
+    @Query("""
+        SELECT u FROM User u
+        WHERE u.status = 'APPROVED'
+        AND (:name IS NULL OR
+             LOWER(u.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR
+             LOWER(u.lastName) LIKE LOWER(CONCAT('%', :name, '%')))
+        AND (:iban IS NULL OR EXISTS (
+             SELECT a FROM Account a WHERE a.customer = u AND LOWER(a.IBAN) LIKE LOWER(CONCAT('%', :iban, '%'))))
+    """)
+    Slice<User> findApprovedUserSliceWithAccounts(
+            @Param("name") String name,
+            @Param("iban") String iban,
+            Pageable pageable);
+
+    // For name and IBAN filters resolved to customer ids by the search index
+    @Query("SELECT u FROM User u WHERE u.status = 'APPROVED' AND u.userId IN :userIds")
+    Page<User> findApprovedUsersByUserIdIn(@Param("userIds") Collection<Long> userIds, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.status = 'APPROVED' AND u.userId IN :userIds")
+    Slice<User> findApprovedUserSliceByUserIdIn(@Param("userIds") Collection<Long> userIds, Pageable pageable);
+
+    // Id, first name and last name, to load the search index without loading the users
+    @Query("SELECT u.userId, u.firstName, u.lastName FROM User u WHERE u.role = :role")
+    List<Object[]> findNamesByRole(@Param("role") UserRole role);
+
+    /**
+     * Replaces the password hash only while it is still the expected one, and leaves the rest of
+     * the user untouched
+     * @return the number of users updated (0 when the hash was changed in the meantime)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.userId = :userId AND u.password = :oldHash")
+    int replacePasswordHash(@Param("userId") Long userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.nextgenbank.backend.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter over strings. mightContain never misses a key that was added,
+ * but answers true for a small share (about the false positive rate, as long as no more
+ * than the expected number of keys are added) of keys that were not.
+ *
+ * Adding and checking are lock-free and safe from any thread.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / entries * Math.log(2)));
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = bit(hash, i);
+            long mask = 1L << bit;
+            words.getAndUpdate((int) (bit >>> 6), word -> word | mask);
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = bit(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The i-th bit of a key, combined from the two halves of its hash (Kirsch and Mitzenmacher)
+     */
+    private long bit(long hash, int i) {
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return (combined < 0 ? ~combined : combined) % bits;
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, spread with the MurmurHash3 finalizer
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
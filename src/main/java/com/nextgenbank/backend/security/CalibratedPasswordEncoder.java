@@ -0,0 +1,87 @@
+package com.nextgenbank.backend.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * BCrypt at a strength chosen for the machine it runs on.
+ *
+ * calibrate times a hash at the lowest allowed strength and picks the highest strength whose
+ * hash is still expected to fit the latency budget; every step of strength doubles the work.
+ * A stored hash of a lower strength asks to be upgraded (upgradeEncoding), so passwords move
+ * up to the chosen strength as their users log in. A stronger hash is left alone: a slower or
+ * busy host calibrating lower must never weaken the passwords of other hosts.
+ */
+public class CalibratedPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public CalibratedPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * True when the hash is a BCrypt hash of a lower strength than this encoder's
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = strengthOf(encodedPassword);
+        return stored > 0 && stored < strength;
+    }
+
+    /**
+     * The strength of a BCrypt hash ("$2a$10$..."), or 0 when it is not one
+     */
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || !encodedPassword.startsWith("$2")
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return 0;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return 0;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * The highest strength between min and max whose hash should take no longer than the budget
+     */
+    public static int calibrate(long budgetMillis, int minStrength, int maxStrength) {
+        return calibrate(budgetMillis, minStrength, maxStrength, CalibratedPasswordEncoder::timeHash);
+    }
+
+    static int calibrate(long budgetMillis, int minStrength, int maxStrength, IntToLongFunction hashNanos) {
+        // The first hash also pays for class loading and JIT, so it is left out
+        hashNanos.applyAsLong(minStrength);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            fastest = Math.min(fastest, hashNanos.applyAsLong(minStrength));
+        }
+
+        long budgetNanos = budgetMillis * 1_000_000;
+        int strength = minStrength;
+        long expected = fastest;
+        while (strength < maxStrength && expected * 2 <= budgetNanos) {
+            strength++;
+            expected *= 2;
+        }
+        return strength;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return System.nanoTime() - start;
+    }
+}
@@ -1,43 +1,199 @@
 package com.nextgenbank.backend.security;
 
 import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.UserStatus;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Issues and verifies the JWTs the API is called with.
+ *
+ * An access token carries everything the API needs to know about its user (id, email, name,
+ * role and status), so a request is authenticated without loading the user. Access tokens
+ * are short-lived; a refresh token, which only identifies the user, gets a new one with the
+ * user's current details. Every token has an id so it can be revoked on its own.
+ *
+ * Tokens are verified by one shared parser. The claims of recently verified tokens are kept
+ * by the SHA-256 digest of the token until the token expires, so a client sending the same
+ * token with every request has its signature checked once. Only tokens that passed
+ * verification are cached; any other token is parsed (and rejected) again every time.
+ * The cached claims are shared between requests and must not be modified.
+ */
 @Component
 public class JwtProvider {
 
+    private static final int DEFAULT_VERIFIED_CACHE_SIZE = 10_000;
+    private static final long DEFAULT_ACCESS_TOKEN_TTL_MS = 15 * 60 * 1000;
+    private static final long DEFAULT_REFRESH_TOKEN_TTL_MS = 7 * 24 * 60 * 60 * 1000;
+
+    private static final String TOKEN_TYPE = "type";
+    private static final String ACCESS_TOKEN = "access";
+    private static final String REFRESH_TOKEN = "refresh";
+    private static final String USER_ID = "uid";
+    private static final String ROLE = "role";
+    private static final String STATUS = "status";
+    private static final String GIVEN_NAME = "given_name";
+    private static final String FAMILY_NAME = "family_name";
+    // The standard iat has whole seconds; revocations are compared with this one
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
+
     private final Key key;
     private final String jwtSecret = "testSecret";
+    private final JwtParser parser;
+    private final Clock clock;
+    private final long accessTokenTtlMillis;
+    private final long refreshTokenTtlMillis;
+    private final Map<String, Claims> verified;
+
+    public JwtProvider(String secret) {
+        this(secret, DEFAULT_VERIFIED_CACHE_SIZE, DEFAULT_ACCESS_TOKEN_TTL_MS, DEFAULT_REFRESH_TOKEN_TTL_MS,
+                Clock.systemUTC());
+    }
 
-    public JwtProvider(@Value("${jwt.secret}") String secret) {
+    @Autowired
+    public JwtProvider(@Value("${jwt.secret}") String secret,
+                       @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize,
+                       @Value("${jwt.access-token-ttl-ms:900000}") long accessTokenTtlMillis,
+                       @Value("${jwt.refresh-token-ttl-ms:604800000}") long refreshTokenTtlMillis) {
+        this(secret, verifiedCacheSize, accessTokenTtlMillis, refreshTokenTtlMillis, Clock.systemUTC());
+    }
+
+    JwtProvider(String secret, int verifiedCacheSize, long accessTokenTtlMillis, long refreshTokenTtlMillis,
+                Clock clock) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.clock = clock;
+        this.accessTokenTtlMillis = accessTokenTtlMillis;
+        this.refreshTokenTtlMillis = refreshTokenTtlMillis;
+        // The parser is immutable, so one instance serves all requests
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> new Date(clock.millis()))
+                .build();
+        this.verified = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize || isExpired(eldest.getValue());
+            }
+        });
     }
 
+    /**
+     * A short-lived access token describing the user
+     */
     public String generateToken(User user) {
+        long now = clock.millis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
-                .claim("role", user.getRole().name())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000)) // 24h
+                .claim(TOKEN_TYPE, ACCESS_TOKEN)
+                .claim(USER_ID, user.getUserId())
+                .claim(ROLE, user.getRole().name())
+                .claim(STATUS, user.getStatus().name())
+                .claim(GIVEN_NAME, user.getFirstName())
+                .claim(FAMILY_NAME, user.getLastName())
+                .claim(ISSUED_AT_MILLIS, now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenTtlMillis))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * A long-lived token that only identifies the user, to be exchanged for a new access token
+     */
+    public String generateRefreshToken(User user) {
+        long now = clock.millis();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getEmail())
+                .claim(TOKEN_TYPE, REFRESH_TOKEN)
+                .claim(USER_ID, user.getUserId())
+                .claim(ISSUED_AT_MILLIS, now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + refreshTokenTtlMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        return ACCESS_TOKEN.equals(claims.get(TOKEN_TYPE, String.class));
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE, String.class));
+    }
+
+    public Long getUserId(Claims claims) {
+        return claims.get(USER_ID, Long.class);
+    }
+
+    /**
+     * When the token was issued, in milliseconds. A token without the millisecond claim counts
+     * from the start of its iat second, and one without any issue time from the beginning of
+     * time, so a revocation always covers it.
+     */
+    public long getIssuedAtMillis(Claims claims) {
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : Long.MIN_VALUE;
+    }
+
+    /**
+     * The principal described by an access token. Its user is not loaded from the database
+     * and only has the details the token carries.
+     */
+    public UserPrincipal toPrincipal(Claims claims) {
+        User user = new User();
+        user.setUserId(getUserId(claims));
+        user.setEmail(claims.getSubject());
+        user.setFirstName(claims.get(GIVEN_NAME, String.class));
+        user.setLastName(claims.get(FAMILY_NAME, String.class));
+        user.setRole(UserRole.valueOf(claims.get(ROLE, String.class)));
+        user.setStatus(UserStatus.valueOf(claims.get(STATUS, String.class)));
+        return new UserPrincipal(user);
+    }
+
+    /**
+     * The claims of a token with a valid signature that has not expired; throws a
+     * JwtException otherwise
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = digest(token);
+        Claims claims = verified.get(digest);
+        if (claims != null) {
+            if (!isExpired(claims)) {
+                return claims;
+            }
+            verified.remove(digest);
+        }
+
+        // Throws ExpiredJwtException for an expired token
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verified.put(digest, claims);
+        }
+        return claims;
     }
 
     public String generateTokenForTest(String email, String role) {
@@ -55,4 +211,17 @@ public class JwtProvider {
     public String extractEmail(String token) {
         return extractAllClaims(token).getSubject();
     }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().getTime() < clock.millis();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.nextgenbank.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens that must no longer be accepted before they expire: single tokens (by their id)
+ * after a logout or refresh, and every token issued to a user up to (and including) the
+ * millisecond the user was revoked.
+ *
+ * Every authenticated request is checked, and almost none of them are revoked, so the
+ * check goes through a Bloom filter first and only looks at the exact entries when the
+ * filter reports a possible hit. Entries are kept until the tokens they cover have expired;
+ * a scheduled purge drops the rest and rebuilds the filter, which cannot remove keys.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final String TOKEN_KEY = "token:";
+    private static final String USER_KEY = "user:";
+
+    private final int expectedEntries;
+    private final long longestTokenLifetimeMillis;
+    private final Clock clock;
+
+    // Token id -> expiry of the token (ms)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // User id -> moment the user's tokens were revoked (ms)
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    @Autowired
+    public TokenRevocationList(@Value("${bank.token-revocation.expected-entries:100000}") int expectedEntries,
+                               @Value("${jwt.refresh-token-ttl-ms:604800000}") long refreshTokenTtlMillis) {
+        this(expectedEntries, refreshTokenTtlMillis, Clock.systemUTC());
+    }
+
+    TokenRevocationList(int expectedEntries, long longestTokenLifetimeMillis, Clock clock) {
+        this.expectedEntries = expectedEntries;
+        this.longestTokenLifetimeMillis = longestTokenLifetimeMillis;
+        this.clock = clock;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Revokes one token until it expires
+     * @return false when the token was already revoked
+     */
+    public synchronized boolean revokeToken(String tokenId, Date expiresAt) {
+        if (revokedTokens.putIfAbsent(tokenId, expiresAt.getTime()) != null) {
+            return false;
+        }
+        filter.add(TOKEN_KEY + tokenId);
+        return true;
+    }
+
+    /**
+     * Revokes every token issued to the user until now
+     */
+    public synchronized void revokeUser(Long userId) {
+        revokedUsers.put(userId, clock.millis());
+        filter.add(USER_KEY + userId);
+    }
+
+    /**
+     * @param issuedAtMillis when the token was issued, in milliseconds (see JwtProvider.getIssuedAtMillis)
+     */
+    public boolean isRevoked(String tokenId, Long userId, long issuedAtMillis) {
+        BloomFilter current = filter;
+        if (current.mightContain(TOKEN_KEY + tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (!current.mightContain(USER_KEY + userId)) {
+            return false;
+        }
+        Long revokedAt = revokedUsers.get(userId);
+        // A token issued in the same millisecond as the revocation counts as revoked
+        return revokedAt != null && issuedAtMillis <= revokedAt;
+    }
+
+    /**
+     * Forgets entries whose tokens have all expired and rebuilds the filter from the rest
+     */
+    @Scheduled(fixedDelayString = "${bank.token-revocation.purge-interval-ms:60000}")
+    public synchronized void purge() {
+        long now = clock.millis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + longestTokenLifetimeMillis < now);
+
+        int entries = revokedTokens.size() + revokedUsers.size();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2 * entries), FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.add(TOKEN_KEY + tokenId));
+        revokedUsers.keySet().forEach(userId -> rebuilt.add(USER_KEY + userId));
+        filter = rebuilt;
+        logger.debug("Revocation list holds {} tokens and {} users", revokedTokens.size(), revokedUsers.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.nextgenbank.backend.security;
 
 import com.nextgenbank.backend.filter.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,6 +36,9 @@ public class WebSecurityConfiguration {
                                 XFrameOptionsHeaderWriter.XFrameOptionsMode.SAMEORIGIN)) //only allows framing by pages from the same origin
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed and deferred responses finish in an async dispatch of a request that was already
+                        // authorized; the JWT filter only runs on the first dispatch, so that one would be denied
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/",
                                 "/auth/**",
@@ -47,14 +51,18 @@ public class WebSecurityConfiguration {
                                 "/swagger-resources/**",
                                 "/configuration/**",
                                 "/webjars/**",
-                                "/favicon.ico"
+                                "/favicon.ico",
+                                "/actuator/health"
                         ).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("EMPLOYEE")
                         .requestMatchers("/api/user/me").hasAnyRole("CUSTOMER", "EMPLOYEE")
                         .requestMatchers("/api/test/**").permitAll()
                         .requestMatchers("/api/accounts/my").hasRole("CUSTOMER")
                         .requestMatchers("/api/accounts/lookup").hasRole("CUSTOMER")
+                        .requestMatchers("/api/accounts/lookup/slice").hasRole("CUSTOMER")
                         .requestMatchers("/api/transactions/switch").hasRole("CUSTOMER")
                         .requestMatchers("/api/transactions").hasRole("CUSTOMER")
+                        .requestMatchers("/api/transactions/cursor").hasRole("CUSTOMER")
                         .requestMatchers("/api/employees/**").hasRole("EMPLOYEE")
                         .requestMatchers("/api/accounts/all-iban-users").hasRole("CUSTOMER")
                         .anyRequest().authenticated()
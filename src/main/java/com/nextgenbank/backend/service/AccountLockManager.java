@@ -0,0 +1,149 @@
+package com.nextgenbank.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes balance mutations per account using a fixed pool of striped locks.
+ *
+ * Every IBAN maps onto one stripe. When several accounts are involved the stripes
+ * are always acquired in ascending stripe order, so two transfers touching the same
+ * accounts in opposite directions can never deadlock each other.
+ *
+ * Locks taken inside a Spring transaction are held until that transaction completes,
+ * so the next writer only reads a balance after the previous one has been committed.
+ *
+ * A sharded account has one lock per balance shard instead of one for the IBAN, so
+ * debits from different shards of the same account do not wait for each other.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public AccountLockManager(@Value("${bank.account-locks.stripes:1024}") int stripeCount,
+                              @Value("${bank.account-locks.timeout-ms:5000}") long timeoutMs) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Run an action while holding the lock of a single account
+     */
+    public <T> T withLock(String iban, Supplier<T> action) {
+        return withLocks(Arrays.asList(iban), action);
+    }
+
+    /**
+     * Run an action while holding the locks of both accounts of a transfer
+     */
+    public <T> T withLocks(String firstIban, String secondIban, Supplier<T> action) {
+        return withLocks(Arrays.asList(firstIban, secondIban), action);
+    }
+
+    /**
+     * Run an action while holding the locks of all given accounts.
+     * Null IBANs are ignored so callers can pass unvalidated request data.
+     */
+    public <T> T withLocks(Collection<String> ibans, Supplier<T> action) {
+        List<ReentrantLock> acquired = acquire(ibans);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Keep the locks until commit/rollback, otherwise another writer could
+            // read the old balance between our unlock and our commit.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(acquired);
+                }
+            });
+            return action.get();
+        }
+
+        try {
+            return action.get();
+        } finally {
+            release(acquired);
+        }
+    }
+
+    /**
+     * Lock key of one balance shard of a sharded account
+     */
+    public static String shardKey(String iban, int shard) {
+        return iban + "#" + shard;
+    }
+
+    /**
+     * Lock keys that together cover every balance of an account with the given number of shards
+     */
+    public static List<String> accountKeys(String iban, int shards) {
+        if (shards <= 1) {
+            return Arrays.asList(iban);
+        }
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(iban, shard));
+        }
+        return keys;
+    }
+
+    int stripeFor(String iban) {
+        int hash = iban.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private List<ReentrantLock> acquire(Collection<String> ibans) {
+        // Sorting by stripe (not by IBAN) keeps the order total even when
+        // two different IBANs share a stripe.
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        ibans.stream()
+                .filter(Objects::nonNull)
+                .forEach(iban -> stripeIndexes.add(stripeFor(iban)));
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int index : stripeIndexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Account is busy, please try again later");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            release(acquired);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for account lock", e);
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+        return acquired;
+    }
+
+    private void release(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+}
@@ -5,19 +5,27 @@ import com.nextgenbank.backend.model.AccountType;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserRole;
 import com.nextgenbank.backend.model.dto.AccountLookupDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -27,13 +35,26 @@ import java.util.stream.Collectors;
 @Service
 public class AccountService {
 
+    // Upper bound for the balance shards of one account; every shard adds a lock and a cached balance
+    static final int MAX_BALANCE_SHARDS = 64;
+
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final BalanceService balanceService;
+    private final CustomerSearchIndex searchIndex;
 
     @Autowired
-    public AccountService(AccountRepository accountRepository, UserRepository userRepository) {
+    public AccountService(AccountRepository accountRepository, UserRepository userRepository,
+                          AccountLockManager accountLockManager, OptimisticRetryExecutor retryExecutor,
+                          BalanceService balanceService, CustomerSearchIndex searchIndex) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.accountLockManager = accountLockManager;
+        this.retryExecutor = retryExecutor;
+        this.balanceService = balanceService;
+        this.searchIndex = searchIndex;
     }
     @PersistenceContext
     private EntityManager entityManager;
@@ -56,6 +77,7 @@ public class AccountService {
             System.out.println("Account IBAN: " + account.getIBAN() + ", Type: " + account.getAccountType());
         }
 
+        balanceService.resolve(accounts);
         return accounts;
     }
 
@@ -63,22 +85,25 @@ public class AccountService {
      * Get account by IBAN
      */
     public Account getAccountByIban(String iban) {
-        return accountRepository.findById(iban)
+        Account account = accountRepository.findWithUsersByIban(iban)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
+        balanceService.resolve(account);
+        return account;
     }
 
     /**
      * Get all accounts
      */
     public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+        List<Account> accounts = accountRepository.findAll();
+        balanceService.resolve(accounts);
+        return accounts;
     }
 
     /**
      * Update the absolute transfer limit for an account
      * Validates that the limit is a positive number
      */
-    @Transactional
     public Account updateAbsoluteTransferLimit(String iban, BigDecimal absoluteLimit) {
         System.out.println("Updating absolute transfer limit for IBAN: " + iban + ", new limit: " + absoluteLimit);
 
@@ -95,13 +120,61 @@ public class AccountService {
             throw new IllegalArgumentException("Transfer limit must be a positive number");
         }
 
-        Account account = accountRepository.findById(iban)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found with IBAN: " + iban));
+        // Saving the entity rewrites the daily transfer total too, so wait for running transfers
+        Account savedAccount = retryExecutor.execute("update-transfer-limit",
+                () -> accountLockManager.withLock(iban, () -> {
+                    Account account = accountRepository.findById(iban)
+                            .orElseThrow(() -> new IllegalArgumentException("Account not found with IBAN: " + iban));
 
-        account.setAbsoluteTransferLimit(absoluteLimit);
-        Account savedAccount = accountRepository.save(account);
+                    account.setAbsoluteTransferLimit(absoluteLimit);
+                    return accountRepository.save(account);
+                }));
 
         System.out.println("Updated absolute transfer limit successfully for IBAN: " + iban);
+        balanceService.resolve(savedAccount);
+        return savedAccount;
+    }
+
+    /**
+     * Split the balance of a busy account into the given number of shards so concurrent debits
+     * and credits spread over several locks and rows. The current balance is spread evenly.
+     * The number can only be raised: credits take no lock, so a credit that already picked a
+     * shard could otherwise land on one that is no longer counted.
+     */
+    public Account updateBalanceShards(String iban, int shards) {
+        if (shards < 1 || shards > MAX_BALANCE_SHARDS) {
+            throw new IllegalArgumentException("Number of balance shards must be between 1 and " + MAX_BALANCE_SHARDS);
+        }
+
+        Account savedAccount = retryExecutor.execute("update-balance-shards", () -> {
+            int current = accountRepository.findBalanceShardsByIban(iban)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found with IBAN: " + iban));
+            if (shards < current) {
+                throw new IllegalArgumentException("The number of balance shards of an account cannot be lowered");
+            }
+
+            // Both the current and the new layout are locked, so no debit runs with either
+            Set<String> keys = new HashSet<>(AccountLockManager.accountKeys(iban, current));
+            keys.addAll(AccountLockManager.accountKeys(iban, shards));
+            return accountLockManager.withLocks(keys, () -> {
+                Account account = accountRepository.findById(iban)
+                        .orElseThrow(() -> new IllegalArgumentException("Account not found with IBAN: " + iban));
+                if (account.getBalanceShards() != current) {
+                    throw new OptimisticLockingFailureException("Balance shards of account " + iban + " changed");
+                }
+                if (shards == current) {
+                    return account;
+                }
+
+                balanceService.reshard(account, shards);
+                account.setBalanceShards(shards);
+                // Debits that start now lock the new layout and wait for this transaction
+                balanceService.rememberShards(account);
+                return accountRepository.save(account);
+            });
+        });
+
+        balanceService.resolve(savedAccount);
         return savedAccount;
     }
 
@@ -143,6 +216,8 @@ public class AccountService {
 
             accountRepository.save(checking);
             accountRepository.save(savings);
+            searchIndex.addAccount(checking);
+            searchIndex.addAccount(savings);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create accounts for user: " + user.getUserId(), e);
         }
@@ -153,7 +228,7 @@ public class AccountService {
         account.setIBAN(generateUniqueIBAN());
         account.setCustomer(customer);
         account.setAccountType(type);
-        account.setBalance(BigDecimal.ZERO);
+        account.setOpeningBalance(BigDecimal.ZERO);
         account.setAbsoluteTransferLimit(new BigDecimal("5000"));
         account.setDailyTransferAmount(BigDecimal.ZERO);
         account.setCreatedBy(employee);
@@ -176,7 +251,11 @@ public class AccountService {
     }
 
     public Page<AccountLookupDto> lookupAccounts(String name, String iban, Pageable pageable) {
-        Page<User> usersPage = userRepository.findApprovedUsersWithAccounts(name, iban, pageable);
+        Page<User> usersPage = lookupCandidates(name, iban)
+                .map(userIds -> userIds.isEmpty()
+                        ? Page.<User>empty(pageable)
+                        : userRepository.findApprovedUsersByUserIdIn(userIds, pageable))
+                .orElseGet(() -> userRepository.findApprovedUsersWithAccounts(name, iban, pageable));
 
         List<AccountLookupDto> dtoList = usersPage.getContent().stream()
                 .map(user -> convertUserToAccountLookupDto(user, iban))
@@ -186,6 +265,52 @@ public class AccountService {
         return new PageImpl<>(dtoList, pageable, usersPage.getTotalElements());
     }
 
+    /**
+     * Same lookup without counting the matches; filtered lookups have no total estimate
+     */
+    public SliceDto<AccountLookupDto> lookupAccountsSlice(String name, String iban, Pageable pageable) {
+        Slice<User> users = lookupCandidates(name, iban)
+                .map(userIds -> userIds.isEmpty()
+                        ? new SliceImpl<User>(List.of(), pageable, false)
+                        : userRepository.findApprovedUserSliceByUserIdIn(userIds, pageable))
+                .orElseGet(() -> userRepository.findApprovedUserSliceWithAccounts(name, iban, pageable));
+
+        List<AccountLookupDto> dtoList = users.getContent().stream()
+                .map(user -> convertUserToAccountLookupDto(user, iban))
+                .filter(dto -> !dto.getIbans().isEmpty())
+                .collect(Collectors.toList());
+
+        return new SliceDto<>(dtoList, users.getNumber(), users.getSize(), users.hasNext(), null);
+    }
+
+    /**
+     * The customers that match the name and IBAN filters according to the search index.
+     * Empty when a filter is missing or cannot be resolved by the index, in which case the
+     * filters run as LIKE queries in the database.
+     */
+    private Optional<Set<Long>> lookupCandidates(String name, String iban) {
+        boolean byName = StringUtils.hasText(name);
+        boolean byIban = StringUtils.hasText(iban);
+        if (!byName && !byIban) {
+            return Optional.empty();
+        }
+
+        Optional<Set<Long>> named = byName ? searchIndex.customersNamed(name.trim()) : Optional.empty();
+        Optional<Set<Long>> owning = byIban ? searchIndex.customersWithIbanContaining(iban.trim()) : Optional.empty();
+        if ((byName && named.isEmpty()) || (byIban && owning.isEmpty())) {
+            return Optional.empty();
+        }
+        if (!byIban) {
+            return named;
+        }
+        if (!byName) {
+            return owning;
+        }
+        Set<Long> both = new HashSet<>(named.get());
+        both.retainAll(owning.get());
+        return Optional.of(both);
+    }
+
     public Page<AccountLookupDto> getAllUsersWithIbans(Pageable pageable) {
         Page<User> usersPage = userRepository.findApprovedUsersWithAccounts(null, null, pageable);
 
@@ -197,6 +322,8 @@ public class AccountService {
     }
 
     public List<Account> getAccountsForUser(User user) {
-        return accountRepository.findByCustomer(user);
+        List<Account> accounts = accountRepository.findByCustomer(user);
+        balanceService.resolve(accounts);
+        return accounts;
     }
 }
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.TransactionStatus;
+import com.nextgenbank.backend.model.dto.AsyncTransferStatusDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResultDto;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Accepts transfers into a bounded in-memory queue and books them in the background.
+ *
+ * A single writer thread drains the queue in micro-batches and books each batch
+ * through the batch transfer path, i.e. in one database transaction (group commit).
+ * Under burst load many transfers share one commit instead of paying for their own.
+ *
+ * Queued transfers only live in memory: they are lost if the process stops before
+ * the writer reaches them. Results of finished transfers are kept for a bounded
+ * number of transfers so clients can still look them up; only the user who submitted
+ * a transfer can.
+ */
+@Service
+public class AsyncTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    private final TransactionService transactionService;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final Map<String, Submission> results = new ConcurrentHashMap<>();
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final int retainedResults;
+    private final long shutdownTimeoutMs;
+
+    // Submitters hold the read lock while they check running and queue; stopping takes the write
+    // lock, so nothing can be queued once the writer may have seen the queue closed and empty
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public AsyncTransferService(TransactionService transactionService,
+                                MeterRegistry meterRegistry,
+                                @Value("${bank.async-transfer.queue-capacity:10000}") int queueCapacity,
+                                @Value("${bank.async-transfer.max-batch-size:200}") int maxBatchSize,
+                                @Value("${bank.async-transfer.linger-ms:5}") long lingerMs,
+                                @Value("${bank.async-transfer.retained-results:100000}") int retainedResults,
+                                @Value("${bank.async-transfer.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        if (maxBatchSize < 1 || maxBatchSize > TransactionService.MAX_BATCH_TRANSFERS) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + TransactionService.MAX_BATCH_TRANSFERS);
+        }
+        this.transactionService = transactionService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.retainedResults = retainedResults;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.batchSizes = meterRegistry.summary("bank.async-transfer.batch.size");
+        meterRegistry.gauge("bank.async-transfer.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "async-transfer-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting new work and book what is still queued before shutting down
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        close();
+        if (writer != null) {
+            writer.join(shutdownTimeoutMs);
+        }
+        // Whatever the writer did not reach in time will never be booked
+        PendingTransfer pending;
+        while ((pending = queue.poll()) != null) {
+            complete(pending, new AsyncTransferStatusDto(pending.transferId(), AsyncTransferStatusDto.Status.FAILED,
+                    null, "Transfer queue was shut down before the transfer was booked"));
+        }
+    }
+
+    /**
+     * Queue a transfer of the given user and return its id right away
+     *
+     * @throws IllegalStateException when the queue is full or shut down
+     */
+    public String submit(Long submitterId, TransferRequestDto transferRequest) {
+        acceptLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Transfer queue is not accepting transfers");
+            }
+
+            String transferId = UUID.randomUUID().toString();
+            CompletableFuture<AsyncTransferStatusDto> result = new CompletableFuture<>();
+            results.put(transferId, new Submission(submitterId, result));
+
+            if (!queue.offer(new PendingTransfer(transferId, transferRequest, result))) {
+                results.remove(transferId);
+                throw new IllegalStateException("Transfer queue is full, please try again later");
+            }
+            return transferId;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Current state of a transfer the user submitted, or null if the id is unknown, belongs to
+     * another user or its result was already dropped
+     */
+    public AsyncTransferStatusDto getStatus(String transferId, Long userId) {
+        CompletableFuture<AsyncTransferStatusDto> result = subscribe(transferId, userId);
+        if (result == null) {
+            return null;
+        }
+        return result.getNow(AsyncTransferStatusDto.queued(transferId));
+    }
+
+    /**
+     * Future that completes when the transfer is booked or rejected, or null if the id is unknown
+     * or belongs to another user
+     */
+    public CompletableFuture<AsyncTransferStatusDto> subscribe(String transferId, Long userId) {
+        Submission submission = results.get(transferId);
+        if (submission == null || !submission.submitterId().equals(userId)) {
+            return null;
+        }
+        return submission.result();
+    }
+
+    private void close() {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingTransfer first = nextTransfer();
+            if (first == null) {
+                continue;
+            }
+
+            batch.add(first);
+            if (lingerMs > 0 && queue.size() < maxBatchSize - 1) {
+                // Give a burst a moment to fill the batch before committing
+                pause(lingerMs);
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+
+            try {
+                book(batch);
+            } catch (RuntimeException e) {
+                logger.error("Async transfer writer failed on a batch of {}", batch.size(), e);
+                batch.forEach(pending -> complete(pending, failed(pending, e)));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Polls instead of blocking forever so the writer notices stop() without being interrupted
+    private PendingTransfer nextTransfer() {
+        try {
+            return queue.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            close();
+            return queue.poll();
+        }
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            close();
+        }
+    }
+
+    private void book(List<PendingTransfer> batch) {
+        batchSizes.record(batch.size());
+
+        BatchTransferResponseDto response;
+        try {
+            response = transactionService.transferFundsBatch(batch.stream().map(PendingTransfer::request).toList());
+        } catch (RuntimeException e) {
+            // The whole batch was rolled back (e.g. a lock timeout); book the transfers one by one instead
+            logger.warn("Group commit of {} transfers failed, booking them individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::bookSingle);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingTransfer pending = batch.get(i);
+            BatchTransferResultDto result = response.getResults().get(i);
+            complete(pending, result.isSuccess()
+                    ? booked(pending, result.getTransaction())
+                    : new AsyncTransferStatusDto(pending.transferId(), AsyncTransferStatusDto.Status.FAILED,
+                            null, result.getError()));
+        }
+    }
+
+    private void bookSingle(PendingTransfer pending) {
+        try {
+            complete(pending, booked(pending, transactionService.transferFunds(pending.request())));
+        } catch (RuntimeException e) {
+            complete(pending, failed(pending, e));
+        }
+    }
+
+    private void complete(PendingTransfer pending, AsyncTransferStatusDto status) {
+        pending.result().complete(status);
+        finished.add(pending.transferId());
+
+        if (finishedCount.incrementAndGet() > retainedResults) {
+            String oldest = finished.poll();
+            if (oldest != null) {
+                results.remove(oldest);
+                finishedCount.decrementAndGet();
+            }
+        }
+    }
+
+    private AsyncTransferStatusDto booked(PendingTransfer pending, TransactionDto transaction) {
+        AsyncTransferStatusDto.Status status = transaction != null && transaction.getStatus() == TransactionStatus.PENDING
+                ? AsyncTransferStatusDto.Status.PENDING
+                : AsyncTransferStatusDto.Status.COMPLETED;
+        return new AsyncTransferStatusDto(pending.transferId(), status, transaction, null);
+    }
+
+    private AsyncTransferStatusDto failed(PendingTransfer pending, RuntimeException e) {
+        return new AsyncTransferStatusDto(pending.transferId(), AsyncTransferStatusDto.Status.FAILED,
+                null, e.getMessage());
+    }
+
+    private record Submission(Long submitterId, CompletableFuture<AsyncTransferStatusDto> result) {
+    }
+
+    private record PendingTransfer(String transferId, TransferRequestDto request,
+                                   CompletableFuture<AsyncTransferStatusDto> result) {
+    }
+}
@@ -0,0 +1,455 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.BalanceSnapshot;
+import com.nextgenbank.backend.model.Posting;
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.BalanceSnapshotRepository;
+import com.nextgenbank.backend.repository.PostingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resolves account balances from the posting ledger.
+ *
+ * A balance is the latest snapshot of the account (or its opening balance) plus the
+ * postings written since. Booking a transaction only inserts postings, so accounts
+ * that receive many payments are never updated in place.
+ *
+ * Resolved balances are cached per IBAN. A commit adds its posted amounts to the cached
+ * balances before the account locks are released, so a busy account does not have to be
+ * summed again for its next debit. A balance is only put into the cache when no commit
+ * touching its stripe ran while it was loaded, so it can never already contain an amount
+ * that is added again. Inside the transaction that writes postings, balances of the
+ * affected accounts are read from the database (including the uncommitted postings)
+ * and are not cached.
+ *
+ * A scheduled job folds the open postings of busy accounts into a new snapshot.
+ *
+ * Accounts can be split into balance shards. Every shard has its own postings, snapshots
+ * and cache entry, and the account balance is the sum of its shards. A credit lands on a
+ * random shard; a debit is taken from one shard while only that shard is locked, or, when
+ * the whole account is locked, spread over all shards so they end up even again.
+ */
+@Service
+public class BalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceService.class);
+    private static final int STRIPES = 1024;
+
+    private final PostingRepository postingRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final AccountLockManager accountLockManager;
+    private final TransactionOperations transactionOperations;
+    private final Map<ShardKey, BigDecimal> balances;
+    // Per stripe of account shards: commits that are running and commits that have finished.
+    // A load is only cached if neither changed while it ran.
+    private final AtomicLongArray committing = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    // Shard counts of the sharded accounts seen so far; any other account is taken to have one
+    private final Map<String, Integer> shardCounts = new ConcurrentHashMap<>();
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final long snapshotMinPostings;
+
+    public BalanceService(PostingRepository postingRepository,
+                          BalanceSnapshotRepository balanceSnapshotRepository,
+                          AccountRepository accountRepository,
+                          AccountLockManager accountLockManager,
+                          TransactionOperations transactionOperations,
+                          MeterRegistry meterRegistry,
+                          @Value("${bank.balance.cache-size:10000}") int cacheSize,
+                          @Value("${bank.balance.snapshot-min-postings:100}") long snapshotMinPostings) {
+        this.postingRepository = postingRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountRepository = accountRepository;
+        this.accountLockManager = accountLockManager;
+        this.transactionOperations = transactionOperations;
+        this.snapshotMinPostings = snapshotMinPostings;
+        this.balances = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ShardKey, BigDecimal> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.cacheHits = meterRegistry.counter("bank.balance.cache", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("bank.balance.cache", "result", "miss");
+    }
+
+    /**
+     * Current balance of the account, the sum of all its shards
+     */
+    public BigDecimal getBalance(Account account) {
+        if (!account.isSharded()) {
+            return getShardBalance(account, 0);
+        }
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int shard = 0; shard < account.getBalanceShards(); shard++) {
+            balance = balance.add(getShardBalance(account, shard));
+        }
+        return balance;
+    }
+
+    /**
+     * Current balance of one shard of the account
+     */
+    public BigDecimal getShardBalance(Account account, int shard) {
+        ShardKey key = new ShardKey(account.getIBAN(), shard);
+        if (postedInCurrentTransaction(key)) {
+            return load(account, shard);
+        }
+
+        BigDecimal cached = balances.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+
+        int stripe = stripeFor(key);
+        long generation = generations.get(stripe);
+        boolean quiet = committing.get(stripe) == 0;
+        BigDecimal balance = load(account, shard);
+        synchronized (balances) {
+            if (quiet && committing.get(stripe) == 0 && generations.get(stripe) == generation) {
+                balances.put(key, balance);
+            }
+        }
+        return balance;
+    }
+
+    /**
+     * Cached balance of one shard, or null when it is not cached. Never reads the database,
+     * so it can be used to pick a shard before taking any lock.
+     */
+    public BigDecimal peekShardBalance(String iban, int shard) {
+        return balances.get(new ShardKey(iban, shard));
+    }
+
+    /**
+     * Number of balance shards the account had when it was last seen, without reading the database.
+     * Callers that lock by it check the loaded account again (see {@link #rememberShards}).
+     */
+    public int knownShards(String iban) {
+        return iban == null ? 1 : shardCounts.getOrDefault(iban, 1);
+    }
+
+    public void rememberShards(Account account) {
+        if (account.isSharded()) {
+            shardCounts.put(account.getIBAN(), account.getBalanceShards());
+        } else {
+            shardCounts.remove(account.getIBAN());
+        }
+    }
+
+    /**
+     * Fill in the current balance of the account so it can be returned to a client
+     */
+    public Account resolve(Account account) {
+        account.setBalance(getBalance(account));
+        return account;
+    }
+
+    public List<Account> resolve(List<Account> accounts) {
+        accounts.forEach(this::resolve);
+        return accounts;
+    }
+
+    /**
+     * Forget the cached balance of an account whose opening balance was changed outside the ledger
+     */
+    public void evict(String iban) {
+        // The opening balance only counts on shard 0
+        evict(List.of(new ShardKey(iban, 0)));
+    }
+
+    /**
+     * Write the debit and credit postings of a booked transaction.
+     * A deposit or withdrawal only has the posting of its own account.
+     * A debit of a sharded account is spread over all its shards, so the caller must hold
+     * the locks of the whole account.
+     */
+    public void post(Transaction transaction) {
+        post(List.of(transaction));
+    }
+
+    /**
+     * Write the postings of a transaction whose debit is taken from one shard of the source
+     * account only. The caller holds the lock of that shard.
+     */
+    public void post(Transaction transaction, int debitShard) {
+        List<Posting> postings = new ArrayList<>(2);
+        postings.add(new Posting(transaction.getFromAccount().getIBAN(), debitShard, transaction.getTransactionId(),
+                transaction.getAmount().negate(), postedAt(transaction)));
+        if (transaction.getToAccount() != null) {
+            postings.add(creditPosting(transaction));
+        }
+        postingRepository.saveAll(postings);
+        applyOnCommit(postings);
+    }
+
+    public void post(List<Transaction> transactions) {
+        List<Posting> postings = new ArrayList<>(transactions.size() * 2);
+        // Running shard balances of the sharded accounts in this call
+        Map<String, BigDecimal[]> shardBalances = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            Account from = transaction.getFromAccount();
+            if (from != null && from.isSharded()) {
+                BigDecimal[] balancesOfShards = shardBalances.computeIfAbsent(from.getIBAN(), iban -> shardBalances(from));
+                spreadDebit(postings, transaction, balancesOfShards);
+            } else if (from != null) {
+                postings.add(new Posting(from.getIBAN(), 0, transaction.getTransactionId(),
+                        transaction.getAmount().negate(), postedAt(transaction)));
+            }
+
+            Account to = transaction.getToAccount();
+            if (to != null) {
+                Posting credit = creditPosting(transaction);
+                postings.add(credit);
+                if (to.isSharded()) {
+                    BigDecimal[] balancesOfShards = shardBalances.computeIfAbsent(to.getIBAN(), iban -> shardBalances(to));
+                    balancesOfShards[credit.getShard()] = balancesOfShards[credit.getShard()].add(credit.getAmount());
+                }
+            }
+        }
+        postingRepository.saveAll(postings);
+        applyOnCommit(postings);
+    }
+
+    /**
+     * Spread the balance of an account evenly over a new number of shards.
+     * The caller holds the locks of the account with its current and its new shard count.
+     */
+    public void reshard(Account account, int shards) {
+        BigDecimal[] current = shardBalances(account);
+        BigDecimal total = Arrays.stream(current).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal[] targets = spread(total, shards);
+
+        List<Posting> postings = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int shard = 0; shard < Math.max(current.length, shards); shard++) {
+            BigDecimal from = shard < current.length ? current[shard] : BigDecimal.ZERO;
+            BigDecimal to = shard < shards ? targets[shard] : BigDecimal.ZERO;
+            BigDecimal change = to.subtract(from);
+            if (change.signum() != 0) {
+                postings.add(new Posting(account.getIBAN(), shard, null, change, now));
+            }
+        }
+        postingRepository.saveAll(postings);
+        applyOnCommit(postings);
+    }
+
+    /**
+     * Fold the open postings of every account that collected enough of them into a new snapshot
+     */
+    @Scheduled(fixedDelayString = "${bank.balance.snapshot-interval-ms:60000}")
+    public void takeSnapshots() {
+        List<PostingRepository.OpenShard> shards = postingRepository.findShardsWithUnsnapshottedPostings(snapshotMinPostings);
+        for (PostingRepository.OpenShard open : shards) {
+            String iban = open.getAccountIban();
+            int shard = open.getShard();
+            try {
+                // The account lock (or the shard lock of a sharded account) keeps two snapshots
+                // of one shard from building on the same predecessor
+                transactionOperations.execute(status -> accountLockManager.withLocks(
+                        iban, AccountLockManager.shardKey(iban, shard), () -> snapshot(iban, shard)));
+            } catch (RuntimeException e) {
+                logger.warn("Could not take balance snapshot of {} shard {}: {}", iban, shard, e.getMessage());
+            }
+        }
+        if (!shards.isEmpty()) {
+            logger.info("Took balance snapshots of {} account shards", shards.size());
+        }
+    }
+
+    /**
+     * Assign all open postings of the account shard to a new snapshot holding the resulting balance.
+     * The balance does not change, so cached balances stay valid.
+     */
+    BalanceSnapshot snapshot(String iban, int shard) {
+        BigDecimal previousBalance = balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(iban, shard)
+                .map(BalanceSnapshot::getBalance)
+                .orElseGet(() -> accountRepository.findById(iban)
+                        .map(account -> shardBase(account, shard))
+                        .orElseThrow(() -> new IllegalArgumentException("Account not found: " + iban)));
+
+        BalanceSnapshot snapshot = balanceSnapshotRepository.saveAndFlush(
+                new BalanceSnapshot(iban, shard, previousBalance, LocalDateTime.now()));
+        postingRepository.assignToSnapshot(iban, shard, snapshot.getSnapshotId());
+        snapshot.setBalance(previousBalance.add(postingRepository.sumBySnapshotId(snapshot.getSnapshotId())));
+        return balanceSnapshotRepository.save(snapshot);
+    }
+
+    private BigDecimal load(Account account, int shard) {
+        Optional<BalanceSnapshot> snapshot =
+                balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(account.getIBAN(), shard);
+        BigDecimal base = snapshot.map(BalanceSnapshot::getBalance).orElseGet(() -> shardBase(account, shard));
+        long snapshotId = snapshot.map(BalanceSnapshot::getSnapshotId).orElse(0L);
+        return base.add(postingRepository.sumAfterSnapshot(account.getIBAN(), shard, snapshotId));
+    }
+
+    // The opening balance belongs to shard 0
+    private BigDecimal shardBase(Account account, int shard) {
+        return shard == 0 ? openingBalance(account) : BigDecimal.ZERO;
+    }
+
+    private BigDecimal[] shardBalances(Account account) {
+        BigDecimal[] result = new BigDecimal[account.getBalanceShards()];
+        for (int shard = 0; shard < result.length; shard++) {
+            result[shard] = getShardBalance(account, shard);
+        }
+        return result;
+    }
+
+    /**
+     * Take a debit from a sharded account so that its shards end up even: one posting per
+     * shard whose balance changes, together exactly the debited amount
+     */
+    private void spreadDebit(List<Posting> postings, Transaction transaction, BigDecimal[] shardBalances) {
+        BigDecimal total = Arrays.stream(shardBalances).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal[] targets = spread(total.subtract(transaction.getAmount()), shardBalances.length);
+        for (int shard = 0; shard < shardBalances.length; shard++) {
+            BigDecimal change = targets[shard].subtract(shardBalances[shard]);
+            if (change.signum() != 0) {
+                postings.add(new Posting(transaction.getFromAccount().getIBAN(), shard, transaction.getTransactionId(),
+                        change, postedAt(transaction)));
+            }
+            shardBalances[shard] = targets[shard];
+        }
+    }
+
+    // Equal shares in cents; shard 0 takes what does not divide evenly
+    static BigDecimal[] spread(BigDecimal total, int shards) {
+        BigDecimal share = total.divide(BigDecimal.valueOf(shards), 2, RoundingMode.DOWN);
+        BigDecimal[] targets = new BigDecimal[shards];
+        Arrays.fill(targets, share);
+        targets[0] = total.subtract(share.multiply(BigDecimal.valueOf(shards - 1L)));
+        return targets;
+    }
+
+    private Posting creditPosting(Transaction transaction) {
+        Account to = transaction.getToAccount();
+        int shard = to.isSharded() ? ThreadLocalRandom.current().nextInt(to.getBalanceShards()) : 0;
+        return new Posting(to.getIBAN(), shard, transaction.getTransactionId(), transaction.getAmount(),
+                postedAt(transaction));
+    }
+
+    private LocalDateTime postedAt(Transaction transaction) {
+        return transaction.getTimestamp() != null ? transaction.getTimestamp() : LocalDateTime.now();
+    }
+
+    private BigDecimal openingBalance(Account account) {
+        return account.getOpeningBalance() != null ? account.getOpeningBalance() : BigDecimal.ZERO;
+    }
+
+    private void applyOnCommit(List<Posting> postings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(postings.stream().map(ShardKey::of).toList());
+            return;
+        }
+
+        Map<ShardKey, BigDecimal> movements = postedMovements();
+        if (movements == null) {
+            movements = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, movements);
+            TransactionSynchronizationManager.registerSynchronization(new PostingSynchronization(movements));
+        }
+        for (Posting posting : postings) {
+            movements.merge(ShardKey.of(posting), posting.getAmount(), BigDecimal::add);
+        }
+    }
+
+    private boolean postedInCurrentTransaction(ShardKey key) {
+        Map<ShardKey, BigDecimal> movements = postedMovements();
+        return movements != null && movements.containsKey(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ShardKey, BigDecimal> postedMovements() {
+        return (Map<ShardKey, BigDecimal>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private void evict(Collection<ShardKey> keys) {
+        for (ShardKey key : keys) {
+            generations.incrementAndGet(stripeFor(key));
+            balances.remove(key);
+        }
+    }
+
+    private int stripeFor(ShardKey key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), STRIPES);
+    }
+
+    private record ShardKey(String iban, int shard) {
+        static ShardKey of(Posting posting) {
+            return new ShardKey(posting.getAccountIban(), posting.getShard());
+        }
+    }
+
+    /**
+     * Keeps the cache in step with the postings of one transaction
+     */
+    private class PostingSynchronization implements TransactionSynchronization {
+
+        private final Map<ShardKey, BigDecimal> movements;
+        private boolean commitStarted;
+
+        PostingSynchronization(Map<ShardKey, BigDecimal> movements) {
+            this.movements = movements;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitStarted = true;
+            movements.keySet().forEach(key -> committing.incrementAndGet(stripeFor(key)));
+        }
+
+        // Runs before the account locks are released in afterCompletion
+        @Override
+        public void afterCommit() {
+            movements.forEach((key, amount) -> balances.computeIfPresent(key, (k, balance) -> balance.add(amount)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BalanceService.this);
+            if (status != STATUS_COMMITTED) {
+                // Also covers a commit that failed after beforeCommit, when the outcome is unknown
+                evict(movements.keySet());
+            }
+            for (ShardKey key : movements.keySet()) {
+                generations.incrementAndGet(stripeFor(key));
+                if (commitStarted) {
+                    committing.decrementAndGet(stripeFor(key));
+                }
+            }
+        }
+    }
+}
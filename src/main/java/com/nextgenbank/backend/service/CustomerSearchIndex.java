@@ -0,0 +1,226 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index over customer names and IBANs, for the substring filters of the
+ * account lookup and the transaction history. A LIKE '%term%' cannot use a B-tree index, so
+ * these filters first resolve the term here to the matching customer ids or IBANs and then
+ * query the database by those keys.
+ *
+ * Loaded from the database once the application has started and kept up to date on
+ * registration, approval and account creation, each change once its database transaction
+ * has committed, so a rolled back registration or account never becomes a candidate.
+ */
+@Service
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    static final int GRAM_LENGTH = 3;
+
+    // Beyond this many matches an IN list costs more than the LIKE it replaces
+    static final int MAX_CANDIDATES = 1000;
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+
+    private final TrigramIndex<Long> names = new TrigramIndex<>();
+    private final TrigramIndex<String> ibans = new TrigramIndex<>();
+    private final Map<String, Long> ibanOwners = new ConcurrentHashMap<>();
+
+    public CustomerSearchIndex(UserRepository userRepository, AccountRepository accountRepository) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+    }
+
+    /**
+     * Load every customer name and IBAN; runs after the sample data has been written
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        names.clear();
+        ibans.clear();
+        ibanOwners.clear();
+        for (Object[] row : userRepository.findNamesByRole(UserRole.CUSTOMER)) {
+            addCustomer((Long) row[0], (String) row[1], (String) row[2]);
+        }
+        for (Object[] row : accountRepository.findIbanOwners()) {
+            addAccount((String) row[0], (Long) row[1]);
+        }
+        logger.info("Search index loaded with {} customers and {} IBANs", names.size(), ibans.size());
+    }
+
+    public void addCustomer(User customer) {
+        Long userId = customer.getUserId();
+        String firstName = customer.getFirstName();
+        String lastName = customer.getLastName();
+        afterCommit(() -> addCustomer(userId, firstName, lastName));
+    }
+
+    public void addAccount(Account account) {
+        String iban = account.getIBAN();
+        Long ownerId = account.getCustomer() != null ? account.getCustomer().getUserId() : null;
+        afterCommit(() -> addAccount(iban, ownerId));
+    }
+
+    /**
+     * Ids of the customers whose first or last name contains the term, ignoring case.
+     * Empty when the index cannot narrow the search down: the term is shorter than
+     * a trigram or matches more than MAX_CANDIDATES customers.
+     */
+    public Optional<Set<Long>> customersNamed(String term) {
+        return names.search(term.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * IBANs that contain the term, ignoring case; empty as for customersNamed
+     */
+    public Optional<Set<String>> ibansContaining(String term) {
+        return ibans.search(term.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Ids of the customers owning an IBAN that contains the term; empty as for customersNamed
+     */
+    public Optional<Set<Long>> customersWithIbanContaining(String term) {
+        return ibansContaining(term).map(matches -> matches.stream()
+                .map(ibanOwners::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private void addCustomer(Long userId, String firstName, String lastName) {
+        // The line break keeps a term from matching across the end of the first name
+        names.put(userId, (nullToEmpty(firstName) + "\n" + nullToEmpty(lastName)).toLowerCase(Locale.ROOT));
+    }
+
+    private void addAccount(String iban, Long ownerId) {
+        ibans.put(iban, iban.toUpperCase(Locale.ROOT));
+        if (ownerId != null) {
+            ibanOwners.put(iban, ownerId);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Maps every trigram to the keys whose text contains it. A search intersects the
+     * posting sets of the term's trigrams, smallest first, and then checks the remaining
+     * candidates against their full text.
+     */
+    private static final class TrigramIndex<K> {
+
+        private final Map<K, String> texts = new ConcurrentHashMap<>();
+        private final Map<String, Set<K>> postings = new ConcurrentHashMap<>();
+
+        void put(K key, String text) {
+            String previous = texts.put(key, text);
+            if (text.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                for (String gram : grams(previous)) {
+                    Set<K> keys = postings.get(gram);
+                    if (keys != null) {
+                        keys.remove(key);
+                    }
+                }
+            }
+            for (String gram : grams(text)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+
+        Optional<Set<K>> search(String term) {
+            if (term.length() < GRAM_LENGTH) {
+                return Optional.empty();
+            }
+
+            List<Set<K>> sets = new ArrayList<>();
+            for (String gram : grams(term)) {
+                Set<K> keys = postings.get(gram);
+                if (keys == null || keys.isEmpty()) {
+                    return Optional.of(Set.of());
+                }
+                sets.add(keys);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+
+            Set<K> matches = new HashSet<>();
+            for (K key : sets.get(0)) {
+                if (containsInAll(sets, key) && texts.getOrDefault(key, "").contains(term)) {
+                    matches.add(key);
+                    if (matches.size() > MAX_CANDIDATES) {
+                        return Optional.empty();
+                    }
+                }
+            }
+            return Optional.of(matches);
+        }
+
+        private boolean containsInAll(List<Set<K>> sets, K key) {
+            for (int i = 1; i < sets.size(); i++) {
+                if (!sets.get(i).contains(key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return texts.size();
+        }
+
+        void clear() {
+            texts.clear();
+            postings.clear();
+        }
+
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM_LENGTH));
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.AccountShard;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.AccountShardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the amount transferred per account per day in memory so the daily
+ * transfer limit can be checked in O(1) without summing the day's transactions.
+ *
+ * Counters are keyed by (IBAN, day), so a new day simply starts from zero and
+ * counters of earlier days are dropped. Every accepted transfer also records the
+ * new total and its day on the account, which is saved with the balance change.
+ * That persisted copy seeds a counter the first time an account is seen and
+ * rebuilds all counters on startup.
+ *
+ * A debit taken from one shard of a sharded account records its amount on that
+ * shard's row instead, so concurrent debits from different shards do not write the
+ * same row. The persisted total of an account is its own amount plus its shards'.
+ */
+@Component
+public class DailyLimitTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyLimitTracker.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final Clock clock;
+    private final ConcurrentHashMap<DayKey, BigDecimal> usedPerDay = new ConcurrentHashMap<>();
+    private volatile LocalDate currentDay;
+
+    @Autowired
+    public DailyLimitTracker(AccountRepository accountRepository, AccountShardRepository accountShardRepository) {
+        this(accountRepository, accountShardRepository, Clock.systemDefaultZone());
+    }
+
+    DailyLimitTracker(AccountRepository accountRepository, AccountShardRepository accountShardRepository, Clock clock) {
+        this.accountRepository = accountRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Load today's totals of all accounts that transferred money today
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = today();
+        List<Account> accounts = accountRepository.findByDailyTransferDate(today);
+        List<AccountShard> shards = accountShardRepository.findByDailyTransferDate(today);
+        usedPerDay.clear();
+        for (Account account : accounts) {
+            usedPerDay.merge(new DayKey(account.getIBAN(), today), account.getDailyTransferAmountOn(today), BigDecimal::add);
+        }
+        for (AccountShard shard : shards) {
+            usedPerDay.merge(new DayKey(shard.getAccountIban(), today), shard.getDailyTransferAmountOn(today), BigDecimal::add);
+        }
+        currentDay = today;
+        logger.info("Rebuilt daily transfer totals for {} accounts", usedPerDay.size());
+    }
+
+    /**
+     * Add a transfer to today's total of the source account if the total stays within the limit.
+     * The new total is also set on the account so it is persisted with the transfer.
+     * Inside a Spring transaction the amount is taken off the total again if the transaction rolls back.
+     *
+     * @throws IllegalArgumentException if the transfer would exceed the daily limit
+     */
+    public BigDecimal reserve(Account source, BigDecimal amount, BigDecimal limit) {
+        LocalDate today = today();
+        BigDecimal total = reserve(source.getIBAN(), today, () -> source.getDailyTransferAmountOn(today), amount, limit);
+        source.setDailyTransferAmount(total);
+        source.setDailyTransferDate(today);
+        return total;
+    }
+
+    /**
+     * Same as {@link #reserve(Account, BigDecimal, BigDecimal)} for a debit of a sharded account:
+     * only the shard's own part of the total is recorded, on the shard row, and the account row is left alone.
+     */
+    public BigDecimal reserve(Account source, AccountShard shard, BigDecimal amount, BigDecimal limit) {
+        LocalDate today = today();
+        BigDecimal total = reserve(source.getIBAN(), today,
+                () -> source.getDailyTransferAmountOn(today)
+                        .add(accountShardRepository.sumDailyTransferAmount(source.getIBAN(), today)),
+                amount, limit);
+        shard.setDailyTransferAmount(shard.getDailyTransferAmountOn(today).add(amount));
+        shard.setDailyTransferDate(today);
+        return total;
+    }
+
+    /**
+     * Check a transfer against today's total of the source account (sharded or not) without
+     * adding it to the total, e.g. for a transfer that is only booked later
+     *
+     * @throws IllegalArgumentException if the transfer would exceed the daily limit
+     */
+    public void check(Account source, BigDecimal amount, BigDecimal limit) {
+        LocalDate today = today();
+        evictEarlierDays(today);
+
+        BigDecimal used = usedPerDay.get(new DayKey(source.getIBAN(), today));
+        if (used == null) {
+            used = source.getDailyTransferAmountOn(today);
+            if (source.isSharded()) {
+                used = used.add(accountShardRepository.sumDailyTransferAmount(source.getIBAN(), today));
+            }
+        }
+        if (used.add(amount).compareTo(limit) > 0) {
+            throw exceeded(used, amount, limit);
+        }
+    }
+
+    private BigDecimal reserve(String iban, LocalDate today, Supplier<BigDecimal> persistedTotal,
+                               BigDecimal amount, BigDecimal limit) {
+        evictEarlierDays(today);
+
+        DayKey key = new DayKey(iban, today);
+        // Read outside compute() so a database lookup never runs under the map's bin lock
+        BigDecimal seed = usedPerDay.containsKey(key) ? null : persistedTotal.get();
+        BigDecimal[] usedBefore = new BigDecimal[1];
+        boolean[] accepted = new boolean[1];
+        BigDecimal total = usedPerDay.compute(key, (k, used) -> {
+            BigDecimal current = used != null ? used : (seed != null ? seed : persistedTotal.get());
+            BigDecimal next = current.add(amount);
+            usedBefore[0] = current;
+            accepted[0] = next.compareTo(limit) <= 0;
+            return accepted[0] ? next : current;
+        });
+
+        logger.info("Checking transfer limit: Current daily transfer: {}, This transfer: {}, Daily limit: {}",
+                usedBefore[0], amount, limit);
+
+        if (!accepted[0]) {
+            throw exceeded(usedBefore[0], amount, limit);
+        }
+
+        releaseOnRollback(key, amount);
+        return total;
+    }
+
+    private IllegalArgumentException exceeded(BigDecimal usedBefore, BigDecimal amount, BigDecimal limit) {
+        logger.warn("Transfer rejected: Would exceed daily transfer limit. " +
+                    "Current daily amount: {}, This transfer: {}, Daily limit: {}",
+                usedBefore, amount, limit);
+
+        BigDecimal remainingAllowed = limit.subtract(usedBefore);
+        if (remainingAllowed.compareTo(BigDecimal.ZERO) <= 0) {
+            return new IllegalArgumentException("Daily transfer limit reached. No more transfers allowed today.");
+        }
+        return new IllegalArgumentException("Transfer would exceed daily limit. Maximum transfer allowed today: " +
+                remainingAllowed);
+    }
+
+    LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private void evictEarlierDays(LocalDate today) {
+        if (!today.equals(currentDay)) {
+            currentDay = today;
+            usedPerDay.keySet().removeIf(key -> key.day().isBefore(today));
+        }
+    }
+
+    private void releaseOnRollback(DayKey key, BigDecimal amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    usedPerDay.computeIfPresent(key, (k, used) -> used.subtract(amount));
+                }
+            }
+        });
+    }
+
+    private record DayKey(String iban, LocalDate day) {
+    }
+}
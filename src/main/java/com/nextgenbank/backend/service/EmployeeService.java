@@ -3,11 +3,13 @@ package com.nextgenbank.backend.service;
 import com.nextgenbank.backend.model.UserRole;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserStatus;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.UserDto;
 import com.nextgenbank.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,11 +21,19 @@ public class EmployeeService {
 
     private final UserRepository userRepository;
     private final AccountService accountService;
+    private final CustomerSearchIndex searchIndex;
+    private final ListingTotals listingTotals;
+    private final TokenService tokenService;
 
     @Autowired
-    public EmployeeService(UserRepository userRepository, AccountService accountService) {
+    public EmployeeService(UserRepository userRepository, AccountService accountService,
+                           CustomerSearchIndex searchIndex, ListingTotals listingTotals,
+                           TokenService tokenService) {
         this.userRepository = userRepository;
         this.accountService = accountService;
+        this.searchIndex = searchIndex;
+        this.listingTotals = listingTotals;
+        this.tokenService = tokenService;
     }
 
     /**
@@ -44,6 +54,14 @@ public class EmployeeService {
         return customerPage.map(UserDto::new);
     }
 
+    /**
+     * Get all customers without counting them; the total is the background estimate
+     */
+    public SliceDto<UserDto> getAllCustomersSlice(Pageable pageable) {
+        Slice<User> customers = userRepository.findSliceByRole(UserRole.CUSTOMER, pageable);
+        return SliceDto.of(customers, listingTotals.customers()).map(UserDto::new);
+    }
+
     /**
      * Get customers by status with pagination
      */
@@ -80,6 +98,7 @@ public class EmployeeService {
 
         user.setStatus(UserStatus.APPROVED);
         userRepository.save(user);
+        searchIndex.addCustomer(user);
 
         // Create IBAN accounts
         accountService.createAccountsForUser(user, employee);
@@ -98,5 +117,7 @@ public class EmployeeService {
 
         user.setStatus(UserStatus.REJECTED);
         userRepository.save(user);
+        // The customer's tokens still say PENDING; they stop working right away
+        tokenService.revokeUser(user.getUserId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.nextgenbank.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextgenbank.backend.model.IdempotencyRecord;
+import com.nextgenbank.backend.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Makes balance-changing requests safe to retry with an Idempotency-Key header.
+ *
+ * The response of the first request is stored in the idempotency_keys table in the
+ * same transaction as the balance change, so either both are committed or neither is.
+ * A replay with the same key returns the stored response without running the
+ * operation again. Recently used keys are also kept in a bounded LRU so replays
+ * from a retrying client usually do not need a database round trip.
+ *
+ * Keys are kept for a retention period (a day by default) and then purged, from the
+ * table and from the LRU; a request repeated with a purged key runs again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StoredResponse> hotKeys;
+    private final long retentionMillis;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              OptimisticRetryExecutor retryExecutor,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${bank.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${bank.idempotency.retention-ms:86400000}") long retentionMillis) {
+        this(idempotencyRecordRepository, retryExecutor, objectMapper, meterRegistry, cacheSize, retentionMillis,
+                Clock.systemDefaultZone());
+    }
+
+    IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                       OptimisticRetryExecutor retryExecutor,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       int cacheSize,
+                       long retentionMillis,
+                       Clock clock) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.retentionMillis = retentionMillis;
+        this.clock = clock;
+        this.retryExecutor = retryExecutor;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.hotKeys = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run the operation once per key. Without a key the operation simply runs.
+     *
+     * @param operation    name of the endpoint, keys are only unique per operation
+     * @param caller       identity of the caller, keys are only unique per caller
+     * @param key          value of the Idempotency-Key header, may be null
+     * @param request      request body, a replay must send the same body
+     * @param responseType type used to read a stored response back
+     * @param action       the operation, runs inside the transaction that stores the key
+     */
+    public <T> T execute(String operation, String caller, String key, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " cannot be longer than " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = operation + ":" + (caller != null ? caller : "anonymous") + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = hotKeys.get(scopedKey);
+        if (cached != null) {
+            return replay(operation, "cache", cached, requestHash, responseType);
+        }
+
+        Outcome<T> outcome;
+        try {
+            // Joined by the operation's own retry executor call, so the key row and the
+            // balance change share one transaction and are retried together
+            outcome = retryExecutor.execute(operation, () -> {
+                Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(scopedKey);
+                if (existing.isPresent()) {
+                    return new Outcome<T>(StoredResponse.of(existing.get()), null);
+                }
+                T response = action.get();
+                IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(
+                        new IdempotencyRecord(scopedKey, requestHash, toJson(response)));
+                return new Outcome<>(StoredResponse.of(record), response);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first and ours was rolled back
+            IdempotencyRecord winner = idempotencyRecordRepository.findById(scopedKey).orElseThrow(() -> e);
+            outcome = new Outcome<>(StoredResponse.of(winner), null);
+        }
+
+        hotKeys.put(scopedKey, outcome.stored());
+        if (outcome.response() == null) {
+            return replay(operation, "database", outcome.stored(), requestHash, responseType);
+        }
+        return outcome.response();
+    }
+
+    /**
+     * Forgets the keys stored longer ago than the retention period
+     */
+    @Scheduled(fixedDelayString = "${bank.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(Duration.ofMillis(retentionMillis));
+        synchronized (hotKeys) {
+            hotKeys.values().removeIf(stored -> stored.createdAt().isBefore(cutoff));
+        }
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(cutoff);
+        logger.debug("Purged {} idempotency keys stored before {}", deleted, cutoff);
+    }
+
+    private <T> T replay(String operation, String source, StoredResponse stored, String requestHash,
+                         Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        meterRegistry.counter("bank.idempotency.replays", "operation", operation, "source", source).increment();
+        logger.info("Replaying stored {} response from {}", operation, source);
+        try {
+            return objectMapper.readValue(stored.responseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be read", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String responseBody, LocalDateTime createdAt) {
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseBody(), record.getCreatedAt());
+        }
+    }
+
+    // response is null when the stored response of an earlier request is replayed
+    private record Outcome<T>(StoredResponse stored, T response) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Row counts of the large unfiltered listings, counted in the background so the pages
+ * themselves never run a COUNT(*). The numbers lag behind by up to one refresh interval
+ * and are null until the first refresh has run.
+ */
+@Service
+public class ListingTotals {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingTotals.class);
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+
+    private volatile Long transactions;
+    private volatile Long customers;
+
+    public ListingTotals(TransactionRepository transactionRepository, UserRepository userRepository) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Long transactions() {
+        return transactions;
+    }
+
+    public Long customers() {
+        return customers;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.listing-totals.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            transactions = transactionRepository.count();
+            customers = userRepository.countByRole(UserRole.CUSTOMER);
+        } catch (RuntimeException e) {
+            // Keep serving the previous numbers; the next refresh tries again
+            logger.warn("Could not refresh listing totals: {}", e.getMessage());
+        }
+    }
+}
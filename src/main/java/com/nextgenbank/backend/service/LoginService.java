@@ -0,0 +1,148 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.exception.LoginRejectedException;
+import com.nextgenbank.backend.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks login passwords on a small pool of its own threads.
+ *
+ * BCrypt is slow on purpose, so a burst of logins run on the request threads would take every
+ * core and starve the other endpoints. Here at most threads passwords are checked at once;
+ * further attempts wait in a bounded queue, and an attempt that finds the queue full or waits
+ * longer than max-wait-ms is turned away (503).
+ *
+ * Before that, every attempt takes a token from the bucket of its email and the bucket of its
+ * client IP, so guessing one user's password or trying many users from one address is slowed
+ * down (429) without using the pool at all.
+ */
+@Service
+public class LoginService {
+
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+    private final TokenBuckets emailBuckets;
+    private final TokenBuckets ipBuckets;
+
+    @Autowired
+    public LoginService(UserService userService,
+                        MeterRegistry meterRegistry,
+                        @Value("${bank.login.threads:0}") int threads,
+                        @Value("${bank.login.queue-capacity:200}") int queueCapacity,
+                        @Value("${bank.login.max-wait-ms:5000}") long maxWaitMs,
+                        @Value("${bank.login.email.capacity:10}") int emailCapacity,
+                        @Value("${bank.login.email.refill-per-minute:10}") int emailRefillPerMinute,
+                        @Value("${bank.login.ip.capacity:100}") int ipCapacity,
+                        @Value("${bank.login.ip.refill-per-minute:100}") int ipRefillPerMinute) {
+        this(userService, meterRegistry, threads, queueCapacity, maxWaitMs, emailCapacity, emailRefillPerMinute,
+                ipCapacity, ipRefillPerMinute, System::nanoTime);
+    }
+
+    LoginService(UserService userService, MeterRegistry meterRegistry, int threads, int queueCapacity,
+                 long maxWaitMs, int emailCapacity, int emailRefillPerMinute, int ipCapacity,
+                 int ipRefillPerMinute, LongSupplier nanoTime) {
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        this.maxWaitMs = maxWaitMs;
+        this.emailBuckets = new TokenBuckets(emailCapacity, emailRefillPerMinute, nanoTime);
+        this.ipBuckets = new TokenBuckets(ipCapacity, ipRefillPerMinute, nanoTime);
+
+        // Half the cores by default, so password checks can never take all of them
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        meterRegistry.gauge("bank.login.queue.size", executor.getQueue(), BlockingQueue::size);
+        meterRegistry.gauge("bank.login.active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("bank.login.throttle.buckets", Tags.of("key", "email"), emailBuckets, TokenBuckets::size);
+        meterRegistry.gauge("bank.login.throttle.buckets", Tags.of("key", "ip"), ipBuckets, TokenBuckets::size);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The user with these credentials, like UserService.authenticate
+     *
+     * @throws LoginRejectedException when the attempt is throttled or cannot be checked in time
+     */
+    public User authenticate(String email, String password, String clientIp) {
+        throttle(ipBuckets, "ip", clientIp, "Too many login attempts from this address");
+        throttle(emailBuckets, "email", email.toLowerCase(Locale.ROOT), "Too many login attempts for this account");
+
+        Future<User> result;
+        try {
+            result = executor.submit(() -> userService.authenticate(email, password));
+        } catch (RejectedExecutionException e) {
+            throw rejected("queue-full");
+        }
+
+        try {
+            return result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Login failed", e.getCause());
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw rejected("timeout");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw rejected("interrupted");
+        }
+    }
+
+    /**
+     * Drops the throttling state of emails and addresses that have not tried to log in lately
+     */
+    @Scheduled(fixedDelayString = "${bank.login.throttle-purge-interval-ms:60000}")
+    public void purgeThrottles() {
+        emailBuckets.purgeFull();
+        ipBuckets.purgeFull();
+    }
+
+    private void throttle(TokenBuckets buckets, String kind, String key, String message) {
+        long waitNanos = buckets.tryTake(key);
+        if (waitNanos > 0) {
+            meterRegistry.counter("bank.login.rejected", "reason", kind + "-throttled").increment();
+            throw new LoginRejectedException(HttpStatus.TOO_MANY_REQUESTS, message,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    private LoginRejectedException rejected(String reason) {
+        meterRegistry.counter("bank.login.rejected", "reason", reason).increment();
+        return new LoginRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many logins at the moment, please try again shortly", 1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.nextgenbank.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs balance mutations in their own transaction and retries them when another
+ * writer changed the same account in the meantime (optimistic lock conflict).
+ *
+ * Retries back off exponentially with full jitter so competing writers spread out.
+ * Attempts, conflicts, retries and given-up operations are published as
+ * "bank.optimistic.*" counters tagged with the operation name.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    public OptimisticRetryExecutor(TransactionOperations transactionOperations,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${bank.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${bank.optimistic-retry.base-backoff-ms:10}") long baseBackoffMs,
+                                   @Value("${bank.optimistic-retry.max-backoff-ms:200}") long maxBackoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required");
+        }
+        this.transactionOperations = transactionOperations;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Execute the action in a new transaction, retrying on optimistic lock conflicts.
+     * When a transaction is already running the action simply joins it: only the
+     * outermost caller can safely start over.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            counter("bank.optimistic.attempts", operation).increment();
+            try {
+                return transactionOperations.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                counter("bank.optimistic.conflicts", operation).increment();
+                logger.warn("Optimistic lock conflict in {} on {} (attempt {}/{})",
+                        operation, conflictingIdentifier(e), attempt, maxAttempts);
+
+                if (attempt >= maxAttempts) {
+                    counter("bank.optimistic.exhausted", operation).increment();
+                    throw e;
+                }
+
+                counter("bank.optimistic.retries", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        long sleepMs = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying balance update", e);
+        }
+    }
+
+    private Object conflictingIdentifier(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure) {
+            return objectFailure.getPersistentClassName() + "#" + objectFailure.getIdentifier();
+        }
+        return "unknown entity";
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Transfers held for an employee's review, oldest first. A customer transfer of at least the
+ * review threshold is saved as PENDING without moving any money, until an employee approves
+ * (books) or rejects it. Without a threshold nothing is held.
+ *
+ * The ids are loaded from the status index once the application has started and kept up to
+ * date as transfers are held and decided, each change once its database transaction has
+ * committed. The review listing pages and counts through the queue instead of the table.
+ */
+@Service
+public class PendingTransactionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingTransactionQueue.class);
+
+    private final TransactionRepository transactionRepository;
+    private final BigDecimal reviewThreshold;
+
+    // Transaction ids come from a sequence, so their order is the order the transfers were held in
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+    public PendingTransactionQueue(TransactionRepository transactionRepository,
+                                   @Value("${bank.transaction-review.threshold:}") BigDecimal reviewThreshold) {
+        this.transactionRepository = transactionRepository;
+        this.reviewThreshold = reviewThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        pending.clear();
+        pending.addAll(transactionRepository.findPendingTransactionIds());
+        logger.info("Review queue loaded with {} pending transactions", pending.size());
+    }
+
+    /**
+     * Whether a transfer has to wait for review; employees' own transfers never do.
+     * The initiator is the authenticated user: the transfer endpoints set it, never the request body.
+     */
+    public boolean requiresReview(User initiator, BigDecimal amount) {
+        return reviewThreshold != null && amount != null
+                && initiator.getRole() == UserRole.CUSTOMER
+                && amount.compareTo(reviewThreshold) >= 0;
+    }
+
+    public void add(Long transactionId) {
+        afterCommit(() -> pending.add(transactionId));
+    }
+
+    public void remove(Long transactionId) {
+        afterCommit(() -> pending.remove(transactionId));
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Ids of the pending transactions on one page of the queue, oldest first
+     */
+    public List<Long> page(long offset, int size) {
+        return pending.stream().skip(offset).limit(size).toList();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.nextgenbank.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per key: up to capacity takes at once, refilled at a steady rate.
+ *
+ * A bucket is a single timestamp, the moment it will be full again; a take moves it one
+ * refill interval further and is refused when that would be more than a full bucket ahead
+ * of now. Takes are lock-free (one compare-and-set). Full buckets hold no information and
+ * are dropped by purgeFull.
+ */
+final class TokenBuckets {
+
+    private final long refillIntervalNanos;
+    private final long capacityNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+
+    TokenBuckets(int capacity, int refillPerMinute, LongSupplier nanoTime) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.refillIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.capacityNanos = capacity * refillIntervalNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Takes a token from the key's bucket
+     * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryTake(String key) {
+        AtomicLong bucket = fullAt.computeIfAbsent(key, k -> new AtomicLong(nanoTime.getAsLong()));
+        while (true) {
+            long now = nanoTime.getAsLong();
+            long current = bucket.get();
+            long next = (current - now < 0 ? now : current) + refillIntervalNanos;
+            long ahead = next - now - capacityNanos;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have filled up again. A take racing with this may be forgotten.
+     */
+    void purgeFull() {
+        long now = nanoTime.getAsLong();
+        fullAt.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    int size() {
+        return fullAt.size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserStatus;
+import com.nextgenbank.backend.model.dto.LoginResponseDto;
+import com.nextgenbank.backend.model.dto.UserDto;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.security.JwtProvider;
+import com.nextgenbank.backend.security.TokenRevocationList;
+import com.nextgenbank.backend.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issues access and refresh tokens, and turns them back into principals.
+ *
+ * Requests are authenticated from the access token alone. Logging out revokes the tokens
+ * it is given, refreshing revokes the refresh token it used (each can be used once), and
+ * rejecting a customer revokes everything issued to them; all of it takes effect on the
+ * next request. A refresh also checks the user as stored, so a rejected customer never gets
+ * new tokens.
+ *
+ * Revocations are only kept in memory. After a restart, refresh tokens can be used again
+ * (they are no longer single-use) and logged-out tokens are accepted until they expire; a
+ * rejected customer's access tokens stay valid for the rest of their short lifetime.
+ */
+@Service
+public class TokenService {
+
+    private final JwtProvider jwtProvider;
+    private final TokenRevocationList revocationList;
+    private final UserRepository userRepository;
+
+    public TokenService(JwtProvider jwtProvider, TokenRevocationList revocationList, UserRepository userRepository) {
+        this.jwtProvider = jwtProvider;
+        this.revocationList = revocationList;
+        this.userRepository = userRepository;
+    }
+
+    public LoginResponseDto issueTokens(User user) {
+        return new LoginResponseDto(jwtProvider.generateToken(user), jwtProvider.generateRefreshToken(user),
+                new UserDto(user));
+    }
+
+    /**
+     * The principal of a valid access token that was not revoked, built without loading the user
+     * @throws JwtException for any other token
+     */
+    public UserPrincipal authenticate(String accessToken) {
+        Claims claims = jwtProvider.extractAllClaims(accessToken);
+        if (!jwtProvider.isAccessToken(claims) || isRevoked(claims)) {
+            throw new JwtException("Token is not a valid access token");
+        }
+        return jwtProvider.toPrincipal(claims);
+    }
+
+    /**
+     * New tokens for the user of a refresh token, with the user's current details.
+     * The refresh token itself is revoked.
+     */
+    public LoginResponseDto refresh(String refreshToken) {
+        Claims claims = refreshClaims(refreshToken);
+        if (isRevoked(claims) || !revocationList.revokeToken(claims.getId(), claims.getExpiration())) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        User user = userRepository.findById(jwtProvider.getUserId(claims))
+                .filter(found -> found.getStatus() != UserStatus.REJECTED)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        return issueTokens(user);
+    }
+
+    /**
+     * Revokes the access token and refresh token of a session; either may be missing or
+     * already invalid
+     */
+    public void logout(String accessToken, String refreshToken) {
+        revokeQuietly(accessToken);
+        revokeQuietly(refreshToken);
+    }
+
+    /**
+     * Revokes every token issued to the user so far
+     */
+    public void revokeUser(Long userId) {
+        revocationList.revokeUser(userId);
+    }
+
+    private Claims refreshClaims(String refreshToken) {
+        try {
+            Claims claims = jwtProvider.extractAllClaims(refreshToken);
+            if (jwtProvider.isRefreshToken(claims)) {
+                return claims;
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            // reported below like any other unusable token
+        }
+        throw new BadCredentialsException("Invalid refresh token");
+    }
+
+    private boolean isRevoked(Claims claims) {
+        return revocationList.isRevoked(claims.getId(), jwtProvider.getUserId(claims),
+                jwtProvider.getIssuedAtMillis(claims));
+    }
+
+    private void revokeQuietly(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            Claims claims = jwtProvider.extractAllClaims(token);
+            if (claims.getId() != null) {
+                revocationList.revokeToken(claims.getId(), claims.getExpiration());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            // an invalid or expired token is not accepted anyway
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.nextgenbank.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.model.TransactionStatus;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransactionRow;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.TransactionSpecifications;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Transaction exports for employees, written out row by row while the database returns them.
+ * The rows are read as TransactionRow projections from a cursor with a bounded fetch size and
+ * go straight to the response, so an export of the whole table needs no more memory than one
+ * of a single customer.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "transactionId");
+    private static final Sort OLDEST_FIRST = Sort.by("transactionId");
+
+    static final String CSV_HEADER =
+            "transactionId,timestamp,fromAccount,toAccount,amount,transactionType,status,initiator,initiatorRole";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    /**
+     * What an export contains. Resolved before the response starts, so an unknown customer
+     * is still answered with an error instead of a download that breaks off.
+     */
+    public record Export(String name, Specification<Transaction> filter, Sort sort) {
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Each row is written on its own; the generator must not close the response stream after it
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    AccountRepository accountRepository,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${bank.export.fetch-size:500}") int fetchSize) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rowWriter = objectMapper.writerFor(TransactionDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.fetchSize = fetchSize;
+    }
+
+    public Export allTransactions() {
+        return new Export("transactions", null, NEWEST_FIRST);
+    }
+
+    public Export customerTransactions(Long customerId) {
+        List<String> ibans = accountRepository.findIbansByCustomerUserId(customerId);
+        if (ibans.isEmpty() && !userRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        return new Export("transactions-customer-" + customerId,
+                TransactionSpecifications.involvesAnyOf(ibans), NEWEST_FIRST);
+    }
+
+    public Export pendingTransactions() {
+        return new Export("transactions-pending", TransactionSpecifications.hasStatus(TransactionStatus.PENDING),
+                OLDEST_FIRST);
+    }
+
+    /**
+     * Write the export to the stream, one NDJSON object or CSV line per transaction.
+     * Runs in its own read-only transaction, which keeps the cursor open until the last row.
+     */
+    public void write(Export export, Format format, OutputStream out) {
+        long written = readOnlyTransaction.execute(status -> {
+            try (Stream<TransactionRow> rows = transactionRepository.streamRows(export.filter(), export.sort(),
+                    fetchSize)) {
+                return writeRows(rows.iterator(), format, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Export " + export.name() + " failed", e);
+            }
+        });
+        logger.info("Exported {} transactions as {} ({})", written, format, export.name());
+    }
+
+    private long writeRows(Iterator<TransactionRow> rows, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        while (rows.hasNext()) {
+            TransactionRow row = rows.next();
+            if (format == Format.CSV) {
+                writer.write(csvLine(row));
+            } else {
+                rowWriter.writeValue(writer, new TransactionDto(row));
+            }
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    static String csvLine(TransactionRow row) {
+        String initiator = row.initiatorRole() != null ? row.initiatorFirstName() + " " + row.initiatorLastName() : null;
+        return String.join(",",
+                String.valueOf(row.transactionId()),
+                row.timestamp() != null ? row.timestamp().toString() : "",
+                csvText(row.fromIban()),
+                csvText(row.toIban()),
+                row.amount() != null ? row.amount().toPlainString() : "",
+                row.transactionType() != null ? row.transactionType().name() : "",
+                row.status() != null ? row.status().name() : "",
+                csvText(initiator),
+                row.initiatorRole() != null ? row.initiatorRole().name() : "");
+    }
+
+    /**
+     * Quote a free-text value when needed. Values that a spreadsheet would run as a formula
+     * (names typed in by customers) are prefixed with a quote so they are shown as text.
+     */
+    static String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
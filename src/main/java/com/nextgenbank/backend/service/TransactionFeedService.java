@@ -0,0 +1,265 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.mapper.TransactionMapper;
+import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.CursorPageDto;
+import com.nextgenbank.backend.model.dto.TransactionResponseDto;
+import com.nextgenbank.backend.repository.TransactionFeedRepository;
+import com.nextgenbank.backend.repository.TransactionFeedSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Customer transaction histories, read from the transaction feed.
+ *
+ * Every booking path records its transactions here in the same database transaction,
+ * as one feed row per customer involved: a transfer between two customers gives an
+ * OUTGOING row for the sender and an INCOMING row for the receiver, a transfer between
+ * two accounts of the same customer a single INTERNAL row. A history page is then an
+ * index range scan over the customer's own rows.
+ *
+ * A transfer held for review is recorded right away as PENDING, so both customers see it
+ * before any money moves; approving or rejecting it updates the status of its rows.
+ */
+@Service
+public class TransactionFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionFeedService.class);
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "transactionId");
+
+    private final TransactionFeedRepository transactionFeedRepository;
+    private final CustomerSearchIndex searchIndex;
+
+    public TransactionFeedService(TransactionFeedRepository transactionFeedRepository, CustomerSearchIndex searchIndex) {
+        this.transactionFeedRepository = transactionFeedRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Add saved transactions to the histories of the customers involved, with their current status
+     */
+    public void record(List<Transaction> transactions) {
+        List<TransactionFeedEntry> entries = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            Account from = transaction.getFromAccount();
+            Account to = transaction.getToAccount();
+            User fromCustomer = from != null ? from.getCustomer() : null;
+            User toCustomer = to != null ? to.getCustomer() : null;
+
+            if (fromCustomer != null && toCustomer != null && fromCustomer.getUserId().equals(toCustomer.getUserId())) {
+                entries.add(new TransactionFeedEntry(fromCustomer.getUserId(), transaction,
+                        TransactionDirection.INTERNAL, from.getIBAN(), to.getIBAN(), toCustomer.getUserId(),
+                        fullName(toCustomer)));
+                continue;
+            }
+            if (fromCustomer != null) {
+                entries.add(new TransactionFeedEntry(fromCustomer.getUserId(), transaction,
+                        TransactionDirection.OUTGOING, from.getIBAN(), iban(to), userId(toCustomer),
+                        fullName(toCustomer)));
+            }
+            if (toCustomer != null) {
+                entries.add(new TransactionFeedEntry(toCustomer.getUserId(), transaction,
+                        TransactionDirection.INCOMING, to.getIBAN(), iban(from), userId(fromCustomer),
+                        fullName(fromCustomer)));
+            }
+        }
+        transactionFeedRepository.saveAll(entries);
+    }
+
+    /**
+     * Give the feed rows of a transaction its new status, e.g. when a held transfer was approved
+     */
+    public void updateStatus(Long transactionId, TransactionStatus status) {
+        transactionFeedRepository.updateStatus(transactionId, status);
+    }
+
+    public Page<TransactionResponseDto> getHistory(
+            User user,
+            String iban,
+            String name,
+            String direction,
+            String startDate,
+            String endDate,
+            BigDecimal amount,
+            String amountFilter,
+            Pageable pageable) {
+
+        return historyFilters(user, iban, name, direction, startDate, endDate, amount, amountFilter)
+                .map(filters -> transactionFeedRepository.findAll(filters, newestFirst(pageable)))
+                .orElseGet(() -> Page.empty(pageable))
+                .map(entry -> TransactionMapper.toResponseDto(entry, user));
+    }
+
+    /**
+     * Same history and filters as getHistory, paged by cursor instead of offset
+     */
+    public CursorPageDto<TransactionResponseDto> getHistoryAfter(
+            User user,
+            String iban,
+            String name,
+            String direction,
+            String startDate,
+            String endDate,
+            BigDecimal amount,
+            String amountFilter,
+            String cursor,
+            int size) {
+
+        if (size < 1 || size > TransactionService.MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + TransactionService.MAX_CURSOR_PAGE_SIZE);
+        }
+        return historyFilters(user, iban, name, direction, startDate, endDate, amount, amountFilter)
+                .map(filters -> seek(filters, cursor, size))
+                .orElseGet(() -> new CursorPageDto<>(List.of(), null))
+                .map(entry -> TransactionMapper.toResponseDto(entry, user));
+    }
+
+    // Empty when no entry can match, e.g. a date filter could not be parsed
+    private Optional<Specification<TransactionFeedEntry>> historyFilters(
+            User user,
+            String iban,
+            String name,
+            String direction,
+            String startDate,
+            String endDate,
+            BigDecimal amount,
+            String amountFilter) {
+
+        TransactionDirection parsedDirection = parseDirection(direction);
+        LocalDate parsedStartDate = safeParseDate(startDate);
+        LocalDate parsedEndDate = safeParseDate(endDate);
+
+        if ((startDate != null && parsedStartDate == null) || (endDate != null && parsedEndDate == null)) {
+            logger.warn("One of the date filters could not be parsed correctly. startDate={}, endDate={}", startDate, endDate);
+            return Optional.empty();
+        }
+
+        // Only the filters that were supplied end up in the query
+        Specification<TransactionFeedEntry> filters = TransactionFeedSpecifications.forCustomer(user.getUserId());
+        if (parsedDirection != null) {
+            filters = filters.and(TransactionFeedSpecifications.hasDirection(parsedDirection));
+        }
+        // Substring filters are resolved to IBANs and customer ids by the search index when it can
+        if (StringUtils.hasText(iban)) {
+            Optional<Set<String>> ibans = searchIndex.ibansContaining(iban.trim());
+            if (ibans.isPresent() && ibans.get().isEmpty()) {
+                return Optional.empty();
+            }
+            filters = filters.and(ibans
+                    .map(TransactionFeedSpecifications::ibanIn)
+                    .orElseGet(() -> TransactionFeedSpecifications.ibanContains(iban.trim())));
+        }
+        // The customer is on one side of every entry, so their own name matches all of them
+        if (StringUtils.hasText(name) && !ownNameContains(user, name.trim())) {
+            Optional<Set<Long>> counterparties = searchIndex.customersNamed(name.trim());
+            if (counterparties.isPresent() && counterparties.get().isEmpty()) {
+                return Optional.empty();
+            }
+            filters = filters.and(counterparties
+                    .map(TransactionFeedSpecifications::counterpartyIn)
+                    .orElseGet(() -> TransactionFeedSpecifications.counterpartyNameContains(name.trim())));
+        }
+        if (parsedStartDate != null) {
+            filters = filters.and(TransactionFeedSpecifications.bookedFrom(parsedStartDate.atStartOfDay()));
+        }
+        if (parsedEndDate != null) {
+            filters = filters.and(TransactionFeedSpecifications.bookedUntil(parsedEndDate.atTime(23, 59, 59)));
+        }
+        if (amount != null) {
+            filters = filters.and(TransactionFeedSpecifications.amountMatches(
+                    normalizeAmountFilter(amountFilter), amount.stripTrailingZeros()));
+        }
+        return Optional.of(filters);
+    }
+
+    // Keyset pagination as in TransactionService, on the feed index instead of the transactions table
+    private CursorPageDto<TransactionFeedEntry> seek(Specification<TransactionFeedEntry> filters, String cursor, int size) {
+        Specification<TransactionFeedEntry> spec = filters;
+        if (cursor != null && !cursor.isBlank()) {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            spec = spec.and(TransactionFeedSpecifications.olderThan(position.timestamp(), position.transactionId()));
+        }
+
+        List<TransactionFeedEntry> rows = transactionFeedRepository.findBy(spec, query -> query
+                .sortBy(NEWEST_FIRST)
+                .limit(size + 1)
+                .all());
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null);
+        }
+
+        List<TransactionFeedEntry> page = rows.subList(0, size);
+        TransactionFeedEntry last = page.get(size - 1);
+        return new CursorPageDto<>(page, new HistoryCursor(last.getTimestamp(), last.getTransactionId()).encode());
+    }
+
+    private TransactionDirection parseDirection(String direction) {
+        if (!StringUtils.hasText(direction)) {
+            return null;
+        }
+        try {
+            return TransactionDirection.valueOf(direction.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid transaction direction: " + direction);
+        }
+    }
+
+    private boolean ownNameContains(User user, String name) {
+        String term = name.toLowerCase(Locale.ROOT);
+        return (user.getFirstName() != null && user.getFirstName().toLowerCase(Locale.ROOT).contains(term))
+                || (user.getLastName() != null && user.getLastName().toLowerCase(Locale.ROOT).contains(term));
+    }
+
+    private AmountFilterOperation normalizeAmountFilter(String amountFilter) {
+        AmountFilterOperation operation = AmountFilterOperation.fromString(amountFilter);
+        return operation != null ? operation : AmountFilterOperation.EQUAL;
+    }
+
+    private Pageable newestFirst(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST);
+    }
+
+    private LocalDate safeParseDate(String dateString) {
+        if (dateString == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dateString);
+        } catch (DateTimeParseException e) {
+            logger.warn("Failed to parse date: {}", dateString);
+            return null;
+        }
+    }
+
+    private static String iban(Account account) {
+        return account != null ? account.getIBAN() : null;
+    }
+
+    private static Long userId(User user) {
+        return user != null ? user.getUserId() : null;
+    }
+
+    private static String fullName(User user) {
+        return user != null ? user.getFirstName() + " " + user.getLastName() : null;
+    }
+}
@@ -1,24 +1,45 @@
 package com.nextgenbank.backend.service;
 
 import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResultDto;
+import com.nextgenbank.backend.model.dto.CursorPageDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransactionRow;
 import com.nextgenbank.backend.model.dto.TransferRequestDto;
 import com.nextgenbank.backend.repository.UserRepository;
 import com.nextgenbank.backend.model.dto.SwitchFundsRequestDto;
 import com.nextgenbank.backend.model.dto.SwitchFundsResponseDto;
 import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.AccountShardRepository;
 import com.nextgenbank.backend.repository.TransactionRepository;
-import jakarta.transaction.Transactional;
+import com.nextgenbank.backend.repository.TransactionSpecifications;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,98 +53,82 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final DailyLimitTracker dailyLimitTracker;
+    private final BalanceService balanceService;
+    private final AccountShardRepository accountShardRepository;
+    private final TransactionFeedService transactionFeedService;
+    private final ListingTotals listingTotals;
+    private final PendingTransactionQueue pendingTransactionQueue;
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
     // Default transfer limit if not set
-    private static final BigDecimal DEFAULT_TRANSFER_LIMIT = new BigDecimal("1000.00");
+    static final BigDecimal DEFAULT_TRANSFER_LIMIT = new BigDecimal("1000.00");
+
+    // Upper bound for a single batch so one request cannot hold the account locks for too long
+    static final int MAX_BATCH_TRANSFERS = 1000;
+
+    // Largest page the cursor-paginated history endpoints return
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "transactionId");
+
+    // The order of the review queue
+    private static final Sort OLDEST_FIRST = Sort.by("transactionId");
 
     public TransactionService(
             TransactionRepository transactionRepository,
             AccountRepository accountRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            AccountLockManager accountLockManager,
+            OptimisticRetryExecutor retryExecutor,
+            DailyLimitTracker dailyLimitTracker,
+            BalanceService balanceService,
+            AccountShardRepository accountShardRepository,
+            TransactionFeedService transactionFeedService,
+            ListingTotals listingTotals,
+            PendingTransactionQueue pendingTransactionQueue
     ) {
         this.transactionRepository = transactionRepository;
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.accountLockManager = accountLockManager;
+        this.retryExecutor = retryExecutor;
+        this.dailyLimitTracker = dailyLimitTracker;
+        this.balanceService = balanceService;
+        this.accountShardRepository = accountShardRepository;
+        this.transactionFeedService = transactionFeedService;
+        this.listingTotals = listingTotals;
+        this.pendingTransactionQueue = pendingTransactionQueue;
     }
 
-    public Page<Transaction> getFilteredTransactionsForUser(
-            Long userId,
-            String iban,
-            String name,
-            String direction,
-            String startDate,
-            String endDate,
-            BigDecimal amount,
-            String amountFilter,
-            Pageable pageable) {
-
-        validateDirectionParameter(direction);
-        String normalizedAmountFilter = normalizeAmountFilter(amount, amountFilter);
-        LocalDate parsedStartDate = safeParseDate(startDate);
-        LocalDate parsedEndDate = safeParseDate(endDate);
-
-        LocalDateTime startOfDay = parsedStartDate != null ? parsedStartDate.atStartOfDay() : null;
-        LocalDateTime endOfDay = parsedEndDate != null ? parsedEndDate.atTime(23, 59, 59) : null;
-
-        BigDecimal normalizedAmount = normalizeAmount(amount);
-
-        if ((startDate != null && parsedStartDate == null) || (endDate != null && parsedEndDate == null)) {
-            logger.warn("One of the date filters could not be parsed correctly. startDate={}, endDate={}", startDate, endDate);
-            return Page.empty(pageable);
-        }
-
-        return transactionRepository.findAllByUserIdWithFilters(
-                userId,
-                iban,
-                name,
-                direction,
-                startOfDay,
-                endOfDay,
-                normalizedAmount,
-                normalizedAmountFilter,
-                pageable
-        );
-    }
-
-    private void validateDirectionParameter(String direction) {
-        if (direction != null && !direction.isEmpty() && !isValidTransactionDirection(direction)) {
-            throw new IllegalArgumentException("Invalid transaction direction: " + direction);
-        }
-    }
-
-    private String normalizeAmountFilter(BigDecimal amount, String amountFilter) {
-        if (amount == null) {
-            return null;
+    /**
+     * Keyset pagination: seek past the cursor on (timestamp, transactionId) and read one row more
+     * than the page to learn whether another page follows. No offset is skipped and no count is run,
+     * so every page costs the same however far back it is.
+     */
+    private CursorPageDto<TransactionRow> seek(Specification<Transaction> filters, String cursor, int size) {
+        Specification<Transaction> spec = filters;
+        if (cursor != null && !cursor.isBlank()) {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            spec = spec.and(TransactionSpecifications.olderThan(position.timestamp(), position.transactionId()));
         }
 
-        AmountFilterOperation operation = AmountFilterOperation.fromString(amountFilter);
-        return operation != null ? operation.getDbValue() : "eq";
-    }
-
-    private LocalDate safeParseDate(String dateString) {
-        if (dateString == null) {
-            return null;
-        }
-        try {
-            return LocalDate.parse(dateString);
-        } catch (DateTimeParseException e) {
-            logger.warn("Failed to parse date: {}", dateString);
-            return null;
+        List<TransactionRow> rows = transactionRepository.findRows(spec, NEWEST_FIRST, 0, size + 1);
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null);
         }
-    }
 
-    private BigDecimal normalizeAmount(BigDecimal amount) {
-        return amount != null ? amount.stripTrailingZeros() : null;
+        List<TransactionRow> page = rows.subList(0, size);
+        TransactionRow last = page.get(size - 1);
+        return new CursorPageDto<>(page, new HistoryCursor(last.timestamp(), last.transactionId()).encode());
     }
 
-    private boolean isValidTransactionDirection(String direction) {
-        try {
-            TransactionDirection.valueOf(direction.toUpperCase());
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
         }
     }
 
@@ -131,52 +136,70 @@ public class TransactionService {
      * Get all transactions with pagination
      */
     public Page<TransactionDto> getAllTransactionsPaginated(Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findAllByOrderByTimestampDesc(pageable);
-        return transactions.map(TransactionDto::new);
+        List<TransactionRow> rows = transactionRepository.findRows(null, NEWEST_FIRST, pageable.getOffset(), pageable.getPageSize());
+        // The count is skipped when the rows already tell the total, e.g. on a short last page
+        return PageableExecutionUtils.getPage(rows, pageable, transactionRepository::count).map(TransactionDto::new);
     }
 
     /**
-     * Get all transactions (non-paginated, for backward compatibility)
+     * Get all transactions without counting them; the total is the background estimate
      */
-    public List<TransactionDto> getAllTransactions() {
-        return transactionRepository.findAllByOrderByTimestampDesc()
-                .stream()
-                .map(TransactionDto::new)
-                .collect(Collectors.toList());
+    public SliceDto<TransactionDto> getAllTransactionsSlice(Pageable pageable) {
+        // One row past the page tells whether another page follows
+        List<TransactionRow> rows = transactionRepository.findRows(null, NEWEST_FIRST, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        Slice<TransactionRow> slice = new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        return SliceDto.of(slice, listingTotals.transactions()).map(TransactionDto::new);
+    }
+
+    /**
+     * Get all transactions, paged by cursor
+     */
+    public CursorPageDto<TransactionDto> getAllTransactionsAfter(String cursor, int size) {
+        validatePageSize(size);
+        return seek(Specification.where(null), cursor, size).map(TransactionDto::new);
     }
 
     /**
      * Get transactions for a specific customer with pagination
      */
     public Page<TransactionDto> getTransactionsByCustomerIdPaginated(Long customerId, Pageable pageable) {
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
-
-        Page<Transaction> transactionsPage = transactionRepository
-                .findByFromAccount_CustomerOrToAccount_CustomerOrderByTimestampDesc(
-                        customer, customer, pageable);
+        List<String> ibans = customerIbans(customerId);
+        if (ibans.isEmpty()) {
+            return Page.empty(pageable);
+        }
 
-        return transactionsPage.map(TransactionDto::new);
+        Specification<Transaction> spec = TransactionSpecifications.involvesAnyOf(ibans);
+        List<TransactionRow> rows = transactionRepository.findRows(spec, NEWEST_FIRST, pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> transactionRepository.count(spec)).map(TransactionDto::new);
     }
 
     /**
-     * Get transactions for a specific customer (non-paginated, for backward compatibility)
+     * Get transactions for a specific customer, paged by cursor
      */
-    public List<TransactionDto> getTransactionsByCustomerId(Long customerId) {
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
+    public CursorPageDto<TransactionDto> getTransactionsByCustomerIdAfter(Long customerId, String cursor, int size) {
+        validatePageSize(size);
+        List<String> ibans = customerIbans(customerId);
+        if (ibans.isEmpty()) {
+            return new CursorPageDto<>(List.of(), null);
+        }
+        return seek(TransactionSpecifications.involvesAnyOf(ibans), cursor, size).map(TransactionDto::new);
+    }
 
-        return transactionRepository.findByFromAccount_CustomerOrToAccount_CustomerOrderByTimestampDesc(customer, customer)
-                .stream()
-                .map(TransactionDto::new)
-                .collect(Collectors.toList());
+    // Only a customer without accounts costs a second query, to tell them apart from an unknown id
+    private List<String> customerIbans(Long customerId) {
+        List<String> ibans = accountRepository.findIbansByCustomerUserId(customerId);
+        if (ibans.isEmpty() && !userRepository.existsById(customerId)) {
+            throw new RuntimeException("Customer not found");
+        }
+        return ibans;
     }
 
     /**
      * Process a transfer specifically initiated by an employee
      * Adds additional security checks
+     * Not transactional itself so the transfer below can be retried on its own
      */
-    @org.springframework.transaction.annotation.Transactional
     public TransactionDto processEmployeeTransfer(TransferRequestDto transferRequest) {
         // Verify the initiator is an employee
         User initiator = userRepository.findById(transferRequest.getInitiatorId())
@@ -195,64 +218,462 @@ public class TransactionService {
      * Process a transfer between two accounts
      * This is the core transfer logic used by both customer and employee-initiated transfers
      */
-    @org.springframework.transaction.annotation.Transactional
     public TransactionDto transferFunds(TransferRequestDto transferRequest) {
         logger.info("Processing transfer request: {}", transferRequest);
 
+        // Only the debited account is locked (until the transaction completes): a credit is
+        // a pure insert and can only raise a balance, so it cannot break a concurrent check
+        return withDebitLock("transfer", transferRequest.getAccountNumber(), transferRequest.getAmount(),
+                debitLock -> executeTransfer(transferRequest, debitLock));
+    }
+
+    private TransactionDto executeTransfer(TransferRequestDto transferRequest, DebitLock debitLock) {
         // Get the source account
-        Account sourceAccount = accountRepository.findById(transferRequest.getAccountNumber())
+        Account sourceAccount = accountRepository.findWithCustomerByIban(transferRequest.getAccountNumber())
                 .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
+        checkLockedShards(sourceAccount, debitLock.shards());
+        BigDecimal sourceBalance = debitBalance(sourceAccount, debitLock, transferRequest.getAmount());
         logger.info("Source account: {} (Type: {}, Balance: {}, Limit: {})",
                 sourceAccount.getIBAN(), sourceAccount.getAccountType(),
-                sourceAccount.getBalance(), sourceAccount.getAbsoluteTransferLimit());
+                sourceBalance, sourceAccount.getAbsoluteTransferLimit());
 
         // Get the destination account
-        Account destinationAccount = accountRepository.findById(transferRequest.getToAccount())
+        Account destinationAccount = accountRepository.findWithCustomerByIban(transferRequest.getToAccount())
                 .orElseThrow(() -> new IllegalArgumentException("Destination account not found"));
-        logger.info("Destination account: {} (Type: {}, Balance: {})",
-                destinationAccount.getIBAN(), destinationAccount.getAccountType(),
-                destinationAccount.getBalance());
+        logger.info("Destination account: {} (Type: {})",
+                destinationAccount.getIBAN(), destinationAccount.getAccountType());
 
         // Get the initiator
         User initiator = userRepository.findById(transferRequest.getInitiatorId())
                 .orElseThrow(() -> new IllegalArgumentException("Initiator not found"));
         logger.info("Initiator: {} (Role: {})", initiator.getEmail(), initiator.getRole());
+        checkSourceOwner(sourceAccount, initiator);
 
         BigDecimal transferAmount = transferRequest.getAmount();
         logger.info("Transfer amount: {}", transferAmount);
 
+        if (pendingTransactionQueue.requiresReview(initiator, transferAmount)) {
+            return holdForReview(sourceAccount, destinationAccount, initiator, transferAmount, sourceBalance);
+        }
+
         // Validate the transfer
-        validateTransfer(sourceAccount, destinationAccount, transferAmount);
+        AccountShard dailyShard = dailyShard(sourceAccount, debitLock);
+        validateTransfer(sourceAccount, destinationAccount, transferAmount, sourceBalance, dailyShard);
+        saveDailyTotal(sourceAccount, dailyShard);
 
-        // Update account balances
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(transferAmount));
-        destinationAccount.setBalance(destinationAccount.getBalance().add(transferAmount));
+        // Create and save the transaction with description
+        Transaction transaction = newTransfer(sourceAccount, destinationAccount, transferAmount, initiator);
+        // Add description if provided
+        if (transferRequest.getDescription() != null && !transferRequest.getDescription().trim().isEmpty()) {
+            // Add description handling logic here if needed
+        }
 
-        // Save updated account balances
-        accountRepository.save(sourceAccount);
-        accountRepository.save(destinationAccount);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        post(savedTransaction, debitLock);
+        return new TransactionDto(savedTransaction);
+    }
 
-        // Create and save the transaction with description
+    /**
+     * Save a transfer as PENDING for an employee to review. It is checked like a direct transfer,
+     * but nothing is posted and the amount is not added to the daily total; both happen when
+     * the transfer is approved.
+     */
+    private TransactionDto holdForReview(Account sourceAccount, Account destinationAccount, User initiator,
+                                         BigDecimal amount, BigDecimal sourceBalance) {
+        Transaction savedTransaction = transactionRepository.save(
+                newHeldTransfer(sourceAccount, destinationAccount, amount, initiator, sourceBalance));
+        transactionFeedService.record(List.of(savedTransaction));
+        pendingTransactionQueue.add(savedTransaction.getTransactionId());
+        logger.info("Transfer {} of {} held for review", savedTransaction.getTransactionId(), amount);
+        return new TransactionDto(savedTransaction);
+    }
+
+    /**
+     * Approve a transfer held for review and book it, checked like a new transfer against the
+     * source account's balance and daily limit as they are now. If it fails those checks, it stays pending.
+     */
+    public TransactionDto approvePendingTransaction(Long transactionId) {
+        // The source account and amount decide which balance lock the booking needs
+        Transaction pending = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
+        if (pending.getStatus() != TransactionStatus.PENDING) {
+            throw new IllegalStateException("Transaction is not pending review");
+        }
+
+        TransactionDto approved = withDebitLock("approve-transaction", pending.getFromAccount().getIBAN(),
+                pending.getAmount(), debitLock -> executeApproval(transactionId, debitLock));
+        pendingTransactionQueue.remove(transactionId);
+        return approved;
+    }
+
+    private TransactionDto executeApproval(Long transactionId, DebitLock debitLock) {
+        if (transactionRepository.decidePending(transactionId, TransactionStatus.APPROVED) == 0) {
+            throw new IllegalStateException("Transaction is not pending review");
+        }
+        Transaction transaction = transactionRepository.findWithAccountsByTransactionId(transactionId)
+                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
+
+        Account sourceAccount = transaction.getFromAccount();
+        checkLockedShards(sourceAccount, debitLock.shards());
+        BigDecimal sourceBalance = debitBalance(sourceAccount, debitLock, transaction.getAmount());
+        AccountShard dailyShard = dailyShard(sourceAccount, debitLock);
+        validateTransfer(sourceAccount, transaction.getToAccount(), transaction.getAmount(), sourceBalance, dailyShard);
+        saveDailyTotal(sourceAccount, dailyShard);
+
+        // The feed rows were recorded when the transfer was held
+        postBalances(transaction, debitLock);
+        transactionFeedService.updateStatus(transactionId, TransactionStatus.APPROVED);
+        logger.info("Transfer {} approved and booked", transactionId);
+        return new TransactionDto(transaction);
+    }
+
+    /**
+     * Reject a transfer held for review; it was never booked, so nothing has to be undone
+     */
+    public void rejectPendingTransaction(Long transactionId) {
+        retryExecutor.execute("reject-transaction", () -> {
+            if (transactionRepository.decidePending(transactionId, TransactionStatus.REJECTED) == 0) {
+                if (!transactionRepository.existsById(transactionId)) {
+                    throw new IllegalArgumentException("Transaction not found");
+                }
+                throw new IllegalStateException("Transaction is not pending review");
+            }
+            transactionFeedService.updateStatus(transactionId, TransactionStatus.REJECTED);
+            pendingTransactionQueue.remove(transactionId);
+            return null;
+        });
+        logger.info("Transfer {} rejected", transactionId);
+    }
+
+    private Transaction newHeldTransfer(Account sourceAccount, Account destinationAccount, BigDecimal amount,
+                                        User initiator, BigDecimal sourceBalance) {
+        validateAccountsAndFunds(sourceAccount, destinationAccount, amount, sourceBalance);
+        dailyLimitTracker.check(sourceAccount, amount, transferLimit(sourceAccount));
+
+        Transaction transaction = newTransfer(sourceAccount, destinationAccount, amount, initiator);
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+
+    private Transaction newTransfer(Account sourceAccount, Account destinationAccount, BigDecimal amount,
+                                    User initiator) {
         Transaction transaction = new Transaction();
         transaction.setFromAccount(sourceAccount);
         transaction.setToAccount(destinationAccount);
-        transaction.setAmount(transferAmount);
+        transaction.setAmount(amount);
         transaction.setTimestamp(LocalDateTime.now());
         transaction.setInitiator(initiator);
         transaction.setTransactionType(TransactionType.TRANSFER);
-        // Add description if provided
-        if (transferRequest.getDescription() != null && !transferRequest.getDescription().trim().isEmpty()) {
-            // Add description handling logic here if needed
+        return transaction;
+    }
+
+    // Only the daily transfer total changes on the account (or shard) row; the balances change through postings
+    private void saveDailyTotal(Account sourceAccount, AccountShard dailyShard) {
+        if (dailyShard != null) {
+            accountShardRepository.save(dailyShard);
+        } else {
+            accountRepository.save(sourceAccount);
+        }
+    }
+
+    /**
+     * Run a debit of the given account under the lock of one balance shard when the account is
+     * sharded and a shard is known to cover the amount, otherwise under the locks of the whole account.
+     * If the chosen shard turns out too low, the debit is rolled back and run again with the whole
+     * account locked, which spreads it over (and so rebalances) all shards.
+     *
+     * Inside a caller's transaction (e.g. an Idempotency-Key request) the whole account is locked
+     * from the start: the shard lock would be held until that transaction ends, and two debits each
+     * holding one shard while waiting for all of them would deadlock.
+     */
+    private <T> T withDebitLock(String operation, String iban, BigDecimal amount, Function<DebitLock, T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            DebitLock debitLock = debitLock(iban, amount, false);
+            return accountLockManager.withLocks(debitLock.keys(), () -> action.apply(debitLock));
         }
+        try {
+            return retryExecutor.execute(operation, () -> {
+                DebitLock debitLock = debitLock(iban, amount, true);
+                return accountLockManager.withLocks(debitLock.keys(), () -> action.apply(debitLock));
+            });
+        } catch (ShardBalanceTooLowException e) {
+            logger.info("Shard {} of {} cannot cover {}, locking the whole account", e.shard, iban, amount);
+            return retryExecutor.execute(operation, () -> {
+                DebitLock debitLock = debitLock(iban, amount, false);
+                return accountLockManager.withLocks(debitLock.keys(), () -> action.apply(debitLock));
+            });
+        }
+    }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        return new TransactionDto(savedTransaction);
+    private DebitLock debitLock(String iban, BigDecimal amount, boolean singleShard) {
+        int shards = balanceService.knownShards(iban);
+        if (shards > 1 && singleShard && amount != null) {
+            // Start at a random shard and take the first one not known to be too low
+            int start = ThreadLocalRandom.current().nextInt(shards);
+            for (int i = 0; i < shards; i++) {
+                int shard = (start + i) % shards;
+                BigDecimal cached = balanceService.peekShardBalance(iban, shard);
+                if (cached == null || cached.compareTo(amount) >= 0) {
+                    return new DebitLock(List.of(AccountLockManager.shardKey(iban, shard)), shards, shard);
+                }
+            }
+        }
+        return new DebitLock(AccountLockManager.accountKeys(iban, shards), shards, DebitLock.WHOLE_ACCOUNT);
+    }
+
+    /**
+     * Balance a debit is checked against: that of the locked shard, or of the whole account
+     */
+    private BigDecimal debitBalance(Account source, DebitLock debitLock, BigDecimal amount) {
+        if (!debitLock.singleShard()) {
+            return balanceService.getBalance(source);
+        }
+        BigDecimal shardBalance = balanceService.getShardBalance(source, debitLock.shard());
+        if (amount != null && shardBalance.compareTo(amount) < 0) {
+            throw new ShardBalanceTooLowException(debitLock.shard());
+        }
+        return shardBalance;
+    }
+
+    /**
+     * Shard row that records the daily transfer total of a debit from a sharded account,
+     * or null for a normal account, which records it on the account row
+     */
+    private AccountShard dailyShard(Account source, DebitLock debitLock) {
+        if (!source.isSharded()) {
+            return null;
+        }
+        return shardRow(source.getIBAN(), debitLock.singleShard() ? debitLock.shard() : 0);
+    }
+
+    private AccountShard shardRow(String iban, int shard) {
+        return accountShardRepository.findByAccountIbanAndShard(iban, shard)
+                .orElseGet(() -> new AccountShard(iban, shard));
+    }
+
+    // Books the balance postings and the feed entries of a saved transaction
+    private void post(Transaction transaction, DebitLock debitLock) {
+        postBalances(transaction, debitLock);
+        transactionFeedService.record(List.of(transaction));
+    }
+
+    // Without a debit lock (deposits, own-account switches) the postings go to the whole account
+    private void postBalances(Transaction transaction, DebitLock debitLock) {
+        if (debitLock != null && debitLock.singleShard()) {
+            balanceService.post(transaction, debitLock.shard());
+        } else {
+            balanceService.post(transaction);
+        }
+    }
+
+    /**
+     * The locks were chosen from the shard count last seen for the account; start over if it changed since
+     */
+    private void checkLockedShards(Account account, int lockedShards) {
+        if (account.getBalanceShards() != lockedShards) {
+            balanceService.rememberShards(account);
+            throw new OptimisticLockingFailureException("Balance shards of account " + account.getIBAN() + " changed");
+        }
+    }
+
+    /**
+     * Lock keys covering every balance of the given accounts
+     */
+    private List<String> accountLockKeys(Collection<String> ibans, Map<String, Integer> shardCounts) {
+        List<String> keys = new ArrayList<>();
+        for (String iban : ibans) {
+            keys.addAll(AccountLockManager.accountKeys(iban, shardCounts.getOrDefault(iban, 1)));
+        }
+        return keys;
+    }
+
+    private Map<String, Integer> shardCounts(Collection<String> ibans) {
+        Map<String, Integer> shardCounts = new HashMap<>();
+        for (String iban : ibans) {
+            int shards = balanceService.knownShards(iban);
+            if (shards > 1) {
+                shardCounts.put(iban, shards);
+            }
+        }
+        return shardCounts;
+    }
+
+    /**
+     * Process many transfers in one database transaction (e.g. a payroll run).
+     * Every debited account is locked, every touched account is loaded once, the
+     * transfers are validated in submission order against the running balances,
+     * and a failing transfer only fails its own result instead of the whole batch.
+     * Transfers that need review are saved as PENDING, as on the single transfer path.
+     */
+    public BatchTransferResponseDto transferFundsBatch(List<TransferRequestDto> transferRequests) {
+        if (transferRequests == null || transferRequests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one transfer");
+        }
+        if (transferRequests.size() > MAX_BATCH_TRANSFERS) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_TRANSFERS + " transfers");
+        }
+        logger.info("Processing batch of {} transfers", transferRequests.size());
+
+        Set<String> ibans = new HashSet<>();
+        Set<String> sourceIbans = new HashSet<>();
+        for (TransferRequestDto request : transferRequests) {
+            if (request.getAccountNumber() != null) {
+                ibans.add(request.getAccountNumber());
+                sourceIbans.add(request.getAccountNumber());
+            }
+            if (request.getToAccount() != null) {
+                ibans.add(request.getToAccount());
+            }
+        }
+
+        return retryExecutor.execute("batch-transfer", () -> {
+            Map<String, Integer> shardCounts = shardCounts(sourceIbans);
+            return accountLockManager.withLocks(accountLockKeys(sourceIbans, shardCounts),
+                    () -> executeBatch(transferRequests, ibans, sourceIbans, shardCounts));
+        });
+    }
+
+    private BatchTransferResponseDto executeBatch(List<TransferRequestDto> transferRequests, Set<String> ibans,
+                                                  Set<String> sourceIbans, Map<String, Integer> shardCounts) {
+        Map<String, Account> accounts = accountRepository.findWithCustomersByIbanIn(ibans).stream()
+                .collect(Collectors.toMap(Account::getIBAN, account -> account));
+        for (String sourceIban : sourceIbans) {
+            Account source = accounts.get(sourceIban);
+            if (source != null) {
+                checkLockedShards(source, shardCounts.getOrDefault(sourceIban, 1));
+            }
+        }
+
+        Set<Long> initiatorIds = transferRequests.stream()
+                .map(TransferRequestDto::getInitiatorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> initiators = userRepository.findAllById(initiatorIds).stream()
+                .collect(Collectors.toMap(User::getUserId, user -> user));
+
+        BatchTransferResultDto[] results = new BatchTransferResultDto[transferRequests.size()];
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> transactionIndexes = new ArrayList<>();
+        // Net amount each account has moved in the transfers of this batch accepted so far
+        Map<String, BigDecimal> batchMovements = new HashMap<>();
+        // Shard rows recording the daily totals of sharded source accounts
+        Map<String, AccountShard> dailyShards = new HashMap<>();
+
+        for (int i = 0; i < transferRequests.size(); i++) {
+            TransferRequestDto request = transferRequests.get(i);
+            try {
+                transactions.add(prepareBatchTransfer(request, accounts, initiators, batchMovements, dailyShards));
+                transactionIndexes.add(i);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Batch transfer {} rejected: {}", i, e.getMessage());
+                results[i] = BatchTransferResultDto.failed(i, e.getMessage());
+            }
+        }
+
+        // The postings and the changed daily totals are flushed as JDBC batches when the transaction commits
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        accountShardRepository.saveAll(dailyShards.values());
+        List<Transaction> bookedTransactions = new ArrayList<>(savedTransactions.size());
+        for (Transaction transaction : savedTransactions) {
+            if (transaction.getStatus() == TransactionStatus.PENDING) {
+                pendingTransactionQueue.add(transaction.getTransactionId());
+            } else {
+                bookedTransactions.add(transaction);
+            }
+        }
+        balanceService.post(bookedTransactions);
+        transactionFeedService.record(savedTransactions);
+        for (int j = 0; j < savedTransactions.size(); j++) {
+            int index = transactionIndexes.get(j);
+            results[index] = BatchTransferResultDto.succeeded(index, new TransactionDto(savedTransactions.get(j)));
+        }
+
+        BatchTransferResponseDto response = new BatchTransferResponseDto(Arrays.asList(results));
+        logger.info("Batch processed: {} succeeded, {} failed", response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * Validate one transfer of a batch against the balance plus the batch's earlier movements
+     */
+    private Transaction prepareBatchTransfer(TransferRequestDto request, Map<String, Account> accounts,
+                                             Map<Long, User> initiators, Map<String, BigDecimal> batchMovements,
+                                             Map<String, AccountShard> dailyShards) {
+        Account sourceAccount = request.getAccountNumber() == null ? null : accounts.get(request.getAccountNumber());
+        if (sourceAccount == null) {
+            throw new IllegalArgumentException("Source account not found");
+        }
+        Account destinationAccount = request.getToAccount() == null ? null : accounts.get(request.getToAccount());
+        if (destinationAccount == null) {
+            throw new IllegalArgumentException("Destination account not found");
+        }
+        User initiator = request.getInitiatorId() == null ? null : initiators.get(request.getInitiatorId());
+        if (initiator == null) {
+            throw new IllegalArgumentException("Initiator not found");
+        }
+        checkSourceOwner(sourceAccount, initiator);
+        if (request.getAmount() == null) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+
+        BigDecimal transferAmount = request.getAmount();
+        BigDecimal sourceBalance = balanceService.getBalance(sourceAccount)
+                .add(batchMovements.getOrDefault(sourceAccount.getIBAN(), BigDecimal.ZERO));
+        if (pendingTransactionQueue.requiresReview(initiator, transferAmount)) {
+            // Held like a single transfer: nothing moves, so later transfers of the batch do not see it
+            return newHeldTransfer(sourceAccount, destinationAccount, transferAmount, initiator, sourceBalance);
+        }
+        AccountShard dailyShard = sourceAccount.isSharded()
+                ? dailyShards.computeIfAbsent(sourceAccount.getIBAN(), iban -> shardRow(iban, 0))
+                : null;
+        validateTransfer(sourceAccount, destinationAccount, transferAmount, sourceBalance, dailyShard);
+
+        batchMovements.merge(sourceAccount.getIBAN(), transferAmount.negate(), BigDecimal::add);
+        batchMovements.merge(destinationAccount.getIBAN(), transferAmount, BigDecimal::add);
+
+        return newTransfer(sourceAccount, destinationAccount, transferAmount, initiator);
+    }
+
+    /**
+     * Customers may only debit their own accounts; employees may debit any account
+     */
+    private void checkSourceOwner(Account sourceAccount, User initiator) {
+        if (initiator.getRole() == UserRole.EMPLOYEE) {
+            return;
+        }
+        User owner = sourceAccount.getCustomer();
+        if (owner == null || !Objects.equals(owner.getUserId(), initiator.getUserId())) {
+            logger.warn("Transfer rejected: user {} does not own account {}", initiator.getUserId(), sourceAccount.getIBAN());
+            throw new IllegalArgumentException("Source account does not belong to the initiator");
+        }
     }
 
     /**
      * Validate a transfer to ensure it meets all requirements
      */
-    private void validateTransfer(Account sourceAccount, Account destinationAccount, BigDecimal amount) {
+    private void validateTransfer(Account sourceAccount, Account destinationAccount, BigDecimal amount,
+                                  BigDecimal sourceBalance, AccountShard dailyShard) {
+        validateAccountsAndFunds(sourceAccount, destinationAccount, amount, sourceBalance);
+
+        // Check if the transfer would exceed the absolute transfer limit
+        BigDecimal transferLimit = transferLimit(sourceAccount);
+
+        // The absolute transfer limit is the MAXIMUM amount that can be transferred daily.
+        // The tracker checks and updates today's total, and records it on the source account (or shard)
+        if (dailyShard != null) {
+            dailyLimitTracker.reserve(sourceAccount, dailyShard, amount, transferLimit);
+        } else {
+            dailyLimitTracker.reserve(sourceAccount, amount, transferLimit);
+        }
+    }
+
+    private BigDecimal transferLimit(Account sourceAccount) {
+        return sourceAccount.getAbsoluteTransferLimit() != null ?
+                sourceAccount.getAbsoluteTransferLimit() : DEFAULT_TRANSFER_LIMIT;
+    }
+
+    private void validateAccountsAndFunds(Account sourceAccount, Account destinationAccount, BigDecimal amount,
+                                          BigDecimal sourceBalance) {
         logger.info("Validating transfer: from={}, to={}, amount={}",
                 sourceAccount.getIBAN(), destinationAccount.getIBAN(), amount);
 
@@ -269,55 +690,20 @@ public class TransactionService {
         }
 
         // Check if the source account has sufficient funds
-        BigDecimal balanceAfterTransfer = sourceAccount.getBalance().subtract(amount);
+        BigDecimal balanceAfterTransfer = sourceBalance.subtract(amount);
         logger.info("Current balance: {}, Amount: {}, Balance after transfer would be: {}",
-                sourceAccount.getBalance(), amount, balanceAfterTransfer);
+                sourceBalance, amount, balanceAfterTransfer);
 
         if (balanceAfterTransfer.compareTo(BigDecimal.ZERO) < 0) {
             logger.warn("Transfer rejected: Insufficient funds. Balance: {}, Amount: {}",
-                    sourceAccount.getBalance(), amount);
+                    sourceBalance, amount);
             throw new IllegalArgumentException("Insufficient funds");
         }
-
-        // Check if the transfer would exceed the absolute transfer limit
-        BigDecimal transferLimit = sourceAccount.getAbsoluteTransferLimit() != null ?
-                sourceAccount.getAbsoluteTransferLimit() : DEFAULT_TRANSFER_LIMIT;
-
-        // The absolute transfer limit is the MAXIMUM amount that can be transferred daily
-        BigDecimal dailyTransferAmount = sourceAccount.getDailyTransferAmount() != null ?
-                sourceAccount.getDailyTransferAmount() : BigDecimal.ZERO;
-
-        // Calculate new daily transfer amount if this transfer goes through
-        BigDecimal newDailyTransferAmount = dailyTransferAmount.add(amount);
-
-        logger.info("Checking transfer limit: Current daily transfer: {}, This transfer: {}, " +
-                     "Total would be: {}, Daily limit: {}",
-                dailyTransferAmount, amount, newDailyTransferAmount, transferLimit);
-
-        // Only fail if this transfer would exceed the daily limit
-        if (newDailyTransferAmount.compareTo(transferLimit) > 0) {
-            logger.warn("Transfer rejected: Would exceed daily transfer limit. " +
-                        "Current daily amount: {}, This transfer: {}, Daily limit: {}",
-                    dailyTransferAmount, amount, transferLimit);
-
-            // Calculate remaining amount allowed today
-            BigDecimal remainingAllowed = transferLimit.subtract(dailyTransferAmount);
-            if (remainingAllowed.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Daily transfer limit reached. No more transfers allowed today.");
-            } else {
-                throw new IllegalArgumentException("Transfer would exceed daily limit. Maximum transfer allowed today: " +
-                        remainingAllowed);
-            }
-        }
-
-        // Update the daily transfer amount for this account
-        sourceAccount.setDailyTransferAmount(newDailyTransferAmount);
     }
 
     /**
      * Update an account's transfer limit
      */
-    @org.springframework.transaction.annotation.Transactional
     public void updateTransferLimit(String accountIban, BigDecimal newLimit) {
         logger.info("Updating transfer limit for account {}: new limit = {}", accountIban, newLimit);
 
@@ -325,11 +711,14 @@ public class TransactionService {
             throw new IllegalArgumentException("Transfer limit must be a positive number or zero");
         }
 
-        Account account = accountRepository.findById(accountIban)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountIban));
+        // The full-row update also writes the daily transfer total, so it has to wait for running transfers
+        retryExecutor.execute("update-transfer-limit", () -> accountLockManager.withLock(accountIban, () -> {
+            Account account = accountRepository.findById(accountIban)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountIban));
 
-        account.setAbsoluteTransferLimit(newLimit);
-        accountRepository.save(account);
+            account.setAbsoluteTransferLimit(newLimit);
+            return accountRepository.save(account);
+        }));
 
         logger.info("Transfer limit updated for account {}", accountIban);
     }
@@ -338,23 +727,34 @@ public class TransactionService {
      * Switches funds between a user's checking and savings account.
      * Only customers are allowed to perform this operation.
      */
-    @Transactional
     public SwitchFundsResponseDto switchFunds(User user, SwitchFundsRequestDto request) {
         validateCustomer(user);
         validateAmount(request.getAmount());
 
+        return retryExecutor.execute("switch", () -> {
+            // Lock the customer's accounts before loading them so the balances read below are current
+            List<String> ibans = accountRepository.findIbansByCustomerUserId(user.getUserId());
+            Map<String, Integer> shardCounts = shardCounts(ibans);
+            return accountLockManager.withLocks(accountLockKeys(ibans, shardCounts),
+                    () -> executeSwitch(user, request, shardCounts));
+        });
+    }
+
+    private SwitchFundsResponseDto executeSwitch(User user, SwitchFundsRequestDto request,
+                                                 Map<String, Integer> shardCounts) {
         Account checking = getAccount(user, AccountType.CHECKING);
         Account savings  = getAccount(user, AccountType.SAVINGS);
+        checkLockedShards(checking, shardCounts.getOrDefault(checking.getIBAN(), 1));
+        checkLockedShards(savings, shardCounts.getOrDefault(savings.getIBAN(), 1));
 
         Account from = getSourceAccount(request.getFrom(), checking, savings);
         Account to   = (from == checking) ? savings : checking;
 
         ensureSufficientFunds(from, request.getAmount(), request.getFrom());
 
-        transferFunds(from, to, request.getAmount());
-        logTransaction(user, from, to, request.getAmount());
+        post(logTransaction(user, from, to, request.getAmount()), null);
 
-        return new SwitchFundsResponseDto(checking.getBalance(), savings.getBalance());
+        return new SwitchFundsResponseDto(balanceService.getBalance(checking), balanceService.getBalance(savings));
     }
 
     private void validateCustomer(User user) {
@@ -384,19 +784,12 @@ public class TransactionService {
     }
 
     private void ensureSufficientFunds(Account from, BigDecimal amount, String sourceType) {
-        if (from.getBalance().compareTo(amount) < 0) {
+        if (balanceService.getBalance(from).compareTo(amount) < 0) {
             throw new IllegalStateException("Insufficient balance in the " + sourceType.toLowerCase() + " account.");
         }
     }
 
-    private void transferFunds(Account from, Account to, BigDecimal amount) {
-        from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
-        accountRepository.save(from);
-        accountRepository.save(to);
-    }
-
-    private void logTransaction(User user, Account from, Account to, BigDecimal amount) {
+    private Transaction logTransaction(User user, Account from, Account to, BigDecimal amount) {
         Transaction tx = new Transaction();
         tx.setTransactionType(TransactionType.TRANSFER);
         tx.setAmount(amount);
@@ -404,44 +797,43 @@ public class TransactionService {
         tx.setToAccount(to);
         tx.setTimestamp(LocalDateTime.now());
         tx.setInitiator(user);
-        transactionRepository.save(tx);
+        return transactionRepository.save(tx);
     }
 
     /**
-     * Get pending transactions in the system with pagination
+     * Get pending transactions in the system with pagination, oldest first.
+     * The review queue supplies the page's ids and the total, so only those rows are read.
      */
     public Page<TransactionDto> getPendingTransactionsPaginated(Pageable pageable) {
-        // Currently just using transactions with amount = 0 as a proxy for pending
-        // This should be replaced with actual pending transaction logic
-        List<TransactionDto> pendingTransactions = transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getAmount().compareTo(BigDecimal.ZERO) == 0)
-                .map(TransactionDto::new)
-                .collect(Collectors.toList());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), pendingTransactions.size());
-
-        List<TransactionDto> pageContent = pendingTransactions.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, pendingTransactions.size());
+        List<Long> ids = pendingTransactionQueue.page(pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(pendingRows(ids), pageable, pendingTransactionQueue.size());
     }
 
-    /**
-     * Get pending transactions (non-paginated, for backward compatibility)
-     */
-    public List<TransactionDto> getPendingTransactions() {
-        return transactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getAmount().compareTo(BigDecimal.ZERO) == 0)
+    private List<TransactionDto> pendingRows(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return transactionRepository.findRows(TransactionSpecifications.idIn(ids), OLDEST_FIRST).stream()
                 .map(TransactionDto::new)
-                .collect(Collectors.toList());
+                .toList();
     }
 
-    @Transactional
     public Transaction performAtmOperation(User initiator, String iban, BigDecimal amount, TransactionType type) {
         if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAWAL) {
             throw new IllegalArgumentException("Invalid transaction type for ATM operation.");
         }
 
-        Account account = accountRepository.findById(iban)
+        if (type == TransactionType.DEPOSIT) {
+            // A deposit is a pure insert like any other credit, so it takes no lock
+            return retryExecutor.execute("atm", () -> executeAtmOperation(initiator, iban, amount, type, null));
+        }
+        return withDebitLock("atm", iban, amount,
+                debitLock -> executeAtmOperation(initiator, iban, amount, type, debitLock));
+    }
+
+    private Transaction executeAtmOperation(User initiator, String iban, BigDecimal amount, TransactionType type,
+                                            DebitLock debitLock) {
+        Account account = accountRepository.findWithCustomerByIban(iban)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found: " + iban));
 
         if (!account.getCustomer().getUserId().equals(initiator.getUserId())) {
@@ -455,17 +847,40 @@ public class TransactionService {
         tx.setInitiator(initiator);
 
         if (type == TransactionType.DEPOSIT) {
-            account.setBalance(account.getBalance().add(amount));
             tx.setToAccount(account);
         } else { // WITHDRAWAL
-            if (account.getBalance().compareTo(amount) < 0) {
+            checkLockedShards(account, debitLock.shards());
+            if (debitBalance(account, debitLock, amount).compareTo(amount) < 0) {
                 throw new IllegalArgumentException("Insufficient funds.");
             }
-            account.setBalance(account.getBalance().subtract(amount));
             tx.setFromAccount(account);
         }
 
-        accountRepository.save(account);
-        return transactionRepository.save(tx);
+        Transaction savedTransaction = transactionRepository.save(tx);
+        post(savedTransaction, debitLock);
+        return savedTransaction;
+    }
+
+    /**
+     * Locks held for a debit: one shard of the account, or all of its balances
+     */
+    private record DebitLock(List<String> keys, int shards, int shard) {
+        static final int WHOLE_ACCOUNT = -1;
+
+        boolean singleShard() {
+            return shard != WHOLE_ACCOUNT;
+        }
+    }
+
+    /**
+     * The shard locked for a debit cannot cover it; rolls the attempt back so the whole account can be locked
+     */
+    private static class ShardBalanceTooLowException extends RuntimeException {
+        private final int shard;
+
+        ShardBalanceTooLowException(int shard) {
+            super(null, null, false, false);
+            this.shard = shard;
+        }
     }
-}
\ No newline at end of file
+}
@@ -19,12 +19,15 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
+    private final CustomerSearchIndex searchIndex;
 
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,AccountRepository accountRepository) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,AccountRepository accountRepository,
+                       CustomerSearchIndex searchIndex) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
+        this.searchIndex = searchIndex;
 
     }
 
@@ -40,6 +43,14 @@ public class UserService {
             throw new BadCredentialsException("Invalid credentials");
         }
 
+        // The raw password is only known here, so this is where a weaker hash is redone
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String rehashed = passwordEncoder.encode(password);
+            if (userRepository.replacePasswordHash(user.getUserId(), user.getPassword(), rehashed) > 0) {
+                user.setPassword(rehashed);
+            }
+        }
+
         return user;
     }
 
@@ -76,6 +87,7 @@ public class UserService {
 
         // Save the user first to get an ID
         User savedUser = userRepository.save(user);
+        searchIndex.addCustomer(savedUser);
 
         System.out.println("Registered new user with ID: " + savedUser.getUserId() +
                 ". Pending approval by employee.");
@@ -0,0 +1,126 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.AsyncTransferStatusDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.AsyncTransferService;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Salary-day style burst: many clients submit transfers at the same time, either
+ * booked synchronously one transaction each or queued and group committed.
+ * Latency is measured from submission until the transfer is booked.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-transfer-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class AsyncTransferBenchmark {
+
+    private static final int CLIENTS = 16;
+    private static final int TRANSFERS = 4000;
+    private static final int ACCOUNTS = 64;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AsyncTransferService asyncTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void compareSynchronousAndGroupCommit() throws Exception {
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        List<String> latencies = new ArrayList<>();
+
+        for (String round : new String[]{"W", "M"}) {
+            List<String> syncIbans = accounts("NL04SY" + round);
+            long[] syncLatency = new long[TRANSFERS];
+            BenchmarkSupport.Result sync = BenchmarkSupport.measure("synchronous", TRANSFERS, CLIENTS, i -> {
+                long start = System.nanoTime();
+                transactionService.transferFunds(request(syncIbans, i));
+                syncLatency[i] = System.nanoTime() - start;
+            });
+
+            List<String> asyncIbans = accounts("NL04AS" + round);
+            long[] asyncLatency = new long[TRANSFERS];
+            BenchmarkSupport.Result async = BenchmarkSupport.measure("async group commit", TRANSFERS, CLIENTS, i -> {
+                long start = System.nanoTime();
+                TransferRequestDto request = request(asyncIbans, i);
+                String transferId = asyncTransferService.submit(request.getInitiatorId(), request);
+                try {
+                    AsyncTransferStatusDto status = asyncTransferService.subscribe(transferId, request.getInitiatorId())
+                            .get(1, TimeUnit.MINUTES);
+                    assertEquals(AsyncTransferStatusDto.Status.COMPLETED, status.getStatus(), status.getError());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                asyncLatency[i] = System.nanoTime() - start;
+            });
+
+            if (round.equals("M")) {
+                results.add(sync);
+                results.add(async);
+                latencies.add(percentiles("synchronous", syncLatency));
+                latencies.add(percentiles("async group commit", asyncLatency));
+            }
+        }
+
+        BenchmarkSupport.print("Burst of " + TRANSFERS + " transfers from " + CLIENTS + " clients", results);
+        latencies.forEach(System.out::println);
+    }
+
+    private String percentiles(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return String.format("%s: p50 %.1f ms, p99 %.1f ms, max %.1f ms", label,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    private List<String> accounts(String prefix) {
+        User employee = userRepository.save(BenchmarkSupport.user(prefix + "EMP", UserRole.EMPLOYEE));
+        User customer = userRepository.save(BenchmarkSupport.user(prefix + "CUS", UserRole.CUSTOMER));
+        List<String> ibans = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String iban = prefix + String.format("%010d", i);
+            accountRepository.save(BenchmarkSupport.account(iban, customer, employee, new BigDecimal("1000000.00")));
+            ibans.add(iban);
+        }
+        ibans.add(String.valueOf(employee.getUserId()));
+        return ibans;
+    }
+
+    private TransferRequestDto request(List<String> ibans, int sequence) {
+        int accounts = ibans.size() - 1;
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(ibans.get(sequence % accounts));
+        request.setToAccount(ibans.get((sequence + 7) % accounts));
+        request.setAmount(BigDecimal.ONE);
+        request.setInitiatorId(Long.valueOf(ibans.get(accounts)));
+        return request;
+    }
+}
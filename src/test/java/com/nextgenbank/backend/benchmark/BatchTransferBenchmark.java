@@ -0,0 +1,96 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Payroll-style run: one employer account pays many employees, either with one
+ * call per transfer or with the batch endpoint's service method.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch-transfer-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class BatchTransferBenchmark {
+
+    private static final int EMPLOYEES = 500;
+    private static final int BATCH_SIZE = 250;
+    private static final BigDecimal SALARY = new BigDecimal("10.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void compareSingleAndBatchTransfers() throws Exception {
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+
+        for (String round : new String[]{"warmup", "measured"}) {
+            List<TransferRequestDto> single = payroll("NL02SGL" + round.charAt(0));
+            BenchmarkSupport.Result singleResult = BenchmarkSupport.measure("single transfers", single.size(), 1,
+                    i -> transactionService.transferFunds(single.get(i)));
+
+            List<TransferRequestDto> batched = payroll("NL02BAT" + round.charAt(0));
+            int batches = batched.size() / BATCH_SIZE;
+            BenchmarkSupport.Result batchResult = BenchmarkSupport.measure(
+                    "batches of " + BATCH_SIZE + " (ops = transfers)", batches, 1, i -> {
+                        BatchTransferResponseDto response = transactionService.transferFundsBatch(
+                                batched.subList(i * BATCH_SIZE, (i + 1) * BATCH_SIZE));
+                        assertEquals(BATCH_SIZE, response.getSucceeded());
+                    });
+
+            if (round.equals("measured")) {
+                results.add(singleResult);
+                results.add(new BenchmarkSupport.Result(batchResult.label(), batched.size(), 1, batchResult.nanos()));
+            }
+        }
+
+        BenchmarkSupport.print("Payroll of " + EMPLOYEES + " transfers", results);
+    }
+
+    private List<TransferRequestDto> payroll(String prefix) {
+        User employee = userRepository.save(BenchmarkSupport.user(prefix + "EMP", UserRole.EMPLOYEE));
+        User employer = userRepository.save(BenchmarkSupport.user(prefix + "CUS", UserRole.CUSTOMER));
+
+        String employerIban = prefix + "9999999999";
+        accountRepository.save(BenchmarkSupport.account(employerIban, employer, employee,
+                SALARY.multiply(BigDecimal.valueOf(EMPLOYEES))));
+
+        List<TransferRequestDto> transfers = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            String iban = prefix + String.format("%010d", i);
+            accountRepository.save(BenchmarkSupport.account(iban, employer, employee, BigDecimal.ZERO));
+
+            TransferRequestDto request = new TransferRequestDto();
+            request.setAccountNumber(employerIban);
+            request.setToAccount(iban);
+            request.setAmount(SALARY);
+            request.setInitiatorId(employee.getUserId());
+            transfers.add(request);
+        }
+        return transfers;
+    }
+}
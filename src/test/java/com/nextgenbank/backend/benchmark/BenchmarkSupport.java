@@ -0,0 +1,182 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.*;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Shared helpers for the benchmarks in this package.
+ * Benchmarks are tagged "benchmark" and only run with: mvn test -Pbenchmark
+ */
+final class BenchmarkSupport {
+
+    private static final int SEED_BATCH = 10_000;
+
+    private BenchmarkSupport() {
+    }
+
+    static User user(String name, UserRole role) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("Benchmark");
+        user.setEmail(name.toLowerCase() + "@benchmark.test");
+        user.setPassword("not-a-real-hash");
+        user.setBsnNumber(name);
+        user.setPhoneNumber("+" + name);
+        user.setRole(role);
+        user.setStatus(UserStatus.APPROVED);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    static Account account(String iban, User owner, User createdBy, BigDecimal balance) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        account.setAccountType(AccountType.CHECKING);
+        account.setOpeningBalance(balance);
+        account.setAbsoluteTransferLimit(new BigDecimal("1000000000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setCreatedBy(createdBy);
+        return account;
+    }
+
+    /**
+     * Bulk insert transfers between random accounts, plus some deposits and withdrawals,
+     * spread over the last two years. Goes straight through JDBC because the entity path
+     * would take hours for millions of rows.
+     */
+    static void seedTransactions(JdbcTemplate jdbcTemplate, List<Account> accounts, User initiator, int count) {
+        // The sample data already holds a few transactions; seeded ids start after them
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(transaction_id), 0) FROM transactions",
+                Long.class) + 1;
+        seedTransactions(jdbcTemplate, accounts, initiator, count, firstId);
+    }
+
+    /**
+     * Same, with ids from firstId on; benchmarks that book transactions themselves seed far
+     * above the ids the sequence hands out
+     */
+    static void seedTransactions(JdbcTemplate jdbcTemplate, List<Account> accounts, User initiator, int count,
+                                 long firstId) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        long seconds = 2L * 365 * 24 * 3600;
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < count; i++) {
+            String from = accounts.get(random.nextInt(accounts.size())).getIBAN();
+            String to = accounts.get(random.nextInt(accounts.size())).getIBAN();
+            String type = "TRANSFER";
+            int kind = random.nextInt(50);
+            if (kind == 0) {
+                from = null;
+                type = "DEPOSIT";
+            } else if (kind == 1) {
+                to = null;
+                type = "WITHDRAWAL";
+            }
+            rows.add(new Object[]{firstId + i, from, to,
+                    BigDecimal.valueOf(1 + random.nextInt(100_000), 2),
+                    Timestamp.valueOf(now.minusSeconds((long) (random.nextDouble() * seconds))),
+                    initiator.getUserId(), type});
+            if (rows.size() == SEED_BATCH || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (transaction_id, from_account, to_account, amount, "
+                        + "timestamp, initiator_id, transaction_type) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        seedFeed(jdbcTemplate, firstId, firstId + count - 1);
+        jdbcTemplate.execute("ANALYZE");
+        System.out.println("Seeded " + count + " transactions");
+    }
+
+    /**
+     * The feed entries TransactionFeedService would have written for the seeded transactions.
+     * Inserted in ranges of SEED_BATCH transactions; one statement over all of them runs H2 out of memory.
+     */
+    private static void seedFeed(JdbcTemplate jdbcTemplate, long firstId, long lastId) {
+        String insert = "INSERT INTO transaction_feed (feed_entry_id, customer_id, transaction_id, timestamp, "
+                + "transaction_type, amount, direction, account_iban, counterparty_iban, counterparty_id, counterparty_name) ";
+        String joins = " FROM transactions t"
+                + " LEFT JOIN accounts fa ON fa.iban = t.from_account LEFT JOIN users fu ON fu.user_id = fa.customer_id"
+                + " LEFT JOIN accounts ta ON ta.iban = t.to_account LEFT JOIN users tu ON tu.user_id = ta.customer_id"
+                + " WHERE t.transaction_id BETWEEN ? AND ?";
+        for (long from = firstId; from <= lastId; from += SEED_BATCH) {
+            long to = Math.min(from + SEED_BATCH - 1, lastId);
+            jdbcTemplate.update(insert + "SELECT NEXT VALUE FOR transaction_feed_seq, fu.user_id, t.transaction_id, "
+                    + "t.timestamp, t.transaction_type, t.amount, "
+                    + "CASE WHEN fu.user_id = tu.user_id THEN 'INTERNAL' ELSE 'OUTGOING' END, "
+                    + "t.from_account, t.to_account, tu.user_id, tu.first_name || ' ' || tu.last_name"
+                    + joins + " AND fu.user_id IS NOT NULL", from, to);
+            jdbcTemplate.update(insert + "SELECT NEXT VALUE FOR transaction_feed_seq, tu.user_id, t.transaction_id, "
+                    + "t.timestamp, t.transaction_type, t.amount, 'INCOMING', "
+                    + "t.to_account, t.from_account, fu.user_id, fu.first_name || ' ' || fu.last_name"
+                    + joins + " AND tu.user_id IS NOT NULL AND (fu.user_id IS NULL OR fu.user_id <> tu.user_id)",
+                    from, to);
+        }
+    }
+
+    /**
+     * Run the operation the given number of times spread over a thread pool.
+     * The operation receives a sequence number so callers can vary their input.
+     */
+    static Result measure(String label, int operations, int threads, IntConsumer operation) throws Exception {
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    int next;
+                    while ((next = sequence.getAndIncrement()) < operations) {
+                        operation.accept(next);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            return new Result(label, operations, threads, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static void print(String title, List<Result> results) {
+        System.out.println();
+        System.out.println("=== " + title + " ===");
+        System.out.printf("%-40s %8s %8s %12s %14s%n", "case", "ops", "threads", "ops/sec", "avg latency");
+        for (Result result : results) {
+            System.out.printf("%-40s %8d %8d %12.0f %11.1f us%n",
+                    result.label(), result.operations(), result.threads(),
+                    result.opsPerSecond(), result.avgLatencyMicros());
+        }
+        System.out.println();
+    }
+
+    record Result(String label, int operations, int threads, long nanos) {
+
+        double opsPerSecond() {
+            return operations / (nanos / 1_000_000_000.0);
+        }
+
+        double avgLatencyMicros() {
+            return (nanos / 1_000.0) * threads / operations;
+        }
+    }
+}
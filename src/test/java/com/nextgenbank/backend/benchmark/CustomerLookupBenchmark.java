@@ -0,0 +1,122 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.AccountLookupDto;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.AccountService;
+import com.nextgenbank.backend.service.CustomerSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Account lookup by name and IBAN substring over a seeded customer base, comparing the
+ * LIKE query with the lookup resolved through the trigram search index first.
+ * Run with: mvn test -Pbenchmark -Dbenchmark.lookup.customers=1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer-lookup-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class CustomerLookupBenchmark {
+
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.lookup.customers", 200_000);
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareLikeAndIndexedLookup() throws Exception {
+        seed();
+        long start = System.nanoTime();
+        searchIndex.rebuild();
+        System.out.printf("Search index rebuilt in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        List<String[]> cases = List.of(
+                new String[]{"name 'cust123456'", "cust123456", null},
+                new String[]{"name 'smit' (too broad)", "smit", null},
+                new String[]{"iban '00001234'", null, "00001234"},
+                new String[]{"name + iban", "cust1234", "LOOK00000123"});
+
+        Pageable page = PageRequest.of(0, 10);
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (String[] lookup : cases) {
+            // Both versions must find the same customers before their timings mean anything
+            assertEquals(like(lookup[1], lookup[2], page).getTotalElements(),
+                    indexed(lookup[1], lookup[2], page).getTotalElements(), lookup[0]);
+
+            results.add(run("like: " + lookup[0], i -> like(lookup[1], lookup[2], page)));
+            results.add(run("index: " + lookup[0], i -> indexed(lookup[1], lookup[2], page)));
+        }
+
+        BenchmarkSupport.print("Account lookup over " + CUSTOMERS + " customers", results);
+    }
+
+    private BenchmarkSupport.Result run(String label, IntConsumer lookup) throws Exception {
+        BenchmarkSupport.measure(label, 2, 1, lookup);
+        return BenchmarkSupport.measure(label, ITERATIONS, 1, lookup);
+    }
+
+    private Page<User> like(String name, String iban, Pageable page) {
+        return transactionTemplate.execute(status -> userRepository.findApprovedUsersWithAccounts(name, iban, page));
+    }
+
+    private Page<AccountLookupDto> indexed(String name, String iban, Pageable page) {
+        return transactionTemplate.execute(status -> accountService.lookupAccounts(name, iban, page));
+    }
+
+    /**
+     * Approved customers named "CustN" with one of five last names and one checking account each.
+     * Goes straight through JDBC because the entity path is too slow for this many rows.
+     */
+    private void seed() {
+        User employee = userRepository.save(BenchmarkSupport.user("NL07EMP", UserRole.EMPLOYEE));
+        jdbcTemplate.update("""
+                INSERT INTO users (user_id, first_name, last_name, email, password, bsn_number, phone_number,
+                                   role, status, created_at)
+                SELECT 1000000 + X, 'Cust' || X,
+                       CASE MOD(X, 5) WHEN 0 THEN 'Smith' WHEN 1 THEN 'de Vries' WHEN 2 THEN 'Jansen'
+                                      WHEN 3 THEN 'Bakker' ELSE 'Visser' END,
+                       'cust' || X || '@benchmark.test', 'not-a-real-hash', 'BSN' || X, '+3160' || X,
+                       'CUSTOMER', 'APPROVED', CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, ?)
+                """, CUSTOMERS);
+        jdbcTemplate.update("""
+                INSERT INTO accounts (iban, customer_id, account_type, opening_balance, balance_shards,
+                                      absolute_transfer_limit, daily_transfer_amount, version, created_at, created_by)
+                SELECT 'NL07LOOK' || LPAD(CAST(X AS VARCHAR), 10, '0'), 1000000 + X, 'CHECKING', 0, 1,
+                       5000, 0, 0, CURRENT_TIMESTAMP, ?
+                FROM SYSTEM_RANGE(1, ?)
+                """, employee.getUserId(), CUSTOMERS);
+        jdbcTemplate.execute("ANALYZE");
+        System.out.println("Seeded " + CUSTOMERS + " customers");
+    }
+}
@@ -0,0 +1,183 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.security.JwtProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL statements and latency of one request to each controller endpoint, over HTTP with a
+ * real token, against a seeded database. Statements are counted from the moment the request
+ * is sent until its response has arrived, including the user lookup of the JWT filter.
+ * Run with: mvn test -Pbenchmark -Dtest=EndpointQueryBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:endpoint-query-benchmark",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nextgenbank.backend.benchmark.EndpointQueryBenchmark$CountingStatementInspector",
+        "bank.listing-totals.refresh-interval-ms=3600000",
+        "bank.balance.snapshot-interval-ms=3600000",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class EndpointQueryBenchmark {
+
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.endpoints.customers", 300);
+    private static final int TRANSACTIONS = Integer.getInteger("benchmark.endpoints.transactions", 5_000);
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void measureEndpoints() throws Exception {
+        User employee = userRepository.save(BenchmarkSupport.user("NL08EMP", UserRole.EMPLOYEE));
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(BenchmarkSupport.user("NL08CUS" + i, UserRole.CUSTOMER));
+        }
+        customers = userRepository.saveAll(customers);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            accounts.add(BenchmarkSupport.account(String.format("NL08ENDP%010d", i), customers.get(i), employee,
+                    new BigDecimal("1000000.00")));
+        }
+        accountRepository.saveAll(accounts);
+        // The transfers below take their ids from the sequence
+        BenchmarkSupport.seedTransactions(jdbcTemplate, accounts, employee, TRANSACTIONS, 100_000_000L);
+
+        User customer = customers.get(0);
+        String iban = accounts.get(0).getIBAN();
+        String employeeToken = jwtProvider.generateToken(employee);
+        String customerToken = jwtProvider.generateToken(customer);
+
+        List<Request> requests = List.of(
+                get(employeeToken, "/api/transactions/all?page=5&size=20"),
+                get(employeeToken, "/api/transactions/all/slice?page=5&size=20"),
+                get(employeeToken, "/api/transactions/all/cursor?size=20"),
+                get(employeeToken, "/api/transactions/customer/" + customer.getUserId() + "?size=20"),
+                get(employeeToken, "/api/transactions/customer/" + customer.getUserId() + "/cursor?size=20"),
+                get(employeeToken, "/api/transactions/customer/" + customer.getUserId() + "/export?format=csv"),
+                get(employeeToken, "/api/transactions/pending"),
+                get(employeeToken, "/api/transactions/pending/export"),
+                get(employeeToken, "/api/accounts"),
+                get(employeeToken, "/api/accounts/all-with-customers"),
+                get(employeeToken, "/api/accounts/customer/" + customer.getUserId()),
+                get(employeeToken, "/api/accounts/" + iban),
+                get(employeeToken, "/api/accounts/lookup/all?size=20"),
+                get(employeeToken, "/api/employees/customers?size=20"),
+                get(employeeToken, "/api/employees/customers/slice?size=20"),
+                get(employeeToken, "/api/employees/customers/" + customer.getUserId()),
+                get(employeeToken, "/api/employees/status/paginated?status=APPROVED&size=20"),
+                get(employeeToken, "/api/employees/status?status=APPROVED"),
+                get(customerToken, "/api/user/me"),
+                get(customerToken, "/api/accounts/my"),
+                get(customerToken, "/api/transactions?size=20"),
+                get(customerToken, "/api/transactions/cursor?size=20"),
+                get(customerToken, "/api/accounts/lookup?name=NL08CUS12&size=10"),
+                get(customerToken, "/api/accounts/lookup/slice?name=NL08CUS12&size=10"),
+                post(customerToken, "/api/transactions/transfer", """
+                        {"accountNumber": "%s", "toAccount": "%s", "amount": 1.00, "initiatorId": %d}
+                        """.formatted(iban, accounts.get(1).getIBAN(), customer.getUserId())),
+                post(customerToken, "/api/transactions/atm", """
+                        {"toIban": "%s", "amount": 1.00, "transactionType": "DEPOSIT"}
+                        """.formatted(iban)));
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (Request request : requests) {
+            // Warm up, and check the request is answered before its numbers mean anything
+            for (int i = 0; i < 3; i++) {
+                ResponseEntity<String> response = send(request);
+                assertTrue(response.getStatusCode().is2xxSuccessful(),
+                        request.label() + " answered " + response.getStatusCode() + ": " + response.getBody());
+            }
+            CountingStatementInspector.STATEMENTS.clear();
+            send(request);
+            int statements = CountingStatementInspector.STATEMENTS.size();
+            BenchmarkSupport.Result result = BenchmarkSupport.measure(request.label(), ITERATIONS, 1, i -> send(request));
+            measurements.add(new Measurement(request.label(), statements, result.avgLatencyMicros() / 1000));
+        }
+
+        System.out.println();
+        System.out.println("=== Endpoints over " + CUSTOMERS + " customers and " + TRANSACTIONS + " transactions ===");
+        System.out.printf("%-70s %10s %12s%n", "endpoint", "statements", "avg latency");
+        for (Measurement measurement : measurements) {
+            System.out.printf("%-70s %10d %9.1f ms%n", measurement.label(), measurement.statements(), measurement.millis());
+        }
+        System.out.println();
+    }
+
+    private ResponseEntity<String> send(Request request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(request.token());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.exchange(request.path(), request.method(), new HttpEntity<>(request.body(), headers), String.class);
+    }
+
+    private static Request get(String token, String path) {
+        return new Request(HttpMethod.GET, path, token, null);
+    }
+
+    private static Request post(String token, String path, String body) {
+        return new Request(HttpMethod.POST, path, token, body);
+    }
+
+    private record Request(HttpMethod method, String path, String token, String body) {
+
+        String label() {
+            return method + " " + path.replaceAll("NL08ENDP\\d+", "{iban}").replaceAll("/\\d+", "/{id}");
+        }
+    }
+
+    private record Measurement(String label, int statements, double millis) {
+    }
+
+    /**
+     * Collects the SQL Hibernate sends while a request runs
+     */
+    public static class CountingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
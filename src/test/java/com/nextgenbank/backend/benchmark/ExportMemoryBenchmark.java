@@ -0,0 +1,154 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.TransactionExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak heap while exporting the whole transactions table, comparing the old way (the full
+ * List<TransactionDto> built first, then written) with the streamed export. Runs at two table
+ * sizes: the list grows with the table, the stream should not.
+ * Run with: mvn test -Pbenchmark -Dbenchmark.export.rows=1000000 (the list needs a large heap there)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export-memory-benchmark;LAZY_QUERY_EXECUTION=TRUE",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class ExportMemoryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.export.rows", 300_000);
+    private static final int ACCOUNTS = 500;
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareListAndStreamedExport() throws Exception {
+        User employee = userRepository.save(BenchmarkSupport.user("NL11EMP", UserRole.EMPLOYEE));
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(BenchmarkSupport.account(String.format("NL11EXPO%010d", i), employee, employee,
+                    BigDecimal.ZERO));
+        }
+        accountRepository.saveAll(accounts);
+
+        System.out.println("Transaction export, peak live heap above the idle baseline");
+        int seeded = 0;
+        for (int rows : List.of(ROWS / 5, ROWS)) {
+            BenchmarkSupport.seedTransactions(jdbcTemplate, accounts, employee, rows - seeded);
+            seeded = rows;
+            System.out.println(measure("stream, " + rows + " rows", this::exportStreamed));
+            System.out.println(measure("list, " + rows + " rows", this::exportAsList));
+        }
+    }
+
+    private void exportAsList(CountingOutputStream out) {
+        // What the non-paginated listing did: every row mapped into one list before the first byte is written
+        List<TransactionDto> all = transactionTemplate.execute(status ->
+                transactionRepository.findRows(null, Sort.by(Sort.Direction.DESC, "timestamp", "transactionId"))
+                        .stream().map(TransactionDto::new).toList());
+        try {
+            for (TransactionDto dto : all) {
+                out.write(objectMapper.writeValueAsBytes(dto));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void exportStreamed(CountingOutputStream out) {
+        exportService.write(exportService.allTransactions(), TransactionExportService.Format.NDJSON, out);
+    }
+
+    private String measure(String label, java.util.function.Consumer<CountingOutputStream> export) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        Thread.sleep(200);
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        // Collecting before each sample measures what the export holds on to, not the garbage it makes
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        export.accept(out);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        running.set(false);
+        sampler.join();
+
+        return String.format("%-28s %8d MB peak %8d ms %8d MB written", label,
+                (peak.get() - baseline) / (1024 * 1024), millis, out.count / (1024 * 1024));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
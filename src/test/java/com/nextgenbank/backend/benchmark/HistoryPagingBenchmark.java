@@ -0,0 +1,120 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.HistoryCursor;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of one history page at increasing depth, with offset pagination (page + count)
+ * and with the cursor endpoints (seek past the last row of the previous page).
+ * Run with: mvn test -Pbenchmark -Dbenchmark.history.rows=5000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-paging-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class HistoryPagingBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.history.rows", 1_000_000);
+    private static final int CUSTOMERS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareOffsetAndCursorPages() throws Exception {
+        User employee = userRepository.save(BenchmarkSupport.user("NL06EMP", UserRole.EMPLOYEE));
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(BenchmarkSupport.user("NL06CUS" + i, UserRole.CUSTOMER));
+        }
+        customers = userRepository.saveAll(customers);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            accounts.add(BenchmarkSupport.account(String.format("NL06BENC%010d", i), customers.get(i), employee,
+                    BigDecimal.ZERO));
+        }
+        accountRepository.saveAll(accounts);
+        BenchmarkSupport.seedTransactions(jdbcTemplate, accounts, employee, ROWS);
+        Long customerId = customers.get(0).getUserId();
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int page : new int[]{0, 100, 1000, ROWS / PAGE_SIZE / 2}) {
+            String cursor = cursorBefore(page, null);
+            assertEquals(transactionService.getAllTransactionsPaginated(PageRequest.of(page, PAGE_SIZE))
+                            .getContent().get(0).getTransactionId(),
+                    transactionService.getAllTransactionsAfter(cursor, PAGE_SIZE).getContent().get(0).getTransactionId());
+
+            results.add(run("all, offset page " + page,
+                    i -> transactionService.getAllTransactionsPaginated(PageRequest.of(page, PAGE_SIZE))));
+            results.add(run("all, cursor page " + page,
+                    i -> transactionService.getAllTransactionsAfter(cursor, PAGE_SIZE)));
+        }
+
+        long customerRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE from_account = ? "
+                + "OR to_account = ?", Long.class, accounts.get(0).getIBAN(), accounts.get(0).getIBAN());
+        for (int page : new int[]{0, (int) (customerRows / PAGE_SIZE / 2), (int) (customerRows / PAGE_SIZE) - 1}) {
+            String cursor = cursorBefore(page, accounts.get(0).getIBAN());
+            results.add(run("customer, offset page " + page,
+                    i -> transactionService.getTransactionsByCustomerIdPaginated(customerId,
+                            PageRequest.of(page, PAGE_SIZE))));
+            results.add(run("customer, cursor page " + page,
+                    i -> transactionService.getTransactionsByCustomerIdAfter(customerId, cursor, PAGE_SIZE)));
+        }
+
+        BenchmarkSupport.print("History page of " + PAGE_SIZE + " over " + ROWS + " rows", results);
+    }
+
+    private BenchmarkSupport.Result run(String label, IntConsumer query) throws Exception {
+        BenchmarkSupport.measure(label, ITERATIONS, 1, query);
+        return BenchmarkSupport.measure(label, ITERATIONS, 1, query);
+    }
+
+    /**
+     * The cursor a client holds after reading the given number of pages,
+     * i.e. the position of the last row on the page before it
+     */
+    private String cursorBefore(int page, String iban) {
+        if (page == 0) {
+            return null;
+        }
+        String where = iban == null ? "" : " WHERE from_account = '" + iban + "' OR to_account = '" + iban + "'";
+        Map<String, Object> last = jdbcTemplate.queryForMap("SELECT timestamp, transaction_id FROM transactions"
+                + where + " ORDER BY timestamp DESC, transaction_id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                page * PAGE_SIZE - 1);
+        return new HistoryCursor(((Timestamp) last.get("TIMESTAMP")).toLocalDateTime(),
+                ((Number) last.get("TRANSACTION_ID")).longValue()).encode();
+    }
+}
@@ -0,0 +1,178 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.model.dto.TransactionResponseDto;
+import com.nextgenbank.backend.service.CustomerSearchIndex;
+import com.nextgenbank.backend.service.TransactionFeedService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Transaction history filters on a seeded table, comparing the old static JPQL
+ * query (every filter as ":param IS NULL OR ...", four LEFT JOINs, LOWER() on
+ * each column) with the per-customer transaction feed read by the endpoint now.
+ * Each operation loads the first page and its total count, like the endpoint.
+ * Run with: mvn test -Pbenchmark -Dbenchmark.history.rows=5000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-query-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class HistoryQueryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.history.rows", 2_000_000);
+    private static final int CUSTOMERS = 2000;
+    private static final int ITERATIONS = 5;
+
+    private static final String LEGACY_FROM_WHERE = """
+            FROM Transaction t
+            LEFT JOIN t.fromAccount fa
+            LEFT JOIN t.toAccount ta
+            LEFT JOIN fa.customer fromCustomer
+            LEFT JOIN ta.customer toCustomer
+            WHERE (fromCustomer.userId = :userId OR toCustomer.userId = :userId)
+              AND (:iban IS NULL OR LOWER(fa.IBAN) LIKE LOWER(CONCAT('%', :iban, '%')) OR LOWER(ta.IBAN) LIKE LOWER(CONCAT('%', :iban, '%')))
+              AND (:name IS NULL OR
+                   (LOWER(fromCustomer.firstName) LIKE LOWER(CONCAT('%', :name, '%'))
+                    OR LOWER(fromCustomer.lastName) LIKE LOWER(CONCAT('%', :name, '%'))
+                    OR LOWER(toCustomer.firstName) LIKE LOWER(CONCAT('%', :name, '%'))
+                    OR LOWER(toCustomer.lastName) LIKE LOWER(CONCAT('%', :name, '%'))))
+              AND (:direction IS NULL OR
+                   (:direction = 'INCOMING' AND toCustomer.userId = :userId AND (fromCustomer.userId IS NULL OR fromCustomer.userId != :userId))
+                   OR (:direction = 'OUTGOING' AND fromCustomer.userId = :userId AND (toCustomer.userId IS NULL OR toCustomer.userId != :userId))
+                   OR (:direction = 'INTERNAL' AND fromCustomer.userId = :userId AND toCustomer.userId = :userId))
+              AND (:startDate IS NULL OR t.timestamp >= :startDate)
+              AND (:endDate IS NULL OR t.timestamp <= :endDate)
+              AND (:amount IS NULL OR
+                   (:amountOperation IS NULL OR :amountOperation = 'eq' AND t.amount = :amount)
+                   OR (:amountOperation = 'lt' AND t.amount < :amount)
+                   OR (:amountOperation = 'gt' AND t.amount > :amount))
+            """;
+
+    @Autowired
+    private TransactionFeedService transactionFeedService;
+
+    @Autowired
+    private CustomerSearchIndex searchIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void compareHistoryQueries() throws Exception {
+        User user = seed();
+        searchIndex.rebuild();
+        Long userId = user.getUserId();
+
+        List<Filters> cases = List.of(
+                new Filters("no filters", null, null, null, null, null, null, null),
+                new Filters("direction OUTGOING", null, null, "OUTGOING", null, null, null, null),
+                new Filters("amount > 900", null, null, null, null, null, new BigDecimal("900"), "gt"),
+                new Filters("last 30 days", null, null, null, LocalDate.now().minusDays(30), null, null, null),
+                new Filters("name contains 'cus1'", null, "cus1", null, null, null, null, null),
+                new Filters("name contains 'cus1234'", null, "cus1234", null, null, null, null, null),
+                new Filters("iban + direction + amount", "NL05", null, "INCOMING", null, null, new BigDecimal("500"), "lt"));
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (Filters filters : cases) {
+            // Both versions must return the same history before their timings mean anything
+            assertEquals(legacy(userId, filters).getTotalElements(), feed(user, filters).getTotalElements(),
+                    filters.label());
+
+            results.add(run("legacy: " + filters.label(), i -> legacy(userId, filters)));
+            results.add(run("feed: " + filters.label(), i -> feed(user, filters)));
+        }
+
+        BenchmarkSupport.print("Transaction history filters over " + ROWS + " rows", results);
+    }
+
+    private BenchmarkSupport.Result run(String label, IntConsumer query) throws Exception {
+        BenchmarkSupport.measure(label, 1, 1, query);
+        return BenchmarkSupport.measure(label, ITERATIONS, 1, query);
+    }
+
+    private Page<TransactionResponseDto> feed(User user, Filters filters) {
+        return transactionFeedService.getHistory(user, filters.iban(), filters.name(),
+                filters.direction(),
+                filters.startDate() != null ? filters.startDate().toString() : null,
+                filters.endDate() != null ? filters.endDate().toString() : null,
+                filters.amount(), filters.amountOperation(), PageRequest.of(0, 10));
+    }
+
+    private Page<Transaction> legacy(Long userId, Filters filters) {
+        TypedQuery<Transaction> content = entityManager.createQuery(
+                "SELECT t " + LEGACY_FROM_WHERE + " ORDER BY t.timestamp DESC", Transaction.class);
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(t) " + LEGACY_FROM_WHERE, Long.class);
+        for (TypedQuery<?> query : List.of(content, count)) {
+            query.setParameter("userId", userId);
+            query.setParameter("iban", filters.iban());
+            query.setParameter("name", filters.name());
+            query.setParameter("direction", filters.direction());
+            query.setParameter("startDate", filters.startDate() != null ? filters.startDate().atStartOfDay() : null);
+            query.setParameter("endDate", filters.endDate() != null ? filters.endDate().atTime(23, 59, 59) : null);
+            query.setParameter("amount", filters.amount());
+            query.setParameter("amountOperation", filters.amountOperation());
+        }
+        List<Transaction> page = content.setMaxResults(10).getResultList();
+        return new PageImpl<>(page, PageRequest.of(0, 10), count.getSingleResult());
+    }
+
+    /**
+     * Customers with a checking account each and transfers between random accounts,
+     * plus some deposits and withdrawals. Returns the customer whose history is queried.
+     */
+    private User seed() {
+        User employee = userRepository.save(BenchmarkSupport.user("NL05EMP", UserRole.EMPLOYEE));
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(BenchmarkSupport.user("NL05CUS" + i, UserRole.CUSTOMER));
+        }
+        customers = userRepository.saveAll(customers);
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            accounts.add(BenchmarkSupport.account(String.format("NL05BENC%010d", i), customers.get(i), employee,
+                    BigDecimal.ZERO));
+        }
+        accountRepository.saveAll(accounts);
+
+        BenchmarkSupport.seedTransactions(jdbcTemplate, accounts, employee, ROWS);
+        return customers.get(0);
+    }
+
+    private record Filters(String label, String iban, String name, String direction, LocalDate startDate,
+                           LocalDate endDate, BigDecimal amount, String amountOperation) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Many customers paying one merchant at the same time: every transfer credits
+ * the same hot account while the debited accounts are spread out.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot-account-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class HotAccountBenchmark {
+
+    private static final int PAYERS = 64;
+    private static final int WARMUP = 500;
+    private static final int OPERATIONS = 4000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void payOneMerchantFromManyAccounts() throws Exception {
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int threads : new int[]{1, 8, 16}) {
+            String prefix = "NL05HOT" + threads;
+            User employee = userRepository.save(BenchmarkSupport.user(prefix + "EMP", UserRole.EMPLOYEE));
+            User customer = userRepository.save(BenchmarkSupport.user(prefix + "CUS", UserRole.CUSTOMER));
+
+            String merchant = prefix + "MERCHANT";
+            accountRepository.save(BenchmarkSupport.account(merchant, customer, employee, BigDecimal.ZERO));
+            List<String> payers = new ArrayList<>();
+            for (int i = 0; i < PAYERS; i++) {
+                String iban = prefix + String.format("%010d", i);
+                accountRepository.save(BenchmarkSupport.account(iban, customer, employee, new BigDecimal("1000000.00")));
+                payers.add(iban);
+            }
+
+            BenchmarkSupport.measure("warmup", WARMUP, threads,
+                    i -> transactionService.transferFunds(request(payers.get(i % PAYERS), merchant, employee)));
+            results.add(BenchmarkSupport.measure("pay merchant (" + threads + " threads)", OPERATIONS, threads,
+                    i -> transactionService.transferFunds(request(payers.get(i % PAYERS), merchant, employee))));
+        }
+        BenchmarkSupport.print("Transfers into one hot account", results);
+    }
+
+    private TransferRequestDto request(String from, String to, User initiator) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(from);
+        request.setToAccount(to);
+        request.setAmount(BigDecimal.ONE);
+        request.setInitiatorId(initiator.getUserId());
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.init.DataInitializer;
+import com.nextgenbank.backend.model.AccountType;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.SwitchFundsRequestDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Insert throughput of the paths that create Transaction and User rows:
+ * single transfers, checking/savings switches (logTransaction), batch
+ * transfers and the sample data initializer.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:insert-throughput-benchmark",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.nextgenbank.backend=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class InsertThroughputBenchmark {
+
+    private static final int OPERATIONS = 2000;
+    private static final int BATCH_SIZE = 500;
+    private static final int INITIALIZER_RUNS = 5;
+    private static final BigDecimal BALANCE = new BigDecimal("1000000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void measureInsertThroughput() throws Exception {
+        User employee = userRepository.save(BenchmarkSupport.user("NL03EMP", UserRole.EMPLOYEE));
+        User customer = userRepository.save(BenchmarkSupport.user("NL03CUS", UserRole.CUSTOMER));
+        String checking = "NL03CHK0000000001";
+        String savings = "NL03SAV0000000001";
+        accountRepository.save(BenchmarkSupport.account(checking, customer, employee, BALANCE));
+        var savingsAccount = BenchmarkSupport.account(savings, customer, employee, BALANCE);
+        savingsAccount.setAccountType(AccountType.SAVINGS);
+        accountRepository.save(savingsAccount);
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+
+        IntConsumer transfer = i -> transactionService.transferFunds(
+                request(i % 2 == 0 ? checking : savings, i % 2 == 0 ? savings : checking, employee));
+        IntConsumer switchFunds = i -> transactionService.switchFunds(customer,
+                new SwitchFundsRequestDto(i % 2 == 0 ? "CHECKING" : "SAVINGS", BigDecimal.ONE));
+        IntConsumer batch = i -> {
+            List<TransferRequestDto> transfers = new ArrayList<>();
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                transfers.add(request(j % 2 == 0 ? checking : savings, j % 2 == 0 ? savings : checking, employee));
+            }
+            transactionService.transferFundsBatch(transfers);
+        };
+
+        results.add(run("transferFunds", OPERATIONS, 1, transfer, statements));
+        results.add(run("switchFunds (logTransaction)", OPERATIONS, 1, switchFunds, statements));
+        results.add(run("transferFundsBatch (ops = rows)", OPERATIONS / BATCH_SIZE, BATCH_SIZE, batch, statements));
+
+        // Runs last: the initializer wipes every table before inserting the sample data
+        results.add(run("DataInitializer.run", INITIALIZER_RUNS, 1, i -> {
+            try {
+                dataInitializer.run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, statements));
+
+        BenchmarkSupport.print("Insert throughput", results);
+        statements.forEach(System.out::println);
+    }
+
+    private BenchmarkSupport.Result run(String label, int operations, int rowsPerOperation, IntConsumer operation,
+                                        List<String> statements) throws Exception {
+        // Warm up with a tenth of the workload
+        BenchmarkSupport.measure(label, Math.max(1, operations / 10), 1, operation);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        BenchmarkSupport.Result result = BenchmarkSupport.measure(label, operations, 1, operation);
+        statements.add(String.format("%s: %.2f statements per row", label,
+                (statistics.getPrepareStatementCount() - before) / (double) (operations * rowsPerOperation)));
+        return rowsPerOperation == 1 ? result : new BenchmarkSupport.Result(label, operations * rowsPerOperation,
+                1, result.nanos());
+    }
+
+    private TransferRequestDto request(String from, String to, User initiator) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(from);
+        request.setToAccount(to);
+        request.setAmount(BigDecimal.ONE);
+        request.setInitiatorId(initiator.getUserId());
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.security.JwtProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of authenticating one request from its JWT: a parser built for every request (as
+ * before), one shared parser, and the shared parser with the cache of verified tokens.
+ * The requests come from a fixed set of clients, each sending its own token every time.
+ * Run with: mvn test -Pbenchmark -Dtest=JwtAuthBenchmark
+ */
+@Tag("benchmark")
+class JwtAuthBenchmark {
+
+    private static final String SECRET = "MyVerySecretKey12345678901234567890123456789012";
+    private static final int CLIENTS = Integer.getInteger("benchmark.jwt.clients", 1_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.jwt.requests", 200_000);
+    private static final long ACCESS_TOKEN_TTL_MS = 900_000;
+    private static final long REFRESH_TOKEN_TTL_MS = 604_800_000;
+
+    @Test
+    void compareTokenVerification() throws Exception {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        JwtProvider uncached = new JwtProvider(SECRET, 0, ACCESS_TOKEN_TTL_MS, REFRESH_TOKEN_TTL_MS);
+        JwtProvider cached = new JwtProvider(SECRET, CLIENTS, ACCESS_TOKEN_TTL_MS, REFRESH_TOKEN_TTL_MS);
+
+        List<String> tokens = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            tokens.add(cached.generateToken(BenchmarkSupport.user("JWT" + i, UserRole.CUSTOMER)));
+        }
+        // All three must read the same subject before their timings mean anything
+        String token = tokens.get(0);
+        assertEquals(newParser(key, token), uncached.extractEmail(token));
+        assertEquals(newParser(key, token), cached.extractEmail(token));
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int threads : new int[]{1, 8}) {
+            results.add(run("parser per request", threads, i -> newParser(key, tokens.get(i % CLIENTS))));
+            results.add(run("shared parser", threads, i -> uncached.extractEmail(tokens.get(i % CLIENTS))));
+            results.add(run("shared parser + verified cache", threads,
+                    i -> cached.extractEmail(tokens.get(i % CLIENTS))));
+        }
+
+        BenchmarkSupport.print("JWT verification, " + CLIENTS + " clients", results);
+    }
+
+    private BenchmarkSupport.Result run(String label, int threads, IntConsumer request) throws Exception {
+        BenchmarkSupport.measure(label, REQUESTS / 4, threads, request);
+        return BenchmarkSupport.measure(label, REQUESTS, threads, request);
+    }
+
+    /**
+     * What JwtProvider did for every request before the parser was shared
+     */
+    private static String newParser(Key key, String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+}
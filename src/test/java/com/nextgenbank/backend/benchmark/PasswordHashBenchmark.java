@@ -0,0 +1,62 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.security.CalibratedPasswordEncoder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Password checks per second, and per core, at each BCrypt strength: one login thread, and one
+ * for every core. Also shows which strength the startup calibration picks for a few budgets
+ * on this machine.
+ * Run with: mvn test -Pbenchmark -Dtest=PasswordHashBenchmark
+ */
+@Tag("benchmark")
+class PasswordHashBenchmark {
+
+    private static final int MIN_STRENGTH = Integer.getInteger("benchmark.password.min-strength", 8);
+    private static final int MAX_STRENGTH = Integer.getInteger("benchmark.password.max-strength", 13);
+    private static final int CHECKS_PER_THREAD = Integer.getInteger("benchmark.password.checks-per-thread", 8);
+    private static final String PASSWORD = "Customer1!";
+
+    @Test
+    void compareStrengths() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = cores > 1 ? new int[]{1, cores} : new int[]{1};
+
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            String hash = encoder.encode(PASSWORD);
+            assertTrue(encoder.matches(PASSWORD, hash));
+
+            for (int threads : threadCounts) {
+                String label = "strength " + strength;
+                BenchmarkSupport.measure(label, threads, threads, i -> encoder.matches(PASSWORD, hash));
+                results.add(BenchmarkSupport.measure(label, CHECKS_PER_THREAD * threads, threads,
+                        i -> encoder.matches(PASSWORD, hash)));
+            }
+        }
+        BenchmarkSupport.print("BCrypt password checks, " + cores + " cores", results);
+
+        System.out.printf("%-40s %12s%n", "case", "logins/sec/core");
+        for (BenchmarkSupport.Result result : results) {
+            if (result.threads() == cores) {
+                System.out.printf("%-40s %12.1f%n", result.label(), result.opsPerSecond() / cores);
+            }
+        }
+        System.out.println();
+
+        System.out.printf("%-40s %12s%n", "hash budget", "strength");
+        for (long budgetMillis : new long[]{50, 100, 250, 500}) {
+            System.out.printf("%-40s %12d%n", budgetMillis + " ms",
+                    CalibratedPasswordEncoder.calibrate(budgetMillis, 10, 16));
+        }
+        System.out.println();
+    }
+}
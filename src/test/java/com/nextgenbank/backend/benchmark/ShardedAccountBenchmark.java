@@ -0,0 +1,138 @@
+package com.nextgenbank.backend.benchmark;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.AccountService;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One account paying many others, with its balance split into 1, 4 and 16 shards.
+ *
+ * In-memory H2 answers within microseconds, so a lock held for a whole transfer costs
+ * next to nothing there and sharding cannot show. This benchmark adds a simulated
+ * network round trip to every statement and commit, as with a database server, so the
+ * time a debit holds its account (or shard) lock is dominated by waiting, as in production.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-account-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class ShardedAccountBenchmark {
+
+    private static final long ROUND_TRIP_MICROS = 500;
+    private static final int THREADS = 16;
+    private static final int PAYEES = 64;
+    private static final int WARMUP = 200;
+    private static final int OPERATIONS = 2000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void payManyFromOneAccount() throws Exception {
+        List<BenchmarkSupport.Result> results = new ArrayList<>();
+        for (int shards : new int[]{1, 4, 16}) {
+            String prefix = "NL07OUT" + shards;
+            User employee = userRepository.save(BenchmarkSupport.user(prefix + "EMP", UserRole.EMPLOYEE));
+            User customer = userRepository.save(BenchmarkSupport.user(prefix + "CUS", UserRole.CUSTOMER));
+
+            String payer = prefix + "PAYER";
+            accountRepository.save(BenchmarkSupport.account(payer, customer, employee, new BigDecimal("1000000.00")));
+            accountService.updateBalanceShards(payer, shards);
+            List<String> payees = new ArrayList<>();
+            for (int i = 0; i < PAYEES; i++) {
+                String iban = prefix + String.format("%010d", i);
+                accountRepository.save(BenchmarkSupport.account(iban, customer, employee, BigDecimal.ZERO));
+                payees.add(iban);
+            }
+
+            BenchmarkSupport.measure("warmup", WARMUP, THREADS,
+                    i -> transactionService.transferFunds(request(payer, payees.get(i % PAYEES), employee)));
+            results.add(BenchmarkSupport.measure("pay out (" + shards + " shards)", OPERATIONS, THREADS,
+                    i -> transactionService.transferFunds(request(payer, payees.get(i % PAYEES), employee))));
+        }
+        BenchmarkSupport.print("Transfers out of one account, " + ROUND_TRIP_MICROS + " us per round trip", results);
+    }
+
+    private TransferRequestDto request(String from, String to, User initiator) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(from);
+        request.setToAccount(to);
+        request.setAmount(BigDecimal.ONE);
+        request.setInitiatorId(initiator.getUserId());
+        return request;
+    }
+
+    @TestConfiguration
+    static class RoundTripLatency {
+
+        @Bean
+        static BeanPostProcessor roundTripDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? delayed(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        /**
+         * Proxy that waits one round trip before every statement execution and commit
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T delayed(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute") || name.equals("commit")) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ROUND_TRIP_MICROS));
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return delayed(connection, Connection.class);
+                }
+                if (result instanceof Statement && method.getReturnType().isInterface()) {
+                    return delayed(result, (Class<Object>) method.getReturnType());
+                }
+                return result;
+            });
+        }
+    }
+}
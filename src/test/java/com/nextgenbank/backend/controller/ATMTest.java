@@ -3,13 +3,20 @@ package com.nextgenbank.backend.controller;
 import com.nextgenbank.backend.model.*;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.service.AccountLockManager;
+import com.nextgenbank.backend.service.BalanceService;
+import com.nextgenbank.backend.service.OptimisticRetryExecutor;
+import com.nextgenbank.backend.service.TransactionFeedService;
 import com.nextgenbank.backend.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 import java.math.BigDecimal;
 import java.util.Optional;
 
@@ -28,6 +35,15 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
     private AccountRepository accountRepository;
     @Mock
     private TransactionRepository transactionRepository;
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private TransactionFeedService transactionFeedService;
+    @Spy
+    private AccountLockManager accountLockManager = new AccountLockManager(16, 1000);
+    @Spy
+    private OptimisticRetryExecutor retryExecutor =
+            new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), 3, 0, 0);
     @InjectMocks
     private TransactionService transactionService;
 
@@ -45,7 +61,18 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
         testAccount = new Account();
         testAccount.setIBAN("DE123");
         testAccount.setCustomer(testUser);
-        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setOpeningBalance(new BigDecimal("1000.00"));
+
+        // The mocked ledger applies posted transactions to the opening balance
+        lenient().when(balanceService.knownShards(any())).thenReturn(1);
+        BigDecimal[] posted = {BigDecimal.ZERO};
+        lenient().when(balanceService.getBalance(testAccount))
+                .thenAnswer(i -> testAccount.getOpeningBalance().add(posted[0]));
+        lenient().doAnswer(i -> {
+            Transaction tx = i.getArgument(0);
+            posted[0] = posted[0].add(tx.getToAccount() == testAccount ? tx.getAmount() : tx.getAmount().negate());
+            return null;
+        }).when(balanceService).post(any(Transaction.class));
     }
 
     /**
@@ -54,7 +81,7 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
     @Test
     void performAtmOperation_Deposit_Success() {
         // Arrange: Mock repository calls for a successful scenario.
-        when(accountRepository.findById("DE123")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithCustomerByIban("DE123")).thenReturn(Optional.of(testAccount));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act: Perform the deposit.
@@ -62,10 +89,10 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
         Transaction result = transactionService.performAtmOperation(testUser, "DE123", amount, TransactionType.DEPOSIT);
 
         // Assert: Check the new balance and verify that save methods were called.
-        assertEquals(0, new BigDecimal("1200.00").compareTo(testAccount.getBalance()));
+        assertEquals(0, new BigDecimal("1200.00").compareTo(balanceService.getBalance(testAccount)));
         assertEquals(TransactionType.DEPOSIT, result.getTransactionType());
-        verify(accountRepository).save(testAccount);
         verify(transactionRepository).save(any(Transaction.class));
+        verify(balanceService).post(result);
     }
 
     /**
@@ -74,7 +101,7 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
     @Test
     void performAtmOperation_Withdrawal_Success() {
         // Arrange
-        when(accountRepository.findById("DE123")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithCustomerByIban("DE123")).thenReturn(Optional.of(testAccount));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
@@ -82,7 +109,7 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
         Transaction result = transactionService.performAtmOperation(testUser, "DE123", amount, TransactionType.WITHDRAWAL);
 
         // Assert
-        assertEquals(0, new BigDecimal("700.00").compareTo(testAccount.getBalance()));
+        assertEquals(0, new BigDecimal("700.00").compareTo(balanceService.getBalance(testAccount)));
         assertEquals(TransactionType.WITHDRAWAL, result.getTransactionType());
     }
 
@@ -92,7 +119,7 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
     @Test
     void performAtmOperation_Withdrawal_Fails_InsufficientFunds() {
         // Arrange
-        when(accountRepository.findById("DE123")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithCustomerByIban("DE123")).thenReturn(Optional.of(testAccount));
         BigDecimal amount = new BigDecimal("1500.00");
 
         // Act & Assert: Expect an exception and check the message.
@@ -101,9 +128,10 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
         assertEquals("Insufficient funds.", ex.getMessage());
 
         // Assert: Ensure balance did not change and no data was saved.
-        assertEquals(0, new BigDecimal("1000.00").compareTo(testAccount.getBalance()));
+        assertEquals(0, new BigDecimal("1000.00").compareTo(balanceService.getBalance(testAccount)));
         verify(accountRepository, never()).save(any());
         verify(transactionRepository, never()).save(any());
+        verify(balanceService, never()).post(any(Transaction.class));
     }
 
     /**
@@ -114,7 +142,7 @@ class ATMTest { // Consider renaming to TransactionServiceTest for convention
         // Arrange: Create a different user to initiate the operation.
         User anotherUser = new User();
         anotherUser.setUserId(2L);
-        when(accountRepository.findById("DE123")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithCustomerByIban("DE123")).thenReturn(Optional.of(testAccount));
         BigDecimal amount = new BigDecimal("100.00");
 
         // Act & Assert: Expect an exception when 'anotherUser' tries to access the account.
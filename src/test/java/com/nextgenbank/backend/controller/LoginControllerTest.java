@@ -7,26 +7,32 @@ import com.nextgenbank.backend.model.dto.LoginRequestDto;
 import com.nextgenbank.backend.model.dto.LoginResponseDto;
 import com.nextgenbank.backend.model.dto.UserDto;
 import com.nextgenbank.backend.security.JwtProvider;
-import com.nextgenbank.backend.service.UserService;
+import com.nextgenbank.backend.security.TokenRevocationList;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.LoginService;
+import com.nextgenbank.backend.service.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class LoginControllerTest {
 
-    private UserService userService;
+    private LoginService loginService;
     private JwtProvider jwtProvider;
     private LoginController loginController;
 
     @BeforeEach
     void setUp() {
-        userService = mock(UserService.class);
+        loginService = mock(LoginService.class);
         jwtProvider = mock(JwtProvider.class);
-        loginController = new LoginController(userService, jwtProvider);
+        TokenService tokenService = new TokenService(jwtProvider, mock(TokenRevocationList.class),
+                mock(UserRepository.class));
+        loginController = new LoginController(loginService, tokenService);
     }
 
     @Test
@@ -46,11 +52,14 @@ public class LoginControllerTest {
         mockUser.setRole(UserRole.CUSTOMER);
         mockUser.setStatus(UserStatus.APPROVED);
 
-        when(userService.authenticate("test@example.com", "password123")).thenReturn(mockUser);
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("192.0.2.10");
+        when(loginService.authenticate("test@example.com", "password123", "192.0.2.10")).thenReturn(mockUser);
         when(jwtProvider.generateToken(mockUser)).thenReturn("mock-jwt-token");
+        when(jwtProvider.generateRefreshToken(mockUser)).thenReturn("mock-refresh-token");
 
         // Act
-        ResponseEntity<?> response = loginController.login(loginRequest);
+        ResponseEntity<?> response = loginController.login(loginRequest, httpRequest);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
@@ -58,6 +67,7 @@ public class LoginControllerTest {
 
         LoginResponseDto body = (LoginResponseDto) response.getBody();
         assertEquals("mock-jwt-token", body.getToken());
+        assertEquals("mock-refresh-token", body.getRefreshToken());
         assertEquals("Alice", body.getUser().getFirstName());
         assertEquals("test@example.com", body.getUser().getEmail());
     }
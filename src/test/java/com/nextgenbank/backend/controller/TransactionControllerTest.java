@@ -0,0 +1,115 @@
+package com.nextgenbank.backend.controller;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.security.UserPrincipal;
+import com.nextgenbank.backend.service.AsyncTransferService;
+import com.nextgenbank.backend.service.IdempotencyService;
+import com.nextgenbank.backend.service.TransactionExportService;
+import com.nextgenbank.backend.service.TransactionFeedService;
+import com.nextgenbank.backend.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionControllerTest {
+
+    private TransactionService transactionService;
+    private AsyncTransferService asyncTransferService;
+    private TransactionController transactionController;
+    private UserPrincipal customer;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        asyncTransferService = mock(AsyncTransferService.class);
+        IdempotencyService idempotencyService = mock(IdempotencyService.class);
+        TransactionExportService exportService = mock(TransactionExportService.class);
+        when(exportService.allTransactions()).thenReturn(new TransactionExportService.Export("transactions", null, null));
+        when(idempotencyService.execute(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(5)).get());
+        transactionController = new TransactionController(transactionService, idempotencyService,
+                asyncTransferService, mock(TransactionFeedService.class), exportService, 3_600_000);
+
+        User user = new User();
+        user.setUserId(1L);
+        user.setEmail("alice@example.com");
+        user.setRole(UserRole.CUSTOMER);
+        customer = new UserPrincipal(user);
+    }
+
+    @Test
+    void shouldTransferOnBehalfOfAuthenticatedUser() {
+        // Given: the body names an employee as initiator
+        TransferRequestDto request = request(9L);
+        when(transactionService.transferFunds(request)).thenReturn(new TransactionDto());
+
+        // When
+        transactionController.transferFunds(request, null, customer);
+
+        // Then
+        verify(transactionService).transferFunds(argThat(sent -> sent.getInitiatorId().equals(1L)));
+    }
+
+    @Test
+    void shouldBindEveryBatchTransferToAuthenticatedUser() {
+        // Given
+        List<TransferRequestDto> batch = List.of(request(9L), request(2L));
+        when(transactionService.transferFundsBatch(batch)).thenReturn(new BatchTransferResponseDto(List.of()));
+
+        // When
+        transactionController.transferFundsBatch(customer, batch);
+
+        // Then
+        assertTrue(batch.stream().allMatch(sent -> sent.getInitiatorId().equals(1L)));
+    }
+
+    @Test
+    void shouldQueueAsyncTransferForAuthenticatedUser() {
+        // Given
+        TransferRequestDto request = request(9L);
+        when(asyncTransferService.submit(1L, request)).thenReturn("transfer-1");
+
+        // When
+        transactionController.submitTransfer(customer, request);
+
+        // Then
+        verify(asyncTransferService).submit(eq(1L), argThat(sent -> sent.getInitiatorId().equals(1L)));
+    }
+
+    @Test
+    void shouldGiveExportsTheirOwnAsyncTimeout() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        AsyncWebRequest asyncWebRequest = mock(AsyncWebRequest.class);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+
+        // When
+        transactionController.exportAllTransactions(request, "csv");
+
+        // Then
+        verify(asyncWebRequest).setTimeout(3_600_000L);
+    }
+
+    private TransferRequestDto request(Long initiatorId) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber("NL01");
+        request.setToAccount("NL02");
+        request.setAmount(new BigDecimal("10.00"));
+        request.setInitiatorId(initiatorId);
+        return request;
+    }
+}
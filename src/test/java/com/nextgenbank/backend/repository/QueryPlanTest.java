@@ -0,0 +1,219 @@
+package com.nextgenbank.backend.repository;
+
+import com.nextgenbank.backend.model.*;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every query of TransactionRepository and AccountRepository, plus the history
+ * Specifications, against a seeded database and checks with EXPLAIN that none of them
+ * scans a whole table, except for the few scans listed in EXPECTED_SCANS.
+ * Uses its own in-memory database so other Spring tests are not affected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plan-test",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nextgenbank.backend.repository.QueryPlanTest$RecordingStatementInspector",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class QueryPlanTest {
+
+    private static final int CUSTOMERS = 200;
+    private static final int TRANSACTIONS = 20_000;
+
+    // Queries that may scan a table, and why that is acceptable
+    private static final Map<String, String> EXPECTED_SCANS = Map.of(
+            "findByFromAccount_CustomerOrToAccount_Customer paged",
+            "same OR over both accounts for the count query");
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionFeedRepository transactionFeedRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User employee;
+    private User customer;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        if (employee != null) {
+            return;
+        }
+        employee = userRepository.save(createUser("planemployee", UserRole.EMPLOYEE));
+        List<User> customers = new ArrayList<>();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            User owner = userRepository.save(createUser("plancustomer" + i, UserRole.CUSTOMER));
+            customers.add(owner);
+            accounts.add(createAccount(String.format("NL98PLAN%010d", i), owner));
+        }
+        accountRepository.saveAll(accounts);
+        customer = customers.get(0);
+        account = accounts.get(0);
+
+        jdbcTemplate.update("""
+                INSERT INTO transactions (transaction_id, from_account, to_account, amount, timestamp,
+                                          initiator_id, transaction_type)
+                SELECT 1000000 + X,
+                       'NL98PLAN' || LPAD(CAST(MOD(X, ?) AS VARCHAR), 10, '0'),
+                       'NL98PLAN' || LPAD(CAST(MOD(X * 7 + 3, ?) AS VARCHAR), 10, '0'),
+                       MOD(X, 1000) + 1, DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), ?, 'TRANSFER'
+                FROM SYSTEM_RANGE(1, ?)
+                """, CUSTOMERS, CUSTOMERS, employee.getUserId(), TRANSACTIONS);
+        jdbcTemplate.update("""
+                INSERT INTO transaction_feed (feed_entry_id, customer_id, transaction_id, timestamp, transaction_type,
+                                              amount, direction, account_iban, counterparty_iban)
+                SELECT t.transaction_id, a.customer_id, t.transaction_id, t.timestamp, t.transaction_type,
+                       t.amount, 'OUTGOING', t.from_account, t.to_account
+                FROM transactions t JOIN accounts a ON a.iban = t.from_account
+                WHERE t.transaction_id > 1000000
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void shouldUseIndexesForRepositoryQueries() {
+        // Given
+        PageRequest page = PageRequest.of(3, 10);
+        List<String> ibans = List.of(account.getIBAN());
+        LocalDateTime cursorTime = LocalDateTime.now().minusDays(3);
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "timestamp", "transactionId");
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByFromAccountOrToAccountOrderByTimestampDesc",
+                () -> transactionRepository.findByFromAccountOrToAccountOrderByTimestampDesc(account, account));
+        queries.put("findAllByOrderByTimestampDesc paged",
+                () -> transactionRepository.findAllByOrderByTimestampDesc(page));
+        queries.put("findByInitiatorOrderByTimestampDesc paged",
+                () -> transactionRepository.findByInitiatorOrderByTimestampDesc(employee, page));
+        queries.put("findByFromAccount_CustomerOrToAccount_Customer paged",
+                () -> transactionRepository.findByFromAccount_CustomerOrToAccount_CustomerOrderByTimestampDesc(
+                        customer, customer, page));
+        queries.put("findPendingTransactionIds", () -> transactionRepository.findPendingTransactionIds());
+        queries.put("pending transaction rows",
+                () -> transactionRepository.findRows(TransactionSpecifications.idIn(List.of(1_000_010L, 1_000_020L)),
+                        Sort.by("transactionId")));
+        queries.put("feed page",
+                () -> transactionFeedRepository.findAll(TransactionFeedSpecifications.forCustomer(customer.getUserId()),
+                        PageRequest.of(3, 10, Sort.by(Sort.Direction.DESC, "timestamp", "transactionId"))));
+        queries.put("feed page by direction",
+                () -> transactionFeedRepository.findAll(TransactionFeedSpecifications.forCustomer(customer.getUserId())
+                                .and(TransactionFeedSpecifications.hasDirection(TransactionDirection.OUTGOING)),
+                        PageRequest.of(3, 10, Sort.by(Sort.Direction.DESC, "timestamp", "transactionId"))));
+        queries.put("feed page after cursor",
+                () -> transactionFeedRepository.findBy(TransactionFeedSpecifications.forCustomer(customer.getUserId())
+                                .and(TransactionFeedSpecifications.olderThan(cursorTime, 1_010_000L)),
+                        query -> query.sortBy(Sort.by(Sort.Direction.DESC, "timestamp", "transactionId"))
+                                .limit(11).all()));
+        queries.put("customer transaction rows after cursor",
+                () -> transactionRepository.findRows(TransactionSpecifications.involvesAnyOf(ibans)
+                                .and(TransactionSpecifications.olderThan(cursorTime, 1_010_000L)), newestFirst, 0, 11));
+        queries.put("all transaction rows after cursor",
+                () -> transactionRepository.findRows(TransactionSpecifications.olderThan(cursorTime, 1_010_000L),
+                        newestFirst, 0, 11));
+        queries.put("all transaction rows page",
+                () -> transactionRepository.findRows(null, newestFirst, 30, 10));
+        queries.put("customer transaction rows page",
+                () -> transactionRepository.findRows(TransactionSpecifications.involvesAnyOf(ibans), newestFirst, 30, 10));
+        queries.put("findByCustomer", () -> accountRepository.findByCustomer(customer));
+        queries.put("findByCustomerUserIdAndAccountType",
+                () -> accountRepository.findByCustomerUserIdAndAccountType(customer.getUserId(), AccountType.CHECKING));
+        queries.put("findByCustomerAndAccountType",
+                () -> accountRepository.findByCustomerAndAccountType(customer, AccountType.CHECKING));
+        queries.put("findIbansByCustomerUserId", () -> accountRepository.findIbansByCustomerUserId(customer.getUserId()));
+        queries.put("findByDailyTransferDate", () -> accountRepository.findByDailyTransferDate(LocalDate.now()));
+        queries.put("findBalanceShardsByIban", () -> accountRepository.findBalanceShardsByIban(account.getIBAN()));
+        queries.put("findWithUsersByIban", () -> accountRepository.findWithUsersByIban(account.getIBAN()));
+        queries.put("findWithCustomerByIban", () -> accountRepository.findWithCustomerByIban(account.getIBAN()));
+        queries.put("findWithCustomersByIbanIn",
+                () -> accountRepository.findWithCustomersByIbanIn(List.of(account.getIBAN())));
+
+        // When
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            RecordingStatementInspector.STATEMENTS.clear();
+            query.run();
+            List<String> statements = List.copyOf(RecordingStatementInspector.STATEMENTS);
+            assertFalse(statements.isEmpty(), name + " ran no SQL");
+
+            for (String sql : statements) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                if (plan.contains(".tableScan") && !EXPECTED_SCANS.containsKey(name)) {
+                    failures.add(name + " scans a table:\n" + plan);
+                }
+            }
+        });
+
+        // Then
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private User createUser(String name, UserRole role) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setBsnNumber(name);
+        user.setPhoneNumber("+" + name);
+        user.setRole(role);
+        user.setStatus(UserStatus.APPROVED);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private Account createAccount(String iban, User owner) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        account.setAccountType(AccountType.CHECKING);
+        account.setOpeningBalance(BigDecimal.ZERO);
+        account.setAbsoluteTransferLimit(new BigDecimal("1000000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setCreatedBy(employee);
+        return account;
+    }
+
+    /**
+     * Collects the SQL Hibernate sends so the test can ask the database for its plan
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
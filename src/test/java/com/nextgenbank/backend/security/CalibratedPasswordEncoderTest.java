@@ -0,0 +1,46 @@
+package com.nextgenbank.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratedPasswordEncoderTest {
+
+    @Test
+    void shouldPickHighestStrengthWithinBudget() {
+        // Given: 20 ms per hash at strength 10, doubling with every step
+        IntToLongFunction hashNanos = strength -> 20_000_000L << (strength - 10);
+
+        // When & Then
+        assertEquals(12, CalibratedPasswordEncoder.calibrate(100, 10, 16, hashNanos));
+        assertEquals(10, CalibratedPasswordEncoder.calibrate(30, 10, 16, hashNanos));
+        assertEquals(10, CalibratedPasswordEncoder.calibrate(5, 10, 16, hashNanos));
+        assertEquals(14, CalibratedPasswordEncoder.calibrate(10_000, 10, 14, hashNanos));
+    }
+
+    @Test
+    void shouldAskToUpgradeOnlyWeakerHashes() {
+        // Given
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+        String current = encoder.encode("secret");
+
+        // When & Then
+        assertFalse(encoder.upgradeEncoding(current));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not a bcrypt hash"));
+    }
+
+    @Test
+    void shouldLeaveStrongerHashesAlone() {
+        // Given: a hash made on a host that calibrated a higher strength
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+        String stronger = new BCryptPasswordEncoder(6).encode("secret");
+
+        // When & Then
+        assertFalse(encoder.upgradeEncoding(stronger));
+        assertTrue(encoder.matches("secret", stronger));
+    }
+}
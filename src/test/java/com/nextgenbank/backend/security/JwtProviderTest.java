@@ -2,12 +2,21 @@ package com.nextgenbank.backend.security;
 
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.UserStatus;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 
 public class JwtProviderTest {
@@ -23,8 +32,12 @@ public class JwtProviderTest {
 
     private User createTestUser() {
         User user = new User();
+        user.setUserId(7L);
+        user.setFirstName("Alice");
+        user.setLastName("Smith");
         user.setEmail("alice@example.com");
         user.setRole(UserRole.CUSTOMER);
+        user.setStatus(UserStatus.APPROVED);
         return user;
     }
 
@@ -62,7 +75,7 @@ public class JwtProviderTest {
     }
 
     @Test
-    void token_shouldExpireIn24Hours() {
+    void token_shouldExpireIn15Minutes() {
         User user = createTestUser();
         String token = jwtProvider.generateToken(user);
 
@@ -71,6 +84,108 @@ public class JwtProviderTest {
         Date now = new Date();
         long diff = claims.getExpiration().getTime() - now.getTime();
 
-        assertTrue(diff <= 86400000 && diff > 86300000, "Token should expire in ~24h");
+        assertTrue(diff <= 900000 && diff > 890000, "Token should expire in ~15 minutes");
+    }
+
+    @Test
+    void toPrincipal_shouldRebuildUserFromAccessToken() {
+        User user = createTestUser();
+        String token = jwtProvider.generateToken(user);
+
+        Claims claims = jwtProvider.extractAllClaims(token);
+        UserPrincipal principal = jwtProvider.toPrincipal(claims);
+
+        assertTrue(jwtProvider.isAccessToken(claims));
+        assertEquals(7L, principal.getUser().getUserId());
+        assertEquals("alice@example.com", principal.getUsername());
+        assertEquals("Alice", principal.getUser().getFirstName());
+        assertEquals(UserRole.CUSTOMER, principal.getUser().getRole());
+        assertTrue(principal.isEnabled());
+    }
+
+    @Test
+    void generateRefreshToken_shouldOnlyIdentifyUser() {
+        String token = jwtProvider.generateRefreshToken(createTestUser());
+
+        Claims claims = jwtProvider.extractAllClaims(token);
+
+        assertTrue(jwtProvider.isRefreshToken(claims));
+        assertFalse(jwtProvider.isAccessToken(claims));
+        assertEquals(7L, jwtProvider.getUserId(claims));
+        assertNull(claims.get("role"));
+    }
+
+    @Test
+    void getIssuedAtMillis_shouldKeepMillisecondsOfIssueTime() {
+        Instant issued = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(400);
+        JwtProvider provider = new JwtProvider(secret, 100, 900_000, 604_800_000, Clock.fixed(issued, ZoneOffset.UTC));
+
+        Claims access = provider.extractAllClaims(provider.generateToken(createTestUser()));
+        Claims refresh = provider.extractAllClaims(provider.generateRefreshToken(createTestUser()));
+
+        assertEquals(issued.toEpochMilli(), provider.getIssuedAtMillis(access));
+        assertEquals(issued.toEpochMilli(), provider.getIssuedAtMillis(refresh));
+    }
+
+    @Test
+    void extractAllClaims_shouldReuseClaimsOfVerifiedToken() {
+        String token = jwtProvider.generateToken(createTestUser());
+
+        Claims first = jwtProvider.extractAllClaims(token);
+        Claims second = jwtProvider.extractAllClaims(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void extractAllClaims_shouldRejectTamperedTokenAfterOriginalWasVerified() {
+        String token = jwtProvider.generateToken(createTestUser());
+        jwtProvider.extractAllClaims(token);
+
+        String[] parts = token.split("\\.");
+        JwtProvider otherProvider = new JwtProvider("anothersecretkeyanothersecretkey12");
+        String otherSignature = otherProvider.generateToken(createTestUser()).split("\\.")[2];
+        String tampered = parts[0] + "." + parts[1] + "." + otherSignature;
+
+        assertThrows(JwtException.class, () -> jwtProvider.extractAllClaims(tampered));
+    }
+
+    @Test
+    void extractAllClaims_shouldRejectCachedTokenOnceExpired() {
+        MutableClock clock = new MutableClock(Instant.now());
+        JwtProvider provider = new JwtProvider(secret, 100, 86_400_000, 604_800_000, clock);
+        String token = provider.generateToken(createTestUser());
+        provider.extractAllClaims(token);
+
+        clock.advance(Duration.ofHours(25));
+
+        assertThrows(ExpiredJwtException.class, () -> provider.extractAllClaims(token));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
     }
 }
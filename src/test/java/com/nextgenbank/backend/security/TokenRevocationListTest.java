@@ -0,0 +1,75 @@
+package com.nextgenbank.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+
+    private final TokenRevocationList revocationList =
+            new TokenRevocationList(10, 60_000, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void shouldOnlyReportRevokedTokensWhenFilterIsOverfull() {
+        // Given: far more revocations than the filter was sized for, so it answers "maybe" a lot
+        Date expiresAt = Date.from(NOW.plusSeconds(900));
+        for (int i = 0; i < 1_000; i++) {
+            revocationList.revokeToken("revoked-" + i, expiresAt);
+        }
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(revocationList.isRevoked("revoked-" + i, 1L, NOW.toEpochMilli()));
+            assertFalse(revocationList.isRevoked("valid-" + i, 1L, NOW.toEpochMilli()));
+        }
+    }
+
+    @Test
+    void shouldRevokeTokensIssuedToUserUpToRevocation() {
+        // When
+        revocationList.revokeUser(7L);
+
+        // Then
+        assertTrue(revocationList.isRevoked("a", 7L, NOW.minusSeconds(60).toEpochMilli()));
+        assertFalse(revocationList.isRevoked("b", 7L, NOW.plusSeconds(1).toEpochMilli()));
+        assertFalse(revocationList.isRevoked("c", 8L, NOW.minusSeconds(60).toEpochMilli()));
+    }
+
+    @Test
+    void shouldRevokeTokenIssuedEarlierInSecondOfUserRevocation() {
+        // Given: the revocation happens 400 ms into a second
+        TokenRevocationList list = new TokenRevocationList(10, 60_000,
+                Clock.fixed(NOW.plusMillis(400), ZoneOffset.UTC));
+
+        // When
+        list.revokeUser(7L);
+
+        // Then
+        assertTrue(list.isRevoked("earlier", 7L, NOW.plusMillis(100).toEpochMilli()));
+        assertTrue(list.isRevoked("same-instant", 7L, NOW.plusMillis(400).toEpochMilli()));
+        assertFalse(list.isRevoked("relogin", 7L, NOW.plusMillis(401).toEpochMilli()));
+    }
+
+    @Test
+    void shouldForgetExpiredEntriesOnPurge() {
+        // Given
+        revocationList.revokeToken("expired", Date.from(NOW.minusSeconds(1)));
+        revocationList.revokeToken("live", Date.from(NOW.plusSeconds(60)));
+
+        // When
+        revocationList.purge();
+
+        // Then
+        assertFalse(revocationList.isRevoked("expired", 1L, NOW.toEpochMilli()));
+        assertTrue(revocationList.isRevoked("live", 1L, NOW.toEpochMilli()));
+        assertTrue(revocationList.revokeToken("expired", Date.from(NOW.plusSeconds(60))));
+        assertFalse(revocationList.revokeToken("live", Date.from(NOW.plusSeconds(60))));
+    }
+}
@@ -4,20 +4,31 @@ import com.nextgenbank.backend.model.Account;
 import com.nextgenbank.backend.model.AccountType;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.AccountLookupDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class AccountServiceTest {
@@ -28,12 +39,20 @@ class AccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BalanceService balanceService;
+
+    private CustomerSearchIndex searchIndex;
+
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        accountService = new AccountService(accountRepository, userRepository);
+        searchIndex = new CustomerSearchIndex(userRepository, accountRepository);
+        accountService = new AccountService(accountRepository, userRepository, new AccountLockManager(16, 1000),
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), 3, 0, 0),
+                balanceService, searchIndex);
     }
 
     @Test
@@ -65,7 +84,7 @@ class AccountServiceTest {
         String iban = "NL01IBAN1";
         Account expectedAccount = createTestAccount(iban, createTestUser(1L, UserRole.CUSTOMER), AccountType.CHECKING);
         
-        when(accountRepository.findById(iban)).thenReturn(Optional.of(expectedAccount));
+        when(accountRepository.findWithUsersByIban(iban)).thenReturn(Optional.of(expectedAccount));
         
         // When
         Account result = accountService.getAccountByIban(iban);
@@ -157,6 +176,85 @@ class AccountServiceTest {
         verify(accountRepository, times(2)).save(any(Account.class));
     }
 
+    @Test
+    void shouldLookUpCustomersFoundInSearchIndexById() {
+        // Given
+        User customer = createTestUser(7L, UserRole.CUSTOMER);
+        Account account = createTestAccount("NL01IBAN7", customer, AccountType.CHECKING);
+        customer.getAccountsOwned().add(account);
+        searchIndex.addCustomer(customer);
+        searchIndex.addAccount(account);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findApprovedUsersByUserIdIn(Set.of(7L), pageable))
+                .thenReturn(new PageImpl<>(List.of(customer), pageable, 1));
+
+        // When
+        Page<AccountLookupDto> result = accountService.lookupAccounts("user7", "iban7", pageable);
+
+        // Then
+        assertEquals(List.of("NL01IBAN7"), result.getContent().get(0).getIbans());
+        verify(userRepository, never()).findApprovedUsersWithAccounts(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotQueryCustomersWhenSearchIndexHasNoMatch() {
+        // When
+        Page<AccountLookupDto> result = accountService.lookupAccounts("nobody", null, PageRequest.of(0, 10));
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldFallBackToLikeQueryForShortTerms() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findApprovedUsersWithAccounts("ab", null, pageable)).thenReturn(Page.empty(pageable));
+
+        // When
+        accountService.lookupAccounts("ab", null, pageable);
+
+        // Then
+        verify(userRepository).findApprovedUsersWithAccounts("ab", null, pageable);
+    }
+
+    @Test
+    void shouldLookUpSliceThroughSearchIndex() {
+        // Given
+        User customer = createTestUser(8L, UserRole.CUSTOMER);
+        Account account = createTestAccount("NL01IBAN8", customer, AccountType.CHECKING);
+        customer.getAccountsOwned().add(account);
+        searchIndex.addCustomer(customer);
+        searchIndex.addAccount(account);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findApprovedUserSliceByUserIdIn(Set.of(8L), pageable))
+                .thenReturn(new SliceImpl<>(List.of(customer), pageable, false));
+
+        // When
+        SliceDto<AccountLookupDto> result = accountService.lookupAccountsSlice("user8", null, pageable);
+
+        // Then
+        assertEquals(List.of("NL01IBAN8"), result.getContent().get(0).getIbans());
+        assertFalse(result.isHasNext());
+        assertNull(result.getEstimatedTotal());
+    }
+
+    @Test
+    void shouldFallBackToLikeSliceForShortTerms() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findApprovedUserSliceWithAccounts("ab", null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        // When
+        SliceDto<AccountLookupDto> result = accountService.lookupAccountsSlice("ab", null, pageable);
+
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        verify(userRepository, never()).findApprovedUsersWithAccounts(any(), any(), any());
+    }
+
     private User createTestUser(Long id, UserRole role) {
         User user = new User();
         user.setUserId(id);
@@ -172,7 +270,7 @@ class AccountServiceTest {
         account.setIBAN(iban);
         account.setCustomer(customer);
         account.setAccountType(type);
-        account.setBalance(new BigDecimal("1000.00"));
+        account.setOpeningBalance(new BigDecimal("1000.00"));
         account.setAbsoluteTransferLimit(new BigDecimal("5000.00"));
         account.setCreatedAt(LocalDateTime.now());
         return account;
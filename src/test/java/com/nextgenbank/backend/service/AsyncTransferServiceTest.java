@@ -0,0 +1,188 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.TransactionStatus;
+import com.nextgenbank.backend.model.dto.AsyncTransferStatusDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResultDto;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AsyncTransferServiceTest {
+
+    private TransactionService transactionService;
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = Mockito.mock(TransactionService.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (asyncTransferService != null) {
+            asyncTransferService.stop();
+        }
+    }
+
+    @Test
+    void shouldBookQueuedTransfersInOneBatch() throws Exception {
+        // Given
+        TransactionDto booked = new TransactionDto();
+        booked.setTransactionId(1L);
+        when(transactionService.transferFundsBatch(anyList())).thenReturn(new BatchTransferResponseDto(List.of(
+                BatchTransferResultDto.succeeded(0, booked),
+                BatchTransferResultDto.failed(1, "Insufficient funds"),
+                BatchTransferResultDto.succeeded(2, booked))));
+        asyncTransferService = newService(10, 200);
+
+        // When
+        String first = asyncTransferService.submit(1L, request("10.00"));
+        String second = asyncTransferService.submit(1L, request("20.00"));
+        String third = asyncTransferService.submit(1L, request("30.00"));
+        AsyncTransferStatusDto secondStatus = asyncTransferService.subscribe(second, 1L).get(5, TimeUnit.SECONDS);
+        AsyncTransferStatusDto thirdStatus = asyncTransferService.subscribe(third, 1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        verify(transactionService, times(1)).transferFundsBatch(argThat(batch -> batch.size() == 3));
+        assertEquals(AsyncTransferStatusDto.Status.FAILED, secondStatus.getStatus());
+        assertEquals("Insufficient funds", secondStatus.getError());
+        assertEquals(AsyncTransferStatusDto.Status.COMPLETED, asyncTransferService.getStatus(first, 1L).getStatus());
+        assertEquals(1L, thirdStatus.getTransaction().getTransactionId());
+    }
+
+    @Test
+    void shouldBookIndividuallyWhenGroupCommitFails() throws Exception {
+        // Given
+        when(transactionService.transferFundsBatch(anyList()))
+                .thenThrow(new IllegalStateException("Account is busy, please try again later"));
+        when(transactionService.transferFunds(any())).thenReturn(new TransactionDto());
+        asyncTransferService = newService(10, 0);
+
+        // When
+        String transferId = asyncTransferService.submit(1L, request("10.00"));
+        AsyncTransferStatusDto status = asyncTransferService.subscribe(transferId, 1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(AsyncTransferStatusDto.Status.COMPLETED, status.getStatus());
+        verify(transactionService).transferFunds(any());
+    }
+
+    @Test
+    void shouldReportTransferHeldForReviewAsPending() throws Exception {
+        // Given
+        TransactionDto held = new TransactionDto();
+        held.setStatus(TransactionStatus.PENDING);
+        when(transactionService.transferFundsBatch(anyList())).thenReturn(new BatchTransferResponseDto(List.of(
+                BatchTransferResultDto.succeeded(0, held))));
+        when(transactionService.transferFunds(any())).thenReturn(held);
+        asyncTransferService = newService(10, 0);
+
+        // When
+        String batched = asyncTransferService.submit(1L, request("10.00"));
+        AsyncTransferStatusDto batchedStatus = asyncTransferService.subscribe(batched, 1L).get(5, TimeUnit.SECONDS);
+        when(transactionService.transferFundsBatch(anyList())).thenThrow(new IllegalStateException("busy"));
+        String single = asyncTransferService.submit(1L, request("20.00"));
+        AsyncTransferStatusDto singleStatus = asyncTransferService.subscribe(single, 1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(AsyncTransferStatusDto.Status.PENDING, batchedStatus.getStatus());
+        assertEquals(AsyncTransferStatusDto.Status.PENDING, singleStatus.getStatus());
+        verify(transactionService).transferFunds(any());
+    }
+
+    @Test
+    void shouldRejectSubmissionWhenQueueIsFull() throws Exception {
+        // Given: the writer is stuck on the first batch
+        when(transactionService.transferFundsBatch(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return new BatchTransferResponseDto(List.of(BatchTransferResultDto.failed(0, "too slow")));
+        });
+        asyncTransferService = newService(1, 0);
+        asyncTransferService.submit(1L, request("10.00"));
+        Thread.sleep(200);
+        asyncTransferService.submit(1L, request("20.00"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> asyncTransferService.submit(1L, request("30.00")));
+    }
+
+    @Test
+    void shouldReturnNullForUnknownTransfer() {
+        // Given
+        asyncTransferService = newService(10, 0);
+
+        // When & Then
+        assertNull(asyncTransferService.getStatus("unknown", 1L));
+        assertNull(asyncTransferService.subscribe("unknown", 1L));
+    }
+
+    @Test
+    void shouldOnlyShowTransferToItsSubmitter() {
+        // Given
+        asyncTransferService = newService(10, 0);
+        String transferId = asyncTransferService.submit(1L, request("10.00"));
+
+        // When & Then
+        assertNotNull(asyncTransferService.getStatus(transferId, 1L));
+        assertNull(asyncTransferService.getStatus(transferId, 2L));
+        assertNull(asyncTransferService.subscribe(transferId, 2L));
+    }
+
+    @Test
+    void shouldFailQueuedTransfersWhenWriterDoesNotFinishBeforeShutdown() throws Exception {
+        // Given: the writer is stuck on the first batch, a second transfer waits behind it
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.transferFundsBatch(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new BatchTransferResponseDto(List.of(BatchTransferResultDto.failed(0, "too slow")));
+        });
+        asyncTransferService = newService(10, 0, 100);
+        asyncTransferService.submit(1L, request("10.00"));
+        Thread.sleep(200);
+        String queued = asyncTransferService.submit(1L, request("20.00"));
+
+        // When
+        asyncTransferService.stop();
+        release.countDown();
+
+        // Then
+        AsyncTransferStatusDto status = asyncTransferService.subscribe(queued, 1L).get(1, TimeUnit.SECONDS);
+        assertEquals(AsyncTransferStatusDto.Status.FAILED, status.getStatus());
+        assertThrows(IllegalStateException.class, () -> asyncTransferService.submit(1L, request("30.00")));
+    }
+
+    private AsyncTransferService newService(int capacity, long lingerMs) {
+        return newService(capacity, lingerMs, 5_000);
+    }
+
+    private AsyncTransferService newService(int capacity, long lingerMs, long shutdownTimeoutMs) {
+        AsyncTransferService service = new AsyncTransferService(transactionService, new SimpleMeterRegistry(),
+                capacity, 50, lingerMs, 100, shutdownTimeoutMs);
+        service.start();
+        return service;
+    }
+
+    private TransferRequestDto request(String amount) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber("NL01");
+        request.setToAccount("NL02");
+        request.setAmount(new BigDecimal(amount));
+        request.setInitiatorId(1L);
+        return request;
+    }
+}
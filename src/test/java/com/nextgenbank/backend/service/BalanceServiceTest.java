@@ -0,0 +1,270 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.BalanceSnapshot;
+import com.nextgenbank.backend.model.Posting;
+import com.nextgenbank.backend.model.Transaction;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.BalanceSnapshotRepository;
+import com.nextgenbank.backend.repository.PostingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BalanceServiceTest {
+
+    private PostingRepository postingRepository;
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    private AccountRepository accountRepository;
+    private BalanceService balanceService;
+
+    @BeforeEach
+    void setUp() {
+        postingRepository = Mockito.mock(PostingRepository.class);
+        balanceSnapshotRepository = Mockito.mock(BalanceSnapshotRepository.class);
+        accountRepository = Mockito.mock(AccountRepository.class);
+        balanceService = new BalanceService(postingRepository, balanceSnapshotRepository, accountRepository,
+                new AccountLockManager(16, 1000), TransactionOperations.withoutTransaction(),
+                new SimpleMeterRegistry(), 100, 10);
+    }
+
+    @Test
+    void shouldAddPostingsToOpeningBalanceWithoutSnapshot() {
+        // Given
+        Account account = account("NL01", "100.00");
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc("NL01", 0)).thenReturn(Optional.empty());
+        when(postingRepository.sumAfterSnapshot("NL01", 0, 0L)).thenReturn(new BigDecimal("-25.00"));
+
+        // When
+        BigDecimal balance = balanceService.getBalance(account);
+
+        // Then
+        assertEquals(0, new BigDecimal("75.00").compareTo(balance));
+    }
+
+    @Test
+    void shouldAddPostingsAfterLatestSnapshot() {
+        // Given
+        Account account = account("NL01", "100.00");
+        BalanceSnapshot snapshot = new BalanceSnapshot("NL01", new BigDecimal("500.00"), LocalDateTime.now());
+        snapshot.setSnapshotId(7L);
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc("NL01", 0)).thenReturn(Optional.of(snapshot));
+        when(postingRepository.sumAfterSnapshot("NL01", 0, 7L)).thenReturn(new BigDecimal("20.00"));
+
+        // When
+        BigDecimal balance = balanceService.getBalance(account);
+
+        // Then
+        assertEquals(0, new BigDecimal("520.00").compareTo(balance));
+    }
+
+    @Test
+    void shouldServeCachedBalanceUntilAccountIsPosted() {
+        // Given
+        Account source = account("NL01", "100.00");
+        Account destination = account("NL02", "0.00");
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(any(), anyInt())).thenReturn(Optional.empty());
+        when(postingRepository.sumAfterSnapshot("NL01", 0, 0L))
+                .thenReturn(BigDecimal.ZERO, new BigDecimal("-30.00"));
+
+        // When
+        BigDecimal first = balanceService.getBalance(source);
+        BigDecimal cached = balanceService.getBalance(source);
+        balanceService.post(transaction(source, destination, "30.00"));
+        BigDecimal afterPosting = balanceService.getBalance(source);
+
+        // Then
+        assertEquals(0, new BigDecimal("100.00").compareTo(first));
+        assertEquals(0, new BigDecimal("100.00").compareTo(cached));
+        assertEquals(0, new BigDecimal("70.00").compareTo(afterPosting));
+        verify(postingRepository, times(2)).sumAfterSnapshot("NL01", 0, 0L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteDebitAndCreditPosting() {
+        // Given
+        Transaction transaction = transaction(account("NL01", "100.00"), account("NL02", "0.00"), "30.00");
+        ArgumentCaptor<List<Posting>> postings = ArgumentCaptor.forClass(List.class);
+
+        // When
+        balanceService.post(transaction);
+
+        // Then
+        verify(postingRepository).saveAll(postings.capture());
+        assertEquals(2, postings.getValue().size());
+        assertEquals("NL01", postings.getValue().get(0).getAccountIban());
+        assertEquals(0, new BigDecimal("-30.00").compareTo(postings.getValue().get(0).getAmount()));
+        assertEquals("NL02", postings.getValue().get(1).getAccountIban());
+        assertEquals(0, new BigDecimal("30.00").compareTo(postings.getValue().get(1).getAmount()));
+        assertEquals(42L, postings.getValue().get(1).getTransactionId());
+    }
+
+    @Test
+    void shouldFoldOpenPostingsIntoNewSnapshot() {
+        // Given
+        when(postingRepository.findShardsWithUnsnapshottedPostings(10)).thenReturn(List.of(openShard("NL01", 0)));
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc("NL01", 0)).thenReturn(Optional.empty());
+        when(accountRepository.findById("NL01")).thenReturn(Optional.of(account("NL01", "100.00")));
+        when(balanceSnapshotRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            BalanceSnapshot snapshot = invocation.getArgument(0);
+            snapshot.setSnapshotId(3L);
+            return snapshot;
+        });
+        when(postingRepository.sumBySnapshotId(3L)).thenReturn(new BigDecimal("-40.00"));
+        when(balanceSnapshotRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        balanceService.takeSnapshots();
+
+        // Then
+        ArgumentCaptor<BalanceSnapshot> saved = ArgumentCaptor.forClass(BalanceSnapshot.class);
+        verify(postingRepository).assignToSnapshot("NL01", 0, 3L);
+        verify(balanceSnapshotRepository).save(saved.capture());
+        assertEquals(0, new BigDecimal("60.00").compareTo(saved.getValue().getBalance()));
+        verify(postingRepository, never()).sumAfterSnapshot(any(), anyInt(), anyLong());
+        verify(postingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldSumShardsOfShardedAccount() {
+        // Given
+        Account account = shardedAccount("NL01", "100.00", 3);
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(any(), anyInt()))
+                .thenReturn(Optional.empty());
+        when(postingRepository.sumAfterSnapshot("NL01", 0, 0L)).thenReturn(new BigDecimal("-10.00"));
+        when(postingRepository.sumAfterSnapshot("NL01", 1, 0L)).thenReturn(new BigDecimal("20.00"));
+        when(postingRepository.sumAfterSnapshot("NL01", 2, 0L)).thenReturn(new BigDecimal("5.00"));
+
+        // When
+        BigDecimal balance = balanceService.getBalance(account);
+
+        // Then: the opening balance only counts on shard 0
+        assertEquals(0, new BigDecimal("115.00").compareTo(balance));
+        assertEquals(0, new BigDecimal("20.00").compareTo(balanceService.getShardBalance(account, 1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSpreadDebitOfShardedAccountSoShardsEndUpEven() {
+        // Given: shards of 100.00, 50.00 and 0.00
+        Account source = shardedAccount("NL01", "100.00", 3);
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc(any(), anyInt()))
+                .thenReturn(Optional.empty());
+        when(postingRepository.sumAfterSnapshot(eq("NL01"), anyInt(), eq(0L))).thenReturn(BigDecimal.ZERO);
+        when(postingRepository.sumAfterSnapshot("NL01", 1, 0L)).thenReturn(new BigDecimal("50.00"));
+        ArgumentCaptor<List<Posting>> postings = ArgumentCaptor.forClass(List.class);
+
+        // When
+        balanceService.post(transaction(source, account("NL02", "0.00"), "30.00"));
+
+        // Then: 120.00 is left, 40.00 on every shard
+        verify(postingRepository).saveAll(postings.capture());
+        List<Posting> debits = postings.getValue().stream().filter(p -> p.getAccountIban().equals("NL01")).toList();
+        assertEquals(3, debits.size());
+        assertEquals(0, new BigDecimal("-60.00").compareTo(amountOnShard(debits, 0)));
+        assertEquals(0, new BigDecimal("-10.00").compareTo(amountOnShard(debits, 1)));
+        assertEquals(0, new BigDecimal("40.00").compareTo(amountOnShard(debits, 2)));
+        assertEquals(0, new BigDecimal("-30.00").compareTo(
+                debits.stream().map(Posting::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldTakeSingleShardDebitFromThatShardOnly() {
+        // Given
+        Transaction transaction = transaction(shardedAccount("NL01", "100.00", 4), account("NL02", "0.00"), "30.00");
+        ArgumentCaptor<List<Posting>> postings = ArgumentCaptor.forClass(List.class);
+
+        // When
+        balanceService.post(transaction, 2);
+
+        // Then
+        verify(postingRepository).saveAll(postings.capture());
+        assertEquals(2, postings.getValue().get(0).getShard());
+        assertEquals(0, new BigDecimal("-30.00").compareTo(postings.getValue().get(0).getAmount()));
+        verify(postingRepository, never()).sumAfterSnapshot(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSpreadBalanceOverNewShards() {
+        // Given
+        Account account = account("NL01", "100.01");
+        when(balanceSnapshotRepository.findFirstByAccountIbanAndShardOrderBySnapshotIdDesc("NL01", 0))
+                .thenReturn(Optional.empty());
+        when(postingRepository.sumAfterSnapshot("NL01", 0, 0L)).thenReturn(BigDecimal.ZERO);
+        ArgumentCaptor<List<Posting>> postings = ArgumentCaptor.forClass(List.class);
+
+        // When
+        balanceService.reshard(account, 4);
+
+        // Then: 25.00 moves to each new shard, the odd cent stays on shard 0
+        verify(postingRepository).saveAll(postings.capture());
+        assertEquals(4, postings.getValue().size());
+        assertEquals(0, new BigDecimal("-75.00").compareTo(amountOnShard(postings.getValue(), 0)));
+        for (int shard = 1; shard < 4; shard++) {
+            assertEquals(0, new BigDecimal("25.00").compareTo(amountOnShard(postings.getValue(), shard)));
+        }
+        assertTrue(postings.getValue().stream().allMatch(posting -> posting.getTransactionId() == null));
+    }
+
+    private BigDecimal amountOnShard(List<Posting> postings, int shard) {
+        return postings.stream().filter(posting -> posting.getShard() == shard)
+                .map(Posting::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private PostingRepository.OpenShard openShard(String iban, int shard) {
+        return new PostingRepository.OpenShard() {
+            @Override
+            public String getAccountIban() {
+                return iban;
+            }
+
+            @Override
+            public int getShard() {
+                return shard;
+            }
+        };
+    }
+
+    private Account shardedAccount(String iban, String openingBalance, int shards) {
+        Account account = account(iban, openingBalance);
+        account.setBalanceShards(shards);
+        return account;
+    }
+
+    private Account account(String iban, String openingBalance) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setOpeningBalance(new BigDecimal(openingBalance));
+        return account;
+    }
+
+    private Transaction transaction(Account from, Account to, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(42L);
+        transaction.setFromAccount(from);
+        transaction.setToAccount(to);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(LocalDateTime.now());
+        return transaction;
+    }
+}
@@ -0,0 +1,165 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class CustomerSearchIndexTest {
+
+    private UserRepository userRepository;
+    private AccountRepository accountRepository;
+    private CustomerSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        accountRepository = Mockito.mock(AccountRepository.class);
+        searchIndex = new CustomerSearchIndex(userRepository, accountRepository);
+    }
+
+    @Test
+    void shouldFindCustomersByPartOfTheirName() {
+        // Given
+        searchIndex.addCustomer(customer(1L, "Alice", "Smith"));
+        searchIndex.addCustomer(customer(2L, "Malice", "Jones"));
+        searchIndex.addCustomer(customer(3L, "Bob", "Smithers"));
+
+        // When / Then
+        assertEquals(Optional.of(Set.of(1L, 2L)), searchIndex.customersNamed("ALIC"));
+        assertEquals(Optional.of(Set.of(1L, 3L)), searchIndex.customersNamed("smith"));
+        assertEquals(Optional.of(Set.of()), searchIndex.customersNamed("carol"));
+    }
+
+    @Test
+    void shouldNotMatchAcrossFirstAndLastName() {
+        // Given
+        searchIndex.addCustomer(customer(1L, "Alice", "Smith"));
+
+        // When / Then
+        assertEquals(Optional.of(Set.of()), searchIndex.customersNamed("cesm"));
+    }
+
+    @Test
+    void shouldNotNarrowDownTermsShorterThanATrigram() {
+        // Given
+        searchIndex.addCustomer(customer(1L, "Alice", "Smith"));
+
+        // When / Then
+        assertTrue(searchIndex.customersNamed("al").isEmpty());
+    }
+
+    @Test
+    void shouldNotNarrowDownTermsMatchingTooManyCustomers() {
+        // Given
+        for (long id = 0; id <= CustomerSearchIndex.MAX_CANDIDATES; id++) {
+            searchIndex.addCustomer(customer(id, "Customer", "Number" + id));
+        }
+
+        // When / Then
+        assertTrue(searchIndex.customersNamed("customer").isEmpty());
+        assertEquals(Optional.of(Set.of(999L)), searchIndex.customersNamed("number999"));
+    }
+
+    @Test
+    void shouldFindIbansAndTheirOwners() {
+        // Given
+        User alice = customer(1L, "Alice", "Smith");
+        searchIndex.addAccount(account("NL01INHO0000000001", alice));
+        searchIndex.addAccount(account("NL01INHO0000000002", alice));
+        searchIndex.addAccount(account("NL02INHO0000000003", customer(2L, "Bob", "Jones")));
+
+        // When / Then
+        assertEquals(Optional.of(Set.of("NL01INHO0000000001", "NL01INHO0000000002")),
+                searchIndex.ibansContaining("nl01"));
+        assertEquals(Optional.of(Set.of(1L, 2L)), searchIndex.customersWithIbanContaining("inho"));
+    }
+
+    @Test
+    void shouldReplaceChangedNames() {
+        // Given
+        searchIndex.addCustomer(customer(1L, "Alice", "Smith"));
+
+        // When
+        searchIndex.addCustomer(customer(1L, "Alice", "Brown"));
+
+        // Then
+        assertEquals(Optional.of(Set.of()), searchIndex.customersNamed("smith"));
+        assertEquals(Optional.of(Set.of(1L)), searchIndex.customersNamed("brown"));
+    }
+
+    @Test
+    void shouldLoadCustomersAndAccountsOnRebuild() {
+        // Given
+        when(userRepository.findNamesByRole(UserRole.CUSTOMER))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Alice", "Smith"}));
+        when(accountRepository.findIbanOwners())
+                .thenReturn(List.<Object[]>of(new Object[]{"NL01INHO0000000001", 1L}));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertEquals(Optional.of(Set.of(1L)), searchIndex.customersNamed("alice"));
+        assertEquals(Optional.of(Set.of(1L)), searchIndex.customersWithIbanContaining("0001"));
+    }
+
+    @Test
+    void shouldOnlyIndexEntriesOfCommittedTransactions() {
+        // Given
+        User committed = customer(1L, "Alice", "Smith");
+        User rolledBack = customer(2L, "Alison", "Jones");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.addCustomer(committed);
+            searchIndex.addAccount(account("NL01INHO0000000001", committed));
+            assertEquals(Optional.of(Set.of()), searchIndex.customersNamed("alic"));
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.addCustomer(rolledBack);
+            searchIndex.addAccount(account("NL02INHO0000000002", rolledBack));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertEquals(Optional.of(Set.of(1L)), searchIndex.customersNamed("ali"));
+        assertEquals(Optional.of(Set.of(1L)), searchIndex.customersWithIbanContaining("inho"));
+    }
+
+    private User customer(Long id, String firstName, String lastName) {
+        User user = new User();
+        user.setUserId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+
+    private Account account(String iban, User owner) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        return account;
+    }
+}
@@ -0,0 +1,201 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.Account;
+import com.nextgenbank.backend.model.AccountShard;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.AccountShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DailyLimitTrackerTest {
+
+    private static final BigDecimal LIMIT = new BigDecimal("100.00");
+
+    private AccountRepository accountRepository;
+    private AccountShardRepository accountShardRepository;
+    private MutableClock clock;
+    private DailyLimitTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = Mockito.mock(AccountRepository.class);
+        accountShardRepository = Mockito.mock(AccountShardRepository.class);
+        clock = new MutableClock(Instant.parse("2026-03-10T23:59:00Z"));
+        tracker = new DailyLimitTracker(accountRepository, accountShardRepository, clock);
+    }
+
+    @Test
+    void shouldRejectTransferAboveRemainingDailyLimit() {
+        // Given
+        Account account = account("NL01");
+        tracker.reserve(account, new BigDecimal("80.00"), LIMIT);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> tracker.reserve(account, new BigDecimal("30.00"), LIMIT));
+        assertEquals("Transfer would exceed daily limit. Maximum transfer allowed today: 20.00", exception.getMessage());
+        assertEquals(new BigDecimal("80.00"), account.getDailyTransferAmount());
+    }
+
+    @Test
+    void shouldStartFromZeroAfterMidnight() {
+        // Given
+        Account account = account("NL01");
+        tracker.reserve(account, LIMIT, LIMIT);
+        assertThrows(IllegalArgumentException.class, () -> tracker.reserve(account, BigDecimal.ONE, LIMIT));
+
+        // When
+        clock.set(Instant.parse("2026-03-11T00:01:00Z"));
+        BigDecimal total = tracker.reserve(account, new BigDecimal("40.00"), LIMIT);
+
+        // Then
+        assertEquals(new BigDecimal("40.00"), total);
+        assertEquals(LocalDate.of(2026, 3, 11), account.getDailyTransferDate());
+    }
+
+    @Test
+    void shouldSeedCounterFromTotalPersistedToday() {
+        // Given: an earlier instance already recorded 90.00 today
+        Account account = account("NL01");
+        account.setDailyTransferAmount(new BigDecimal("90.00"));
+        account.setDailyTransferDate(LocalDate.of(2026, 3, 10));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> tracker.reserve(account, new BigDecimal("20.00"), LIMIT));
+    }
+
+    @Test
+    void shouldIgnoreTotalPersistedOnEarlierDay() {
+        // Given
+        Account account = account("NL01");
+        account.setDailyTransferAmount(new BigDecimal("90.00"));
+        account.setDailyTransferDate(LocalDate.of(2026, 3, 9));
+
+        // When
+        BigDecimal total = tracker.reserve(account, new BigDecimal("20.00"), LIMIT);
+
+        // Then
+        assertEquals(new BigDecimal("20.00"), total);
+    }
+
+    @Test
+    void shouldRebuildCountersFromAccountsStampedToday() {
+        // Given
+        Account stored = account("NL01");
+        stored.setDailyTransferAmount(new BigDecimal("95.00"));
+        stored.setDailyTransferDate(LocalDate.of(2026, 3, 10));
+        when(accountRepository.findByDailyTransferDate(LocalDate.of(2026, 3, 10))).thenReturn(List.of(stored));
+
+        // When
+        tracker.rebuild();
+
+        // Then: a stale copy of the account does not reset the counter
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> tracker.reserve(account("NL01"), new BigDecimal("10.00"), LIMIT));
+        assertTrue(exception.getMessage().contains("5.00"));
+    }
+
+    @Test
+    void shouldReleaseReservationWhenTransactionRollsBack() {
+        // Given
+        Account account = account("NL01");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.reserve(account, new BigDecimal("70.00"), LIMIT);
+
+            // When
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertEquals(new BigDecimal("100.00"), tracker.reserve(account("NL01"), new BigDecimal("100.00"), LIMIT));
+    }
+
+    @Test
+    void shouldRecordShardDebitsOnShardRowsOnly() {
+        // Given
+        Account account = account("NL01");
+        AccountShard first = new AccountShard("NL01", 0);
+        AccountShard second = new AccountShard("NL01", 1);
+        when(accountShardRepository.sumDailyTransferAmount(eq("NL01"), any())).thenReturn(BigDecimal.ZERO);
+        tracker.reserve(account, first, new BigDecimal("30.00"), LIMIT);
+        tracker.reserve(account, second, new BigDecimal("50.00"), LIMIT);
+
+        // When & Then: the shards share one daily total
+        assertThrows(IllegalArgumentException.class,
+                () -> tracker.reserve(account, first, new BigDecimal("30.00"), LIMIT));
+        assertEquals(new BigDecimal("30.00"), first.getDailyTransferAmount());
+        assertEquals(new BigDecimal("50.00"), second.getDailyTransferAmount());
+        assertNull(account.getDailyTransferAmount());
+    }
+
+    @Test
+    void shouldSeedShardedCounterFromAccountAndShardRows() {
+        // Given: 30.00 was recorded on the account before it was sharded, 60.00 on its shards since
+        Account account = account("NL01");
+        account.setDailyTransferAmount(new BigDecimal("30.00"));
+        account.setDailyTransferDate(LocalDate.of(2026, 3, 10));
+        when(accountShardRepository.sumDailyTransferAmount("NL01", LocalDate.of(2026, 3, 10)))
+                .thenReturn(new BigDecimal("60.00"));
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> tracker.reserve(account, new AccountShard("NL01", 2), new BigDecimal("20.00"), LIMIT));
+
+        // Then
+        assertTrue(exception.getMessage().contains("10.00"));
+    }
+
+    private Account account(String iban) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        return account;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.nextgenbank.backend.service;
 import com.nextgenbank.backend.model.User;
 import com.nextgenbank.backend.model.UserRole;
 import com.nextgenbank.backend.model.UserStatus;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.UserDto;
+import com.nextgenbank.backend.repository.TransactionRepository;
 import com.nextgenbank.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,12 +15,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 public class EmployeeServiceTest {
@@ -26,12 +30,18 @@ public class EmployeeServiceTest {
     private UserRepository userRepository;
     private EmployeeService employeeService;
     private AccountService accountService;
+    private ListingTotals listingTotals;
+    private TokenService tokenService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
         accountService = mock(AccountService.class);
-        employeeService = new EmployeeService(userRepository, accountService);
+        // Not refreshed yet, so the slices carry no total
+        listingTotals = new ListingTotals(mock(TransactionRepository.class), userRepository);
+        tokenService = mock(TokenService.class);
+        employeeService = new EmployeeService(userRepository, accountService, mock(CustomerSearchIndex.class),
+                listingTotals, tokenService);
     }
 
     @Test
@@ -63,6 +73,22 @@ public class EmployeeServiceTest {
         assertEquals("Jane", result.getContent().get(1).getFirstName());
     }
 
+    @Test
+    void shouldReturnCustomerSliceWithoutCounting() {
+        User customer1 = createCustomer(1L, "John", "Doe", UserStatus.APPROVED);
+        Pageable pageable = PageRequest.of(3, 1);
+        when(userRepository.findSliceByRole(UserRole.CUSTOMER, pageable))
+                .thenReturn(new SliceImpl<>(List.of(customer1), pageable, false));
+
+        SliceDto<UserDto> result = employeeService.getAllCustomersSlice(pageable);
+
+        assertEquals("John", result.getContent().get(0).getFirstName());
+        assertEquals(3, result.getPage());
+        assertFalse(result.isHasNext());
+        assertNull(result.getEstimatedTotal());
+        verify(userRepository, never()).findByRole(any(UserRole.class), any(Pageable.class));
+    }
+
     @Test
     void shouldReturnCustomersByStatusPaginated() {
         User customer1 = createCustomer(1L, "John", "Doe", UserStatus.APPROVED);
@@ -157,6 +183,8 @@ public class EmployeeServiceTest {
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
         assertEquals(UserStatus.REJECTED, userCaptor.getValue().getStatus());
+        // The rejected customer's tokens must stop working
+        verify(tokenService).revokeUser(1L);
     }
 
 
@@ -0,0 +1,185 @@
+package com.nextgenbank.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextgenbank.backend.model.IdempotencyRecord;
+import com.nextgenbank.backend.model.dto.SwitchFundsRequestDto;
+import com.nextgenbank.backend.model.dto.SwitchFundsResponseDto;
+import com.nextgenbank.backend.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRecordRepository repository;
+    private Map<String, IdempotencyRecord> table;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        table = new HashMap<>();
+        repository = Mockito.mock(IdempotencyRecordRepository.class);
+        when(repository.findById(anyString())).thenAnswer(i -> Optional.ofNullable(table.get(i.<String>getArgument(0))));
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(i -> {
+            IdempotencyRecord record = i.getArgument(0);
+            table.put(record.getIdempotencyKey(), record);
+            return record;
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutRunningOperationAgain() {
+        // Given
+        IdempotencyService service = newService();
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+
+        // When
+        SwitchFundsResponseDto first = switchFunds(service, "key-1", request);
+        SwitchFundsResponseDto replay = switchFunds(service, "key-1", request);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(first.getCheckingBalance(), replay.getCheckingBalance());
+        assertEquals(first.getSavingsBalance(), replay.getSavingsBalance());
+        verify(repository, times(1)).saveAndFlush(any());
+        assertEquals(1.0, meterRegistry.counter("bank.idempotency.replays", "operation", "switch",
+                "source", "cache").count());
+    }
+
+    @Test
+    void shouldReplayFromDatabaseWhenKeyIsNotInMemory() {
+        // Given
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+        switchFunds(newService(), "key-1", request);
+
+        // When: a fresh instance, e.g. after a restart
+        SwitchFundsResponseDto replay = switchFunds(newService(), "key-1", request);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(new BigDecimal("75.00"), replay.getCheckingBalance());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        // Given
+        IdempotencyService service = newService();
+        switchFunds(service, "key-1", new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00")));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> switchFunds(service, "key-1", new SwitchFundsRequestDto("CHECKING", new BigDecimal("99.00"))));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldRunOperationEveryTimeWithoutKey() {
+        // Given
+        IdempotencyService service = newService();
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+
+        // When
+        switchFunds(service, null, request);
+        switchFunds(service, null, request);
+
+        // Then
+        assertEquals(2, executions.get());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldReturnWinnerResponseWhenConcurrentDuplicateLosesInsert() {
+        // Given: another request with the same key committed while ours was running
+        IdempotencyService service = newService();
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(i -> {
+            IdempotencyRecord record = i.getArgument(0);
+            table.put(record.getIdempotencyKey(), new IdempotencyRecord(record.getIdempotencyKey(),
+                    record.getRequestHash(), "{\"checkingBalance\":1.00,\"savingsBalance\":2.00}"));
+            throw new DataIntegrityViolationException("duplicate key");
+        });
+
+        // When
+        SwitchFundsResponseDto response = switchFunds(service, "key-1", request);
+
+        // Then
+        assertEquals(new BigDecimal("1.00"), response.getCheckingBalance());
+    }
+
+    @Test
+    void shouldRunOperationAgainOnceKeyIsPurged() {
+        // Given: a key stored just now, and a service whose clock is past the retention of one day
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+        LocalDateTime later = LocalDateTime.now().plusDays(1).plusMinutes(1);
+        IdempotencyService service = newService(Clock.fixed(later.atZone(ZoneId.systemDefault()).toInstant(),
+                ZoneId.systemDefault()));
+        switchFunds(service, "key-1", request);
+        when(repository.deleteCreatedBefore(any())).thenAnswer(i -> {
+            LocalDateTime cutoff = i.getArgument(0);
+            int before = table.size();
+            table.values().removeIf(record -> record.getCreatedAt().isBefore(cutoff));
+            return before - table.size();
+        });
+
+        // When
+        service.purge();
+        switchFunds(service, "key-1", request);
+
+        // Then
+        verify(repository).deleteCreatedBefore(later.minusDays(1));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldKeepKeysWithinRetention() {
+        // Given
+        SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("25.00"));
+        IdempotencyService service = newService();
+        switchFunds(service, "key-1", request);
+
+        // When
+        service.purge();
+        switchFunds(service, "key-1", request);
+
+        // Then
+        assertEquals(1, executions.get());
+    }
+
+    private SwitchFundsResponseDto switchFunds(IdempotencyService service, String key, SwitchFundsRequestDto request) {
+        return service.execute("switch", "alice@example.com", key, request, SwitchFundsResponseDto.class, () -> {
+            executions.incrementAndGet();
+            return new SwitchFundsResponseDto(new BigDecimal("100.00").subtract(request.getAmount()),
+                    new BigDecimal("100.00").add(request.getAmount()));
+        });
+    }
+
+    private IdempotencyService newService() {
+        return newService(Clock.systemDefaultZone());
+    }
+
+    private IdempotencyService newService(Clock clock) {
+        return new IdempotencyService(repository,
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), meterRegistry, 3, 0, 0),
+                new ObjectMapper(), meterRegistry, 100, 86_400_000, clock);
+    }
+}
@@ -0,0 +1,46 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ListingTotalsTest {
+
+    private TransactionRepository transactionRepository;
+    private UserRepository userRepository;
+    private ListingTotals listingTotals;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        userRepository = mock(UserRepository.class);
+        listingTotals = new ListingTotals(transactionRepository, userRepository);
+    }
+
+    @Test
+    void shouldHaveNoTotalsBeforeFirstRefresh() {
+        assertNull(listingTotals.transactions());
+        assertNull(listingTotals.customers());
+    }
+
+    @Test
+    void shouldKeepPreviousTotalsWhenRefreshFails() {
+        // Given
+        when(transactionRepository.count()).thenReturn(500L);
+        when(userRepository.countByRole(UserRole.CUSTOMER)).thenReturn(40L);
+        listingTotals.refresh();
+        when(transactionRepository.count()).thenThrow(new IllegalStateException("database unavailable"));
+
+        // When
+        listingTotals.refresh();
+
+        // Then
+        assertEquals(500L, listingTotals.transactions());
+        assertEquals(40L, listingTotals.customers());
+    }
+}
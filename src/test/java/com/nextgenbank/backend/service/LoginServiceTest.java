@@ -0,0 +1,136 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.exception.LoginRejectedException;
+import com.nextgenbank.backend.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginServiceTest {
+
+    private UserService userService;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong nanoTime;
+    private LoginService loginService;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        nanoTime = new AtomicLong(1_000_000_000L);
+        // One password check at a time, one waiting; 3 attempts per email, 5 per address, each refilled once a minute
+        loginService = new LoginService(userService, meterRegistry, 1, 1, 2_000, 3, 1, 5, 1, nanoTime::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginService.stop();
+    }
+
+    @Test
+    void shouldCheckPasswordOnLoginThread() {
+        // Given
+        User user = new User();
+        when(userService.authenticate("alice@example.com", "alice123")).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("login-"));
+            return user;
+        });
+
+        // When
+        User result = loginService.authenticate("alice@example.com", "alice123", "192.0.2.1");
+
+        // Then
+        assertSame(user, result);
+    }
+
+    @Test
+    void shouldPassOnWrongPassword() {
+        // Given
+        when(userService.authenticate("alice@example.com", "wrong"))
+                .thenThrow(new BadCredentialsException("Invalid credentials"));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class,
+                () -> loginService.authenticate("alice@example.com", "wrong", "192.0.2.1"));
+    }
+
+    @Test
+    void shouldThrottleAttemptsPerEmailUntilRefilled() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginService.authenticate("Alice@example.com", "guess" + i, "192.0.2." + i);
+        }
+
+        // When
+        LoginRejectedException rejected = assertThrows(LoginRejectedException.class,
+                () -> loginService.authenticate("alice@example.com", "guess", "192.0.2.9"));
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+        assertEquals(60, rejected.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.counter("bank.login.rejected", "reason", "email-throttled").count());
+
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        loginService.authenticate("alice@example.com", "guess", "192.0.2.9");
+        verify(userService, times(4)).authenticate(anyString(), anyString());
+    }
+
+    @Test
+    void shouldThrottleAttemptsPerAddressAcrossEmails() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            loginService.authenticate("user" + i + "@example.com", "password", "198.51.100.7");
+        }
+
+        // When
+        LoginRejectedException rejected = assertThrows(LoginRejectedException.class,
+                () -> loginService.authenticate("user9@example.com", "password", "198.51.100.7"));
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+        verify(userService, never()).authenticate(eq("user9@example.com"), anyString());
+        loginService.authenticate("user9@example.com", "password", "198.51.100.8");
+    }
+
+    @Test
+    void shouldShedAttemptsWhenQueueIsFull() throws Exception {
+        // Given: one check in progress and one waiting
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.authenticate(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new User();
+        });
+        CompletableFuture<User> running = CompletableFuture.supplyAsync(
+                () -> loginService.authenticate("a@example.com", "password", "192.0.2.1"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<User> waiting = CompletableFuture.supplyAsync(
+                () -> loginService.authenticate("b@example.com", "password", "192.0.2.2"));
+        while (meterRegistry.get("bank.login.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        LoginRejectedException rejected = assertThrows(LoginRejectedException.class,
+                () -> loginService.authenticate("c@example.com", "password", "192.0.2.3"));
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertEquals(1, meterRegistry.counter("bank.login.rejected", "reason", "queue-full").count());
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+    }
+}
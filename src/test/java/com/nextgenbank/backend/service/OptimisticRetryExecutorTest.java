@@ -0,0 +1,81 @@
+package com.nextgenbank.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new OptimisticRetryExecutor(
+                TransactionOperations.withoutTransaction(), meterRegistry, 3, 1, 5);
+    }
+
+    @Test
+    void shouldRetryUntilActionSucceeds() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = retryExecutor.execute("transfer", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", "NL01");
+            }
+            return "done";
+        });
+
+        // Then
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, count("bank.optimistic.attempts"));
+        assertEquals(2.0, count("bank.optimistic.conflicts"));
+        assertEquals(2.0, count("bank.optimistic.retries"));
+        assertEquals(0.0, count("bank.optimistic.exhausted"));
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Account", "NL01");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, count("bank.optimistic.exhausted"));
+    }
+
+    @Test
+    void shouldNotRetryOtherExceptions() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> retryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient funds");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, count("bank.optimistic.conflicts"));
+    }
+
+    private double count(String name) {
+        var counter = meterRegistry.find(name).tag("operation", "transfer").counter();
+        return counter != null ? counter.count() : 0.0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PendingTransactionQueueTest {
+
+    private TransactionRepository transactionRepository;
+    private PendingTransactionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        queue = new PendingTransactionQueue(transactionRepository, new BigDecimal("10000"));
+    }
+
+    @Test
+    void shouldLoadPendingIdsOldestFirst() {
+        // Given
+        when(transactionRepository.findPendingTransactionIds()).thenReturn(List.of(30L, 10L, 20L));
+
+        // When
+        queue.rebuild();
+
+        // Then
+        assertEquals(3, queue.size());
+        assertEquals(List.of(20L, 30L), queue.page(1, 5));
+    }
+
+    @Test
+    void shouldOnlyHoldCustomerTransfersFromThreshold() {
+        // Given
+        User customer = user(UserRole.CUSTOMER);
+        User employee = user(UserRole.EMPLOYEE);
+
+        // Then
+        assertTrue(queue.requiresReview(customer, new BigDecimal("10000.00")));
+        assertFalse(queue.requiresReview(customer, new BigDecimal("9999.99")));
+        assertFalse(queue.requiresReview(employee, new BigDecimal("50000.00")));
+        assertFalse(new PendingTransactionQueue(transactionRepository, null)
+                .requiresReview(customer, new BigDecimal("50000.00")));
+    }
+
+    private User user(UserRole role) {
+        User user = new User();
+        user.setRole(role);
+        return user;
+    }
+}
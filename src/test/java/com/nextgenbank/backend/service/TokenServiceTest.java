@@ -0,0 +1,123 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.User;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.UserStatus;
+import com.nextgenbank.backend.model.dto.LoginResponseDto;
+import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.security.JwtProvider;
+import com.nextgenbank.backend.security.TokenRevocationList;
+import com.nextgenbank.backend.security.UserPrincipal;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTest {
+
+    private UserRepository userRepository;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        tokenService = new TokenService(new JwtProvider("mysecretkeymysecretkey1234567890"),
+                new TokenRevocationList(1_000, 604_800_000), userRepository);
+    }
+
+    @Test
+    void shouldAuthenticateAccessTokenWithoutLoadingUser() {
+        // Given
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.APPROVED));
+
+        // When
+        UserPrincipal principal = tokenService.authenticate(tokens.getToken());
+
+        // Then
+        assertEquals(5L, principal.getUser().getUserId());
+        assertEquals("carol@example.com", principal.getUsername());
+        assertEquals("ROLE_CUSTOMER", principal.getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldNotAcceptRefreshTokenAsAccessToken() {
+        // Given
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.APPROVED));
+
+        // When & Then
+        assertThrows(JwtException.class, () -> tokenService.authenticate(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void shouldRejectTokensAfterLogout() {
+        // Given
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.APPROVED));
+
+        // When
+        tokenService.logout(tokens.getToken(), tokens.getRefreshToken());
+
+        // Then
+        assertThrows(JwtException.class, () -> tokenService.authenticate(tokens.getToken()));
+        assertThrows(BadCredentialsException.class, () -> tokenService.refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void shouldRefreshWithCurrentUserDetailsOnlyOnce() {
+        // Given
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.PENDING));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(customer(UserStatus.APPROVED)));
+
+        // When
+        LoginResponseDto refreshed = tokenService.refresh(tokens.getRefreshToken());
+
+        // Then
+        assertTrue(tokenService.authenticate(refreshed.getToken()).isEnabled());
+        assertThrows(BadCredentialsException.class, () -> tokenService.refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void shouldRejectEveryTokenOfRevokedUser() {
+        // Given: tokens issued (almost always) in the same second as the revocation
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.PENDING));
+        LoginResponseDto otherCustomer = tokenService.issueTokens(customer(6L, UserStatus.APPROVED));
+
+        // When
+        tokenService.revokeUser(5L);
+
+        // Then
+        assertThrows(JwtException.class, () -> tokenService.authenticate(tokens.getToken()));
+        assertThrows(BadCredentialsException.class, () -> tokenService.refresh(tokens.getRefreshToken()));
+        assertEquals(6L, tokenService.authenticate(otherCustomer.getToken()).getUser().getUserId());
+    }
+
+    @Test
+    void shouldNotRefreshTokensOfRejectedCustomer() {
+        // Given: a refresh token the revocation list does not know about, e.g. after a restart
+        LoginResponseDto tokens = tokenService.issueTokens(customer(UserStatus.APPROVED));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(customer(UserStatus.REJECTED)));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class, () -> tokenService.refresh(tokens.getRefreshToken()));
+    }
+
+    private User customer(UserStatus status) {
+        return customer(5L, status);
+    }
+
+    private User customer(Long id, UserStatus status) {
+        User user = new User();
+        user.setUserId(id);
+        user.setFirstName("Carol");
+        user.setLastName("Jansen");
+        user.setEmail(id == 5L ? "carol@example.com" : "customer" + id + "@example.com");
+        user.setRole(UserRole.CUSTOMER);
+        user.setStatus(status);
+        return user;
+    }
+}
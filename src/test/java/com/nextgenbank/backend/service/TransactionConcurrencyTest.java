@@ -0,0 +1,330 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransferRequestDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs hundreds of parallel balance mutations against a few hot accounts and
+ * checks that no money is created or lost along the way.
+ * Uses its own in-memory database so other Spring tests are not affected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency-test",
+        "spring.jpa.show-sql=false",
+        "bank.balance.snapshot-min-postings=1",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class TransactionConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 300;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private User employee;
+    private User customer;
+    private List<String> hotIbans;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        employee = userRepository.save(createUser("employee" + suffix, UserRole.EMPLOYEE));
+        customer = userRepository.save(createUser("customer" + suffix, UserRole.CUSTOMER));
+
+        hotIbans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String iban = "NL99HOT" + i + suffix.substring(suffix.length() - 10);
+            accountRepository.save(createAccount(iban, customer, i == 1 ? AccountType.SAVINGS : AccountType.CHECKING));
+            hotIbans.add(iban);
+        }
+    }
+
+    @Test
+    void shouldConserveMoneyUnderParallelTransfers() throws Exception {
+        // Given
+        Random random = new Random(42);
+        BigDecimal[] expectedDeltas = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextInt(3);
+            int to = (from + 1 + random.nextInt(2)) % 3;
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(50));
+
+            expectedDeltas[from] = expectedDeltas[from].subtract(amount);
+            expectedDeltas[to] = expectedDeltas[to].add(amount);
+
+            tasks.add(() -> {
+                transactionService.transferFunds(transferRequest(hotIbans.get(from), hotIbans.get(to), amount));
+                return null;
+            });
+        }
+
+        // When
+        runInParallel(tasks);
+
+        // Then
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 3; i++) {
+            BigDecimal balance = balanceOf(hotIbans.get(i));
+            assertEquals(0, INITIAL_BALANCE.add(expectedDeltas[i]).compareTo(balance),
+                    "Unexpected balance for " + hotIbans.get(i));
+            total = total.add(balance);
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(3)).compareTo(total));
+        assertEquals(TRANSFERS, countTransactionsFor(hotIbans));
+    }
+
+    @Test
+    void shouldNotLoseUpdatesWhenAtmAndTransfersHitTheSameAccount() throws Exception {
+        // Given
+        String hot = hotIbans.get(0);
+        String other = hotIbans.get(2);
+        AtomicInteger deposits = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            if (i % 3 == 0) {
+                tasks.add(() -> {
+                    transactionService.performAtmOperation(customer, hot, BigDecimal.TEN, TransactionType.DEPOSIT);
+                    deposits.incrementAndGet();
+                    return null;
+                });
+            } else if (i % 3 == 1) {
+                tasks.add(() -> {
+                    transactionService.transferFunds(transferRequest(hot, other, BigDecimal.ONE));
+                    return null;
+                });
+            } else {
+                tasks.add(() -> {
+                    transactionService.transferFunds(transferRequest(other, hot, BigDecimal.ONE));
+                    return null;
+                });
+            }
+        }
+
+        // When
+        runInParallel(tasks);
+
+        // Then
+        BigDecimal hotBalance = balanceOf(hot);
+        BigDecimal otherBalance = balanceOf(other);
+        BigDecimal deposited = BigDecimal.TEN.multiply(BigDecimal.valueOf(deposits.get()));
+
+        assertEquals(0, INITIAL_BALANCE.add(deposited).compareTo(hotBalance));
+        assertEquals(0, INITIAL_BALANCE.compareTo(otherBalance));
+    }
+
+    @Test
+    void shouldKeepBalancesWhileSnapshotsAreTaken() throws Exception {
+        // Given
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            String from = hotIbans.get(i % 3);
+            String to = hotIbans.get((i + 1) % 3);
+            tasks.add(i % 10 == 0
+                    ? () -> {
+                        balanceService.takeSnapshots();
+                        return null;
+                    }
+                    : () -> {
+                        transactionService.transferFunds(transferRequest(from, to, BigDecimal.ONE));
+                        return null;
+                    });
+        }
+
+        // When
+        runInParallel(tasks);
+        balanceService.takeSnapshots();
+
+        // Then
+        BigDecimal total = BigDecimal.ZERO;
+        for (String iban : hotIbans) {
+            total = total.add(balanceOf(iban));
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(3)).compareTo(total));
+    }
+
+    @Test
+    void shouldNeverOverdrawShardsOfShardedAccount() throws Exception {
+        // Given: more debits than the sharded account can cover, so shards run dry and get rebalanced
+        String hot = hotIbans.get(0);
+        accountService.updateBalanceShards(hot, 8);
+        Random random = new Random(7);
+        AtomicLong debited = new AtomicLong();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            String to = hotIbans.get(1 + random.nextInt(2));
+            long amount = 1 + random.nextInt(80);
+            tasks.add(i % 25 == 0
+                    ? () -> {
+                        balanceService.takeSnapshots();
+                        return null;
+                    }
+                    : () -> {
+                        try {
+                            transactionService.transferFunds(transferRequest(hot, to, BigDecimal.valueOf(amount)));
+                            debited.addAndGet(amount);
+                        } catch (IllegalArgumentException e) {
+                            assertEquals("Insufficient funds", e.getMessage());
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        // When
+        runInParallel(tasks);
+
+        // Then
+        Account account = accountRepository.findById(hot).orElseThrow();
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.valueOf(debited.get())).compareTo(balanceOf(hot)));
+        for (int shard = 0; shard < 8; shard++) {
+            assertTrue(balanceService.getShardBalance(account, shard).signum() >= 0, "Shard " + shard + " overdrawn");
+        }
+        assertTrue(rejected.get() > 0);
+        BigDecimal total = BigDecimal.ZERO;
+        for (String iban : hotIbans) {
+            total = total.add(balanceOf(iban));
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(3)).compareTo(total));
+    }
+
+    @Test
+    void shouldNotDeadlockShardedDebitsWithIdempotencyKeys() throws Exception {
+        // Given: keyed transfers run inside the idempotency transaction and drain the shards
+        String hot = hotIbans.get(0);
+        accountService.updateBalanceShards(hot, 8);
+        Random random = new Random(11);
+        AtomicLong debited = new AtomicLong();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            String key = "key-" + i + "-" + hot;
+            TransferRequestDto request = transferRequest(hot, hotIbans.get(1 + random.nextInt(2)),
+                    BigDecimal.valueOf(1 + random.nextInt(80)));
+            tasks.add(() -> {
+                try {
+                    idempotencyService.execute("transfer", "concurrency-test", key, request, TransactionDto.class,
+                            () -> transactionService.transferFunds(request));
+                    debited.addAndGet(request.getAmount().longValue());
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Insufficient funds", e.getMessage());
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        // When: a deadlock would surface as "Account is busy" once the lock timeout passes
+        runInParallel(tasks);
+
+        // Then
+        Account account = accountRepository.findById(hot).orElseThrow();
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.valueOf(debited.get())).compareTo(balanceOf(hot)));
+        for (int shard = 0; shard < 8; shard++) {
+            assertTrue(balanceService.getShardBalance(account, shard).signum() >= 0, "Shard " + shard + " overdrawn");
+        }
+        assertTrue(rejected.get() > 0);
+    }
+
+    private BigDecimal balanceOf(String iban) {
+        return balanceService.getBalance(accountRepository.findById(iban).orElseThrow());
+    }
+
+    private void runInParallel(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks, 2, TimeUnit.MINUTES)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long countTransactionsFor(List<String> ibans) {
+        return transactionRepository.findAll().stream()
+                .filter(t -> t.getFromAccount() != null && ibans.contains(t.getFromAccount().getIBAN()))
+                .count();
+    }
+
+    private TransferRequestDto transferRequest(String from, String to, BigDecimal amount) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(from);
+        request.setToAccount(to);
+        request.setAmount(amount);
+        request.setInitiatorId(employee.getUserId());
+        return request;
+    }
+
+    private User createUser(String name, UserRole role) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setBsnNumber(name);
+        user.setPhoneNumber("+" + name);
+        user.setRole(role);
+        user.setStatus(UserStatus.APPROVED);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private Account createAccount(String iban, User owner, AccountType type) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        account.setAccountType(type);
+        account.setOpeningBalance(INITIAL_BALANCE);
+        account.setAbsoluteTransferLimit(new BigDecimal("1000000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setCreatedBy(employee);
+        return account;
+    }
+}
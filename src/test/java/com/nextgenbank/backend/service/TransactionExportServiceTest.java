@@ -0,0 +1,104 @@
+package com.nextgenbank.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextgenbank.backend.model.TransactionStatus;
+import com.nextgenbank.backend.model.TransactionType;
+import com.nextgenbank.backend.model.UserRole;
+import com.nextgenbank.backend.model.dto.TransactionRow;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionExportServiceTest {
+
+    private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+    private UserRepository userRepository;
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        userRepository = mock(UserRepository.class);
+        exportService = new TransactionExportService(transactionRepository, accountRepository, userRepository,
+                mock(PlatformTransactionManager.class), new ObjectMapper(), 100);
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLineAndCloseTheCursor() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamRows(any(), any(Sort.class), eq(100)))
+                .thenReturn(Stream.of(row(1L, "Emma"), row(2L, "Emma")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.write(exportService.allTransactions(), TransactionExportService.Format.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(1L, first.get("transactionId").asLong());
+        assertEquals("COMPLETED", first.get("status").asText());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void shouldWriteCsvWithHeaderAndQuotedText() {
+        // Given
+        when(transactionRepository.streamRows(any(), any(Sort.class), eq(100)))
+                .thenReturn(Stream.of(row(7L, "=SUM(A1)")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.write(exportService.allTransactions(), TransactionExportService.Format.CSV, out);
+
+        // Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(TransactionExportService.CSV_HEADER, lines.get(0));
+        assertEquals("7,2025-01-02T03:04,NL01FROM,NL02TO,12.50,TRANSFER,COMPLETED,\"'=SUM(A1) Smith, Jr\",CUSTOMER",
+                lines.get(1));
+    }
+
+    @Test
+    void shouldRejectUnknownCustomerBeforeStreaming() {
+        // Given
+        when(accountRepository.findIbansByCustomerUserId(99L)).thenReturn(List.of());
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> exportService.customerTransactions(99L));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRejectUnsupportedFormat() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionExportService.Format.parse("xml"));
+        assertEquals(TransactionExportService.Format.CSV, TransactionExportService.Format.parse("csv"));
+    }
+
+    private TransactionRow row(Long id, String firstName) {
+        return new TransactionRow(id, "NL01FROM", "NL02TO", new BigDecimal("12.50"), LocalDateTime.of(2025, 1, 2, 3, 4),
+                firstName, "Smith, Jr", UserRole.CUSTOMER, TransactionType.TRANSFER, TransactionStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,226 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.TransactionResponseDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionFeedRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TransactionFeedServiceTest {
+
+    private TransactionFeedRepository transactionFeedRepository;
+    private CustomerSearchIndex searchIndex;
+    private TransactionFeedService transactionFeedService;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        transactionFeedRepository = Mockito.mock(TransactionFeedRepository.class);
+        searchIndex = new CustomerSearchIndex(Mockito.mock(UserRepository.class), Mockito.mock(AccountRepository.class));
+        transactionFeedService = new TransactionFeedService(transactionFeedRepository, searchIndex);
+        alice = customer(1L, "Alice", "Smith");
+        bob = customer(2L, "Bob", "Jones");
+        searchIndex.addCustomer(alice);
+        searchIndex.addCustomer(bob);
+        searchIndex.addAccount(account("NL01ALICE", alice));
+        searchIndex.addAccount(account("NL02BOB", bob));
+    }
+
+    @Test
+    void shouldRecordTransferForBothCustomers() {
+        // Given
+        Transaction transfer = transaction(10L, account("NL01ALICE", alice), account("NL02BOB", bob));
+
+        // When
+        List<TransactionFeedEntry> entries = record(transfer);
+
+        // Then
+        assertEquals(2, entries.size());
+        TransactionFeedEntry outgoing = entries.get(0);
+        assertEquals(1L, outgoing.getCustomerId());
+        assertEquals(TransactionDirection.OUTGOING, outgoing.getDirection());
+        assertEquals("NL01ALICE", outgoing.getAccountIban());
+        assertEquals("NL02BOB", outgoing.getCounterpartyIban());
+        assertEquals(2L, outgoing.getCounterpartyId());
+        assertEquals("Bob Jones", outgoing.getCounterpartyName());
+
+        TransactionFeedEntry incoming = entries.get(1);
+        assertEquals(2L, incoming.getCustomerId());
+        assertEquals(TransactionDirection.INCOMING, incoming.getDirection());
+        assertEquals("NL02BOB", incoming.getAccountIban());
+        assertEquals("NL01ALICE", incoming.getCounterpartyIban());
+        assertEquals("Alice Smith", incoming.getCounterpartyName());
+        assertEquals(10L, incoming.getTransactionId());
+        assertEquals(TransactionStatus.COMPLETED, incoming.getStatus());
+    }
+
+    @Test
+    void shouldRecordTransferHeldForReviewAsPending() {
+        // Given
+        Transaction transfer = transaction(13L, account("NL01ALICE", alice), account("NL02BOB", bob));
+        transfer.setStatus(TransactionStatus.PENDING);
+
+        // When
+        List<TransactionFeedEntry> entries = record(transfer);
+
+        // Then
+        assertTrue(entries.stream().allMatch(entry -> entry.getStatus() == TransactionStatus.PENDING));
+    }
+
+    @Test
+    void shouldRecordTransferBetweenOwnAccountsOnce() {
+        // Given
+        Transaction transfer = transaction(11L, account("NL01CHECK", alice), account("NL01SAVE", alice));
+
+        // When
+        List<TransactionFeedEntry> entries = record(transfer);
+
+        // Then
+        assertEquals(1, entries.size());
+        assertEquals(TransactionDirection.INTERNAL, entries.get(0).getDirection());
+        assertEquals("NL01CHECK", entries.get(0).getAccountIban());
+        assertEquals("NL01SAVE", entries.get(0).getCounterpartyIban());
+    }
+
+    @Test
+    void shouldRecordDepositWithoutCounterparty() {
+        // Given
+        Transaction deposit = transaction(12L, null, account("NL01ALICE", alice));
+
+        // When
+        List<TransactionFeedEntry> entries = record(deposit);
+
+        // Then
+        assertEquals(1, entries.size());
+        assertEquals(TransactionDirection.INCOMING, entries.get(0).getDirection());
+        assertNull(entries.get(0).getCounterpartyIban());
+        assertNull(entries.get(0).getCounterpartyName());
+    }
+
+    @Test
+    void shouldMapFeedEntriesFromTheCustomersPointOfView() {
+        // Given
+        TransactionFeedEntry incoming = new TransactionFeedEntry(1L,
+                transaction(13L, null, account("NL01ALICE", alice)),
+                TransactionDirection.INCOMING, "NL01ALICE", null, null, null);
+        when(transactionFeedRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(incoming)));
+
+        // When
+        Page<TransactionResponseDto> result = transactionFeedService.getHistory(
+                alice, null, null, null, null, null, null, null, PageRequest.of(0, 10));
+
+        // Then
+        TransactionResponseDto dto = result.getContent().get(0);
+        assertEquals("N/A", dto.fromIban());
+        assertEquals("Bank", dto.fromName());
+        assertEquals("NL01ALICE", dto.toIban());
+        assertEquals("Alice Smith", dto.toName());
+        assertEquals("INCOMING", dto.direction());
+    }
+
+    @Test
+    void shouldFilterByIbanNameAndDirection() {
+        // Given
+        when(transactionFeedRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.empty());
+
+        // When
+        Page<TransactionResponseDto> result = transactionFeedService.getHistory(
+                alice, "NL02", "jones", "outgoing", null, null, new BigDecimal("100.00"), "gt", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(0, result.getTotalElements());
+        verify(transactionFeedRepository).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldNotQueryFeedForUnknownCounterparty() {
+        // When
+        Page<TransactionResponseDto> result = transactionFeedService.getHistory(
+                alice, null, "nobody", null, null, null, null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(0, result.getTotalElements());
+        verify(transactionFeedRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldRejectUnknownDirection() {
+        assertThrows(IllegalArgumentException.class, () -> transactionFeedService.getHistory(
+                alice, null, null, "SIDEWAYS", null, null, null, null, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void shouldNotQueryFeedForUnparsableDate() {
+        // When
+        Page<TransactionResponseDto> result = transactionFeedService.getHistory(
+                alice, null, null, null, "yesterday", null, null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(0, result.getTotalElements());
+        verify(transactionFeedRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldSortHistoryNewestFirstByDefault() {
+        // Given
+        when(transactionFeedRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.empty());
+
+        // When
+        transactionFeedService.getHistory(alice, null, null, null, null, null, null, null, PageRequest.of(2, 10));
+
+        // Then
+        verify(transactionFeedRepository).findAll(any(Specification.class),
+                eq(PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "timestamp", "transactionId"))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TransactionFeedEntry> record(Transaction transaction) {
+        transactionFeedService.record(List.of(transaction));
+        ArgumentCaptor<List<TransactionFeedEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionFeedRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private Transaction transaction(Long id, Account from, Account to) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(id);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setTransactionType(from != null && to != null ? TransactionType.TRANSFER : TransactionType.DEPOSIT);
+        transaction.setFromAccount(from);
+        transaction.setToAccount(to);
+        return transaction;
+    }
+
+    private Account account(String iban, User customer) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(customer);
+        return account;
+    }
+
+    private User customer(Long id, String firstName, String lastName) {
+        User user = new User();
+        user.setUserId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
@@ -0,0 +1,186 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.CursorPageDto;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransactionResponseDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks transaction histories page by page with the cursor endpoints' service methods,
+ * the customer's own history through the transaction feed.
+ * Uses its own in-memory database so other Spring tests are not affected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-paging-test",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class TransactionHistoryPagingTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionFeedService transactionFeedService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User customer;
+    private Account checking;
+    private Account other;
+    private List<Long> expectedIds;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        String ibanSuffix = suffix.substring(suffix.length() - 10);
+
+        User employee = userRepository.save(createUser("employee" + suffix, UserRole.EMPLOYEE));
+        customer = userRepository.save(createUser("customer" + suffix, UserRole.CUSTOMER));
+        User stranger = userRepository.save(createUser("stranger" + suffix, UserRole.CUSTOMER));
+        checking = accountRepository.save(createAccount("NL99PAG0" + ibanSuffix, customer, employee));
+        other = accountRepository.save(createAccount("NL99PAG1" + ibanSuffix, stranger, employee));
+
+        // Groups of three transactions share a timestamp, so pages must break ties on the id
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 12, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            boolean outgoing = i % 2 == 0;
+            transactions.add(createTransaction(outgoing ? checking : other, outgoing ? other : checking,
+                    start.plusMinutes(i / 3), employee));
+        }
+        transactionFeedService.record(transactionRepository.saveAll(transactions));
+
+        expectedIds = transactions.stream()
+                .sorted((a, b) -> a.getTimestamp().equals(b.getTimestamp())
+                        ? b.getTransactionId().compareTo(a.getTransactionId())
+                        : b.getTimestamp().compareTo(a.getTimestamp()))
+                .map(Transaction::getTransactionId)
+                .toList();
+    }
+
+    @Test
+    void shouldVisitEveryTransactionOnceNewestFirst() {
+        // Given
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+
+        // When
+        do {
+            CursorPageDto<TransactionResponseDto> page = transactionFeedService.getHistoryAfter(
+                    customer, null, null, null, null, null, null, null, cursor, 4);
+            page.getContent().forEach(txn -> visited.add(txn.transactionId()));
+            assertEquals(page.getNextCursor() != null, page.isHasNext());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(expectedIds, visited);
+        assertEquals(7, pages);
+    }
+
+    @Test
+    void shouldApplyFiltersAcrossPages() {
+        // Given
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+
+        // When
+        do {
+            CursorPageDto<TransactionResponseDto> page = transactionFeedService.getHistoryAfter(
+                    customer, null, null, "OUTGOING", null, null, null, null, cursor, 5);
+            page.getContent().forEach(txn -> {
+                assertEquals(checking.getIBAN(), txn.fromIban());
+                visited.add(txn.transactionId());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(13, visited.size());
+    }
+
+    @Test
+    void shouldPageCustomerHistoryForEmployees() {
+        // When
+        CursorPageDto<TransactionDto> first = transactionService.getTransactionsByCustomerIdAfter(
+                customer.getUserId(), null, 20);
+        CursorPageDto<TransactionDto> second = transactionService.getTransactionsByCustomerIdAfter(
+                customer.getUserId(), first.getNextCursor(), 20);
+
+        // Then
+        assertEquals(20, first.getContent().size());
+        assertEquals(5, second.getContent().size());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectInvalidCursorAndPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getAllTransactionsAfter("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getAllTransactionsAfter(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getAllTransactionsAfter(null, TransactionService.MAX_CURSOR_PAGE_SIZE + 1));
+    }
+
+    private Transaction createTransaction(Account from, Account to, LocalDateTime timestamp, User initiator) {
+        Transaction transaction = new Transaction();
+        transaction.setFromAccount(from);
+        transaction.setToAccount(to);
+        transaction.setAmount(BigDecimal.ONE);
+        transaction.setTimestamp(timestamp);
+        transaction.setInitiator(initiator);
+        transaction.setTransactionType(TransactionType.TRANSFER);
+        return transaction;
+    }
+
+    private User createUser(String name, UserRole role) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setBsnNumber(name);
+        user.setPhoneNumber("+" + name);
+        user.setRole(role);
+        user.setStatus(UserStatus.APPROVED);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private Account createAccount(String iban, User owner, User createdBy) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        account.setAccountType(AccountType.CHECKING);
+        account.setOpeningBalance(BigDecimal.ZERO);
+        account.setAbsoluteTransferLimit(new BigDecimal("1000000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setCreatedBy(createdBy);
+        return account;
+    }
+}
@@ -0,0 +1,199 @@
+package com.nextgenbank.backend.service;
+
+import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.CursorPageDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
+import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransactionResponseDto;
+import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.TransactionRepository;
+import com.nextgenbank.backend.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind every transaction listing. A page must cost the same
+ * fixed number of statements however many accounts and users its rows refer to.
+ * Uses its own in-memory database so other Spring tests are not affected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count-test",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nextgenbank.backend.service.TransactionQueryCountTest$CountingStatementInspector",
+        "bank.listing-totals.refresh-interval-ms=3600000",
+        "bank.balance.snapshot-interval-ms=3600000",
+        "logging.level.com.nextgenbank.backend=WARN"
+})
+class TransactionQueryCountTest {
+
+    private static final int CUSTOMERS = 12;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionFeedService transactionFeedService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User customer;
+    private Account checking;
+
+    @BeforeEach
+    void setUp() {
+        if (customer != null) {
+            return;
+        }
+        String suffix = String.valueOf(System.nanoTime());
+        String ibanSuffix = suffix.substring(suffix.length() - 10);
+
+        User employee = userRepository.save(createUser("employee" + suffix, UserRole.EMPLOYEE));
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            User owner = userRepository.save(createUser("customer" + i + "x" + suffix, UserRole.CUSTOMER));
+            accounts.add(accountRepository.save(createAccount("NL97CNT" + i + ibanSuffix, owner, employee)));
+        }
+        checking = accounts.get(0);
+        customer = checking.getCustomer();
+
+        // Every transfer touches a different counterparty, so loading entities would fan out
+        LocalDateTime start = LocalDateTime.of(2021, 1, 1, 12, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 1; i < CUSTOMERS; i++) {
+            transactions.add(createTransaction(checking, accounts.get(i), start.plusMinutes(i), employee));
+            transactions.add(createTransaction(accounts.get(i), checking, start.plusMinutes(i), accounts.get(i).getCustomer()));
+        }
+        transactions.add(createTransaction(null, checking, start.plusHours(1), null));
+        transactionFeedService.record(transactionRepository.saveAll(transactions));
+    }
+
+    @Test
+    void shouldReadEmployeeListingsWithOneSelectPerPage() {
+        // When
+        SliceDto<TransactionDto> slice = countStatements(1, () -> transactionService.getAllTransactionsSlice(PageRequest.of(1, 5)));
+        CursorPageDto<TransactionDto> first = countStatements(1, () -> transactionService.getAllTransactionsAfter(null, 5));
+        countStatements(1, () -> transactionService.getAllTransactionsAfter(first.getNextCursor(), 5));
+        // The page adds its count query
+        Page<TransactionDto> page = countStatements(2, () -> transactionService.getAllTransactionsPaginated(PageRequest.of(0, 5)));
+        // The customer listings first look up the customer's IBANs
+        countStatements(2, () -> transactionService.getTransactionsByCustomerIdAfter(customer.getUserId(), null, 20));
+        countStatements(3, () -> transactionService.getTransactionsByCustomerIdPaginated(customer.getUserId(), PageRequest.of(0, 5)));
+
+        // Then
+        assertEquals(5, slice.getContent().size());
+        assertTrue(slice.isHasNext());
+        assertEquals(5, page.getContent().size());
+        assertTrue(page.getTotalElements() >= 2 * (CUSTOMERS - 1) + 1);
+    }
+
+    @Test
+    void shouldProjectTransactionsWithoutAccountsOrInitiator() {
+        // When
+        TransactionDto deposit = transactionService.getTransactionsByCustomerIdAfter(customer.getUserId(), null, 1)
+                .getContent().get(0);
+
+        // Then
+        assertNull(deposit.getFromAccount());
+        assertEquals(checking.getIBAN(), deposit.getToAccount());
+        assertNull(deposit.getUserInitiating());
+        assertNull(deposit.getUserRole());
+        assertEquals(0, new BigDecimal("10.00").compareTo(deposit.getAmount()));
+    }
+
+    @Test
+    void shouldReadCustomerHistoryWithOneSelectPerPage() {
+        // When
+        CursorPageDto<TransactionResponseDto> first = countStatements(1, () -> transactionFeedService.getHistoryAfter(
+                customer, null, null, null, null, null, null, null, null, 5));
+        countStatements(1, () -> transactionFeedService.getHistoryAfter(
+                customer, null, null, null, null, null, null, null, first.getNextCursor(), 5));
+        countStatements(2, () -> transactionFeedService.getHistory(
+                customer, null, null, null, null, null, null, null, PageRequest.of(0, 5)));
+
+        // Then
+        assertEquals("Bank", first.getContent().get(0).fromName());
+        assertEquals(5, first.getContent().size());
+    }
+
+    private <T> T countStatements(int expected, Supplier<T> listing) {
+        CountingStatementInspector.STATEMENTS.clear();
+        T result = listing.get();
+        List<String> statements = List.copyOf(CountingStatementInspector.STATEMENTS);
+        assertEquals(expected, statements.size(), String.join("\n", statements));
+        return result;
+    }
+
+    private Transaction createTransaction(Account from, Account to, LocalDateTime timestamp, User initiator) {
+        Transaction transaction = new Transaction();
+        transaction.setFromAccount(from);
+        transaction.setToAccount(to);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setTimestamp(timestamp);
+        transaction.setInitiator(initiator);
+        transaction.setTransactionType(from != null ? TransactionType.TRANSFER : TransactionType.DEPOSIT);
+        return transaction;
+    }
+
+    private User createUser(String name, UserRole role) {
+        User user = new User();
+        user.setFirstName(name);
+        user.setLastName("Test");
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setBsnNumber(name);
+        user.setPhoneNumber("+" + name);
+        user.setRole(role);
+        user.setStatus(UserStatus.APPROVED);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private Account createAccount(String iban, User owner, User createdBy) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setCustomer(owner);
+        account.setAccountType(AccountType.CHECKING);
+        account.setOpeningBalance(BigDecimal.ZERO);
+        account.setAbsoluteTransferLimit(new BigDecimal("1000000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setCreatedBy(createdBy);
+        return account;
+    }
+
+    /**
+     * Collects the SQL Hibernate sends while a listing runs
+     */
+    public static class CountingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,27 +1,41 @@
 package com.nextgenbank.backend.service;
 
 import com.nextgenbank.backend.model.*;
+import com.nextgenbank.backend.model.dto.AsyncTransferStatusDto;
+import com.nextgenbank.backend.model.dto.BatchTransferResponseDto;
+import com.nextgenbank.backend.model.dto.SliceDto;
 import com.nextgenbank.backend.model.dto.TransactionDto;
+import com.nextgenbank.backend.model.dto.TransactionRow;
 import com.nextgenbank.backend.model.dto.TransferRequestDto;
 import com.nextgenbank.backend.model.dto.SwitchFundsRequestDto;
 import com.nextgenbank.backend.model.dto.SwitchFundsResponseDto;
 import com.nextgenbank.backend.repository.AccountRepository;
+import com.nextgenbank.backend.repository.AccountShardRepository;
 import com.nextgenbank.backend.repository.TransactionRepository;
 import com.nextgenbank.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class TransactionServiceTest {
@@ -29,147 +43,122 @@ public class TransactionServiceTest {
     private TransactionRepository transactionRepository;
     private AccountRepository accountRepository;
     private UserRepository userRepository;
+    private BalanceService balanceService;
+    private ListingTotals listingTotals;
+    private PendingTransactionQueue pendingTransactionQueue;
+    private TransactionFeedService transactionFeedService;
     private TransactionService transactionService;
+    // Net amount posted per IBAN through the mocked BalanceService
+    private final Map<String, BigDecimal> postedAmounts = new HashMap<>();
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
         transactionRepository = Mockito.mock(TransactionRepository.class);
         accountRepository = Mockito.mock(AccountRepository.class);
         userRepository = Mockito.mock(UserRepository.class);
-        transactionService = new TransactionService(transactionRepository, accountRepository, userRepository);
+        balanceService = Mockito.mock(BalanceService.class);
+        when(balanceService.knownShards(any())).thenReturn(1);
+        when(balanceService.getBalance(any())).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            return account.getOpeningBalance().add(postedAmounts.getOrDefault(account.getIBAN(), BigDecimal.ZERO));
+        });
+        doAnswer(invocation -> {
+            post(invocation.getArgument(0));
+            return null;
+        }).when(balanceService).post(any(Transaction.class));
+        doAnswer(invocation -> {
+            ((List<Transaction>) invocation.getArgument(0)).forEach(this::post);
+            return null;
+        }).when(balanceService).post(anyList());
+
+        listingTotals = Mockito.mock(ListingTotals.class);
+        pendingTransactionQueue = new PendingTransactionQueue(transactionRepository, new BigDecimal("10000"));
+        transactionFeedService = Mockito.mock(TransactionFeedService.class);
+        transactionService = new TransactionService(transactionRepository, accountRepository, userRepository,
+                new AccountLockManager(16, 1000),
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), 3, 0, 0),
+                new DailyLimitTracker(accountRepository, Mockito.mock(AccountShardRepository.class)),
+                balanceService,
+                Mockito.mock(AccountShardRepository.class),
+                transactionFeedService,
+                listingTotals,
+                pendingTransactionQueue);
     }
 
-    @Test
-    void shouldReturnAllTransactionsForUser() {
-        Transaction txn = mockTransaction(1L);
-        Page<Transaction> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findAllByUserIdWithFilters(
-                eq(1L), any(), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
-                .thenReturn(page);
-
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, null, null, null, null, null, null, null, PageRequest.of(0, 10)
-        );
-
-        assertEquals(1, result.getTotalElements());
-        assertEquals(txn.getTransactionId(), result.getContent().get(0).getTransactionId());
-    }
-
-    @Test
-    void shouldFilterByIban() {
-        Transaction txn = mockTransaction(2L);
-        Page<Transaction> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findAllByUserIdWithFilters(
-                eq(1L), eq("NL01IBAN"), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
-                .thenReturn(page);
-
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, "NL01IBAN", null, null, null, null, null, null, PageRequest.of(0, 10)
-        );
-
-        assertEquals(1, result.getTotalElements());
-    }
-
-    @Test
-    void shouldFilterByName() {
-        Transaction txn = mockTransaction(3L);
-        Page<Transaction> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findAllByUserIdWithFilters(
-                eq(1L), any(), eq("smith"), any(), any(), any(), any(), any(), any(Pageable.class)))
-                .thenReturn(page);
-
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, null, "smith", null, null, null, null, null, PageRequest.of(0, 10)
-        );
-
-        assertEquals(1, result.getTotalElements());
+    private void post(Transaction transaction) {
+        if (transaction.getFromAccount() != null) {
+            postedAmounts.merge(transaction.getFromAccount().getIBAN(), transaction.getAmount().negate(), BigDecimal::add);
+        }
+        if (transaction.getToAccount() != null) {
+            postedAmounts.merge(transaction.getToAccount().getIBAN(), transaction.getAmount(), BigDecimal::add);
+        }
     }
 
     @Test
-    void shouldFilterByDirection() {
-        Transaction txn = mockTransaction(4L);
-        Page<Transaction> page = new PageImpl<>(List.of(txn));
-
-        when(transactionRepository.findAllByUserIdWithFilters(
-                eq(1L), any(), any(), eq("INCOMING"), any(), any(), any(), any(), any(Pageable.class)))
-                .thenReturn(page);
-
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, null, null, "INCOMING", null, null, null, null, PageRequest.of(0, 10)
-        );
+    void shouldGetAllTransactionsPaginated() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(transactionRepository.findRows(isNull(), any(Sort.class), eq(0L), eq(10)))
+                .thenReturn(Arrays.asList(transactionRow(1L), transactionRow(2L)));
 
-        assertEquals(1, result.getTotalElements());
-    }
+        // When
+        Page<TransactionDto> result = transactionService.getAllTransactionsPaginated(pageable);
 
-    @Test
-    void shouldHandleNullAmountFilter() {
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, null, null, null, null, null, new BigDecimal("100.00"), null, PageRequest.of(0, 10));
-        // Verify default "eq" is used
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals("FROM_IBAN", result.getContent().get(0).getFromAccount());
+        // A short first page already tells the total
+        verify(transactionRepository, never()).count();
     }
 
     @Test
-    void shouldReturnEmptyPageWhenNoResults() {
-        when(transactionRepository.findAllByUserIdWithFilters(any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(Page.empty());
-
-        Page<Transaction> result = transactionService.getFilteredTransactionsForUser(
-                1L, null, null, null, null, null, new BigDecimal("999.99"), "EQUAL", PageRequest.of(0, 10));
-
-        assertEquals(0, result.getTotalElements());
-    }
-    
-    @Test
-    void shouldGetAllTransactionsPaginated() {
+    void shouldGetAllTransactionsSliceWithEstimatedTotal() {
         // Given
-        List<Transaction> transactions = Arrays.asList(
-            mockTransaction(1L),
-            mockTransaction(2L)
-        );
-        Page<Transaction> page = new PageImpl<>(transactions);
-        Pageable pageable = PageRequest.of(0, 10);
-        
-        when(transactionRepository.findAllByOrderByTimestampDesc(pageable)).thenReturn(page);
-        
+        Pageable pageable = PageRequest.of(0, 2);
+        when(transactionRepository.findRows(isNull(), any(Sort.class), eq(0L), eq(3)))
+                .thenReturn(Arrays.asList(transactionRow(1L), transactionRow(2L), transactionRow(3L)));
+        when(listingTotals.transactions()).thenReturn(120L);
+
         // When
-        Page<TransactionDto> result = transactionService.getAllTransactionsPaginated(pageable);
-        
+        SliceDto<TransactionDto> result = transactionService.getAllTransactionsSlice(pageable);
+
         // Then
-        assertEquals(2, result.getTotalElements());
-        verify(transactionRepository).findAllByOrderByTimestampDesc(pageable);
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(120L, result.getEstimatedTotal());
+        verify(transactionRepository, never()).count();
     }
-    
+
     @Test
     void shouldGetCustomerTransactionsPaginated() {
         // Given
         Long customerId = 1L;
-        User customer = new User();
-        customer.setUserId(customerId);
-        customer.setRole(UserRole.CUSTOMER);
-        
-        List<Transaction> transactions = Arrays.asList(
-            mockTransaction(1L),
-            mockTransaction(2L)
-        );
-        Page<Transaction> page = new PageImpl<>(transactions);
         Pageable pageable = PageRequest.of(0, 10);
-        
-        when(userRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(transactionRepository.findByFromAccount_CustomerOrToAccount_CustomerOrderByTimestampDesc(
-            eq(customer), eq(customer), eq(pageable))).thenReturn(page);
-        
+        when(accountRepository.findIbansByCustomerUserId(customerId)).thenReturn(List.of("FROM_IBAN"));
+        when(transactionRepository.findRows(any(), any(Sort.class), eq(0L), eq(10)))
+                .thenReturn(Arrays.asList(transactionRow(1L), transactionRow(2L)));
+
         // When
         Page<TransactionDto> result = transactionService.getTransactionsByCustomerIdPaginated(customerId, pageable);
-        
+
         // Then
         assertEquals(2, result.getTotalElements());
-        verify(transactionRepository).findByFromAccount_CustomerOrToAccount_CustomerOrderByTimestampDesc(
-            eq(customer), eq(customer), eq(pageable));
+        verify(userRepository, never()).findById(any());
     }
-    
+
+    @Test
+    void shouldRejectUnknownCustomerForTransactionListing() {
+        // Given
+        when(accountRepository.findIbansByCustomerUserId(99L)).thenReturn(List.of());
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // When / Then
+        assertThrows(RuntimeException.class,
+                () -> transactionService.getTransactionsByCustomerIdPaginated(99L, PageRequest.of(0, 10)));
+        verify(transactionRepository, never()).findRows(any(), any(Sort.class), anyLong(), anyInt());
+    }
+
     @Test
     void shouldUpdateTransferLimit() {
         // Given
@@ -228,25 +217,9 @@ public class TransactionServiceTest {
         verify(transactionRepository, never()).save(any());
     }
 
-    private Transaction mockTransaction(Long id) {
-        Transaction t = new Transaction();
-        t.setTransactionId(id);
-        t.setAmount(new BigDecimal("100.00"));
-        t.setTimestamp(LocalDateTime.now());
-
-        Account from = new Account();
-        from.setIBAN("FROM_IBAN");
-        from.setCustomer(new User());
-
-        Account to = new Account();
-        to.setIBAN("TO_IBAN");
-        to.setCustomer(new User());
-
-        t.setFromAccount(from);
-        t.setToAccount(to);
-        t.setTransactionType(TransactionType.TRANSFER);
-
-        return t;
+    private TransactionRow transactionRow(Long id) {
+        return new TransactionRow(id, "FROM_IBAN", "TO_IBAN", new BigDecimal("100.00"), LocalDateTime.now(),
+                "Emma", "Employee", UserRole.EMPLOYEE, TransactionType.TRANSFER, TransactionStatus.COMPLETED);
     }
 
     @Test
@@ -257,13 +230,13 @@ public class TransactionServiceTest {
 
         Account checking = new Account();
         checking.setIBAN("CHECKING123");
-        checking.setBalance(new BigDecimal("1000"));
+        checking.setOpeningBalance(new BigDecimal("1000"));
         checking.setAccountType(AccountType.CHECKING);
         checking.setCustomer(user);
 
         Account savings = new Account();
         savings.setIBAN("SAVINGS123");
-        savings.setBalance(new BigDecimal("500"));
+        savings.setOpeningBalance(new BigDecimal("500"));
         savings.setAccountType(AccountType.SAVINGS);
         savings.setCustomer(user);
 
@@ -272,6 +245,7 @@ public class TransactionServiceTest {
 
         when(accountRepository.findByCustomerUserIdAndAccountType(1L, AccountType.SAVINGS))
                 .thenReturn(Optional.of(savings));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SwitchFundsRequestDto request = new SwitchFundsRequestDto("CHECKING", new BigDecimal("200"));
         SwitchFundsResponseDto response = transactionService.switchFunds(user, request);
@@ -279,4 +253,321 @@ public class TransactionServiceTest {
         assertEquals(new BigDecimal("800"), response.getCheckingBalance());
         assertEquals(new BigDecimal("700"), response.getSavingsBalance());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldApplyBatchAndReportRejectedTransfersPerItem() {
+        // Given
+        User employee = new User();
+        employee.setUserId(9L);
+        employee.setRole(UserRole.EMPLOYEE);
+
+        Account payer = batchAccount("NL01PAYER", "150.00");
+        Account first = batchAccount("NL02FIRST", "0.00");
+        Account second = batchAccount("NL03SECOND", "0.00");
+
+        when(accountRepository.findWithCustomersByIbanIn(any())).thenReturn(List.of(payer, first, second));
+        when(userRepository.findAllById(any())).thenReturn(List.of(employee));
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TransferRequestDto> batch = List.of(
+                batchRequest("NL01PAYER", "NL02FIRST", "100.00"),
+                batchRequest("NL01PAYER", "NL03SECOND", "100.00"),
+                batchRequest("NL01PAYER", "NL99UNKNOWN", "10.00"),
+                batchRequest("NL01PAYER", "NL03SECOND", "50.00"));
+
+        // When
+        BatchTransferResponseDto response = transactionService.transferFundsBatch(batch);
+
+        // Then
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("Insufficient funds", response.getResults().get(1).getError());
+        assertEquals("Destination account not found", response.getResults().get(2).getError());
+        assertTrue(response.getResults().get(3).isSuccess());
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceService.getBalance(payer)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceService.getBalance(first)));
+        assertEquals(0, new BigDecimal("50.00").compareTo(balanceService.getBalance(second)));
+        verify(accountRepository, times(1)).findWithCustomersByIbanIn(any());
+        verify(transactionRepository, times(1)).saveAll(any());
+        verify(transactionRepository, never()).save(any());
+        verify(balanceService, times(1)).post(anyList());
+    }
+
+    @Test
+    void shouldRejectBatchTransfersFromAccountsCustomerDoesNotOwn() {
+        // Given
+        User customer = new User();
+        customer.setUserId(1L);
+        customer.setRole(UserRole.CUSTOMER);
+        User other = new User();
+        other.setUserId(2L);
+        other.setRole(UserRole.CUSTOMER);
+
+        Account own = batchAccount("NL01OWN", "100.00");
+        own.setCustomer(customer);
+        Account foreign = batchAccount("NL02FOREIGN", "100.00");
+        foreign.setCustomer(other);
+
+        when(accountRepository.findWithCustomersByIbanIn(any())).thenReturn(List.of(own, foreign));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferRequestDto fromOwn = batchRequest("NL01OWN", "NL02FOREIGN", "10.00");
+        fromOwn.setInitiatorId(1L);
+        TransferRequestDto fromForeign = batchRequest("NL02FOREIGN", "NL01OWN", "90.00");
+        fromForeign.setInitiatorId(1L);
+
+        // When
+        BatchTransferResponseDto response = transactionService.transferFundsBatch(List.of(fromOwn, fromForeign));
+
+        // Then
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("Source account does not belong to the initiator", response.getResults().get(1).getError());
+        assertEquals(0, new BigDecimal("110.00").compareTo(balanceService.getBalance(foreign)));
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> transactionService.transferFundsBatch(List.of()));
+        verify(accountRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldHoldLargeCustomerTransferForReview() {
+        // Given
+        User customer = new User();
+        customer.setUserId(1L);
+        customer.setRole(UserRole.CUSTOMER);
+        Account source = batchAccount("NL01SOURCE", "15000.00");
+        source.setCustomer(customer);
+        Account destination = batchAccount("NL02DEST", "0.00");
+        when(accountRepository.findWithCustomerByIban("NL01SOURCE")).thenReturn(Optional.of(source));
+        when(accountRepository.findWithCustomerByIban("NL02DEST")).thenReturn(Optional.of(destination));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setTransactionId(42L);
+            return transaction;
+        });
+        TransferRequestDto request = batchRequest("NL01SOURCE", "NL02DEST", "10000.00");
+        request.setInitiatorId(1L);
+
+        // When
+        TransactionDto result = transactionService.transferFunds(request);
+
+        // Then
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
+        assertEquals(List.of(42L), pendingTransactionQueue.page(0, 10));
+        verify(balanceService, never()).post(any(Transaction.class));
+        assertEquals(0, BigDecimal.ZERO.compareTo(source.getDailyTransferAmount()));
+        verify(transactionFeedService).record(argThat(recorded -> recorded.size() == 1
+                && recorded.get(0).getStatus() == TransactionStatus.PENDING));
+    }
+
+    @Test
+    void shouldNotHoldTransferOverDailyLimitForReview() {
+        // Given
+        User customer = new User();
+        customer.setUserId(1L);
+        customer.setRole(UserRole.CUSTOMER);
+        Account source = batchAccount("NL01SOURCE", "15000.00");
+        source.setCustomer(customer);
+        source.setAbsoluteTransferLimit(new BigDecimal("9000.00"));
+        Account destination = batchAccount("NL02DEST", "0.00");
+        when(accountRepository.findWithCustomerByIban("NL01SOURCE")).thenReturn(Optional.of(source));
+        when(accountRepository.findWithCustomerByIban("NL02DEST")).thenReturn(Optional.of(destination));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(customer));
+        TransferRequestDto request = batchRequest("NL01SOURCE", "NL02DEST", "10000.00");
+        request.setInitiatorId(1L);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> transactionService.transferFunds(request));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(0, pendingTransactionQueue.size());
+    }
+
+    @Test
+    void shouldHoldLargeCustomerTransfersOfBatchForReview() {
+        // Given
+        User customer = new User();
+        customer.setUserId(1L);
+        customer.setRole(UserRole.CUSTOMER);
+        Account source = batchAccount("NL01SOURCE", "15000.00");
+        source.setCustomer(customer);
+        Account destination = batchAccount("NL02DEST", "0.00");
+        when(accountRepository.findWithCustomersByIbanIn(any())).thenReturn(List.of(source, destination));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            long id = 40;
+            for (Transaction transaction : transactions) {
+                transaction.setTransactionId(id++);
+            }
+            return transactions;
+        });
+        TransferRequestDto large = batchRequest("NL01SOURCE", "NL02DEST", "10000.00");
+        large.setInitiatorId(1L);
+        TransferRequestDto small = batchRequest("NL01SOURCE", "NL02DEST", "100.00");
+        small.setInitiatorId(1L);
+
+        // When
+        BatchTransferResponseDto response = transactionService.transferFundsBatch(List.of(large, small));
+
+        // Then
+        assertEquals(TransactionStatus.PENDING, response.getResults().get(0).getTransaction().getStatus());
+        assertEquals(TransactionStatus.COMPLETED, response.getResults().get(1).getTransaction().getStatus());
+        assertEquals(List.of(40L), pendingTransactionQueue.page(0, 10));
+        assertEquals(0, new BigDecimal("14900.00").compareTo(balanceService.getBalance(source)));
+    }
+
+    @Test
+    void shouldHoldLargeAsyncCustomerTransferForReview() throws Exception {
+        // Given: async transfers are booked through the batch path
+        User customer = new User();
+        customer.setUserId(1L);
+        customer.setRole(UserRole.CUSTOMER);
+        Account source = batchAccount("NL01SOURCE", "15000.00");
+        source.setCustomer(customer);
+        Account destination = batchAccount("NL02DEST", "0.00");
+        when(accountRepository.findWithCustomersByIbanIn(any())).thenReturn(List.of(source, destination));
+        when(userRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(transaction -> transaction.setTransactionId(42L));
+            return transactions;
+        });
+        TransferRequestDto request = batchRequest("NL01SOURCE", "NL02DEST", "10000.00");
+        request.setInitiatorId(1L);
+        AsyncTransferService asyncTransferService = new AsyncTransferService(transactionService,
+                new SimpleMeterRegistry(), 10, 50, 0, 100, 1_000);
+        asyncTransferService.start();
+
+        try {
+            // When
+            String transferId = asyncTransferService.submit(1L, request);
+            AsyncTransferStatusDto status = asyncTransferService.subscribe(transferId, 1L).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(AsyncTransferStatusDto.Status.PENDING, status.getStatus(), status.getError());
+            assertEquals(TransactionStatus.PENDING, status.getTransaction().getStatus());
+            assertEquals(List.of(42L), pendingTransactionQueue.page(0, 10));
+            verify(balanceService, never()).post(argThat((List<Transaction> booked) -> !booked.isEmpty()));
+        } finally {
+            asyncTransferService.stop();
+        }
+    }
+
+    @Test
+    void shouldBookApprovedTransferAndLeaveQueue() {
+        // Given
+        Transaction pending = pendingTransfer(42L, "10000.00");
+        pendingTransactionQueue.add(42L);
+        when(transactionRepository.findById(42L)).thenReturn(Optional.of(pending));
+        when(transactionRepository.decidePending(42L, TransactionStatus.APPROVED)).thenAnswer(invocation -> {
+            pending.setStatus(TransactionStatus.APPROVED);
+            return 1;
+        });
+        when(transactionRepository.findWithAccountsByTransactionId(42L)).thenReturn(Optional.of(pending));
+
+        // When
+        TransactionDto result = transactionService.approvePendingTransaction(42L);
+
+        // Then
+        assertEquals(TransactionStatus.APPROVED, result.getStatus());
+        assertEquals(0, new BigDecimal("5000.00").compareTo(balanceService.getBalance(pending.getFromAccount())));
+        assertEquals(0, pendingTransactionQueue.size());
+        verify(transactionFeedService).updateStatus(42L, TransactionStatus.APPROVED);
+        verify(transactionFeedService, never()).record(any());
+    }
+
+    @Test
+    void shouldMarkRejectedTransferInFeed() {
+        // Given
+        pendingTransactionQueue.add(42L);
+        when(transactionRepository.decidePending(42L, TransactionStatus.REJECTED)).thenReturn(1);
+
+        // When
+        transactionService.rejectPendingTransaction(42L);
+
+        // Then
+        verify(transactionFeedService).updateStatus(42L, TransactionStatus.REJECTED);
+        assertEquals(0, pendingTransactionQueue.size());
+    }
+
+    @Test
+    void shouldKeepTransferPendingWhenApprovalFindsTooLittleMoney() {
+        // Given
+        Transaction pending = pendingTransfer(42L, "20000.00");
+        pendingTransactionQueue.add(42L);
+        when(transactionRepository.findById(42L)).thenReturn(Optional.of(pending));
+        when(transactionRepository.decidePending(42L, TransactionStatus.APPROVED)).thenReturn(1);
+        when(transactionRepository.findWithAccountsByTransactionId(42L)).thenReturn(Optional.of(pending));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> transactionService.approvePendingTransaction(42L));
+        verify(balanceService, never()).post(any(Transaction.class));
+        assertEquals(List.of(42L), pendingTransactionQueue.page(0, 10));
+    }
+
+    @Test
+    void shouldNotRejectTransactionThatIsNoLongerPending() {
+        // Given
+        when(transactionRepository.decidePending(42L, TransactionStatus.REJECTED)).thenReturn(0);
+        when(transactionRepository.existsById(42L)).thenReturn(true);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> transactionService.rejectPendingTransaction(42L));
+    }
+
+    @Test
+    void shouldListPendingTransactionsFromQueue() {
+        // Given
+        pendingTransactionQueue.add(7L);
+        pendingTransactionQueue.add(3L);
+        pendingTransactionQueue.add(5L);
+        when(transactionRepository.findRows(any(), any(Sort.class)))
+                .thenReturn(List.of(transactionRow(7L)));
+
+        // When
+        Page<TransactionDto> result = transactionService.getPendingTransactionsPaginated(PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(3, result.getTotalElements());
+        assertEquals(7L, result.getContent().get(0).getTransactionId());
+        verify(transactionRepository, never()).findAll();
+        verify(transactionRepository, never()).count();
+    }
+
+    private Transaction pendingTransfer(Long id, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(id);
+        transaction.setFromAccount(batchAccount("NL01SOURCE", "15000.00"));
+        transaction.setToAccount(batchAccount("NL02DEST", "0.00"));
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setTransactionType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+
+    private Account batchAccount(String iban, String balance) {
+        Account account = new Account();
+        account.setIBAN(iban);
+        account.setOpeningBalance(new BigDecimal(balance));
+        account.setAbsoluteTransferLimit(new BigDecimal("10000.00"));
+        account.setDailyTransferAmount(BigDecimal.ZERO);
+        return account;
+    }
+
+    private TransferRequestDto batchRequest(String from, String to, String amount) {
+        TransferRequestDto request = new TransferRequestDto();
+        request.setAccountNumber(from);
+        request.setToAccount(to);
+        request.setAmount(new BigDecimal(amount));
+        request.setInitiatorId(9L);
+        return request;
+    }
+}
@@ -30,7 +30,8 @@ public class UserServiceTest {
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
         passwordEncoder = Mockito.mock(PasswordEncoder.class);
-        userService = new UserService(userRepository, passwordEncoder, accountRepository);
+        userService = new UserService(userRepository, passwordEncoder, accountRepository,
+                Mockito.mock(CustomerSearchIndex.class));
     }
 
     // Test for registering a user successfully
@@ -110,6 +111,48 @@ public class UserServiceTest {
         assertThrows(BadCredentialsException.class, () -> userService.authenticate(email, "wrongPassword"));
     }
 
+    // Test for a stored hash weaker than the encoder's strength
+    @Test
+    void authenticate_withWeakerHash_shouldRehashPassword() {
+        // Given
+        User user = new User();
+        user.setUserId(7L);
+        user.setEmail("alice@example.com");
+        user.setPassword("oldHash");
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("newHash");
+        when(userRepository.replacePasswordHash(7L, "oldHash", "newHash")).thenReturn(1);
+
+        // When
+        User result = userService.authenticate("alice@example.com", "password123");
+
+        // Then
+        verify(userRepository).replacePasswordHash(7L, "oldHash", "newHash");
+        assertEquals("newHash", result.getPassword());
+    }
+
+    // Test for a stored hash that already has the encoder's strength
+    @Test
+    void authenticate_withCurrentHash_shouldNotRehashPassword() {
+        // Given
+        User user = new User();
+        user.setUserId(7L);
+        user.setEmail("alice@example.com");
+        user.setPassword("currentHash");
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "currentHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("currentHash")).thenReturn(false);
+
+        // When
+        userService.authenticate("alice@example.com", "password123");
+
+        // Then
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any());
+    }
+
     // Test for unknown email
     @Test
     void authenticate_withUnknownEmail_shouldThrowUsernameNotFoundException() {
@@ -6,6 +6,7 @@ import com.nextgenbank.backend.model.dto.TransactionDto;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.UserRepository;
 import com.nextgenbank.backend.security.UserPrincipal;
+import com.nextgenbank.backend.service.BalanceService;
 import io.cucumber.java.After;
 import io.cucumber.java.en.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,6 +49,9 @@ public class AtmStepDefinitions {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private BalanceService balanceService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -109,10 +113,14 @@ public class AtmStepDefinitions {
         Account account = accountRepository.findById(iban).orElse(new Account());
         account.setIBAN(iban);
         account.setCustomer(customer);
-        account.setBalance(BigDecimal.valueOf(balance).setScale(2, RoundingMode.HALF_UP));
+        // An existing account keeps its postings, so shift the opening balance to reach the wanted balance
+        BigDecimal opening = account.getOpeningBalance() != null ? account.getOpeningBalance() : BigDecimal.ZERO;
+        BigDecimal wanted = BigDecimal.valueOf(balance).setScale(2, RoundingMode.HALF_UP);
+        account.setOpeningBalance(opening.add(wanted.subtract(balanceService.getBalance(account))));
         account.setAccountType(AccountType.CHECKING);
         account.setCreatedAt(LocalDateTime.now());
         accountRepository.save(account);
+        balanceService.evict(iban);
     }
 
     /**
@@ -179,7 +187,7 @@ public class AtmStepDefinitions {
         Account updated = accountRepository.findById(iban)
                 .orElseThrow(() -> new AssertionError("Account not found: " + iban));
         BigDecimal expected = BigDecimal.valueOf(newBalance).setScale(2, RoundingMode.HALF_UP);
-        assertEquals(0, expected.compareTo(updated.getBalance()), "Balance mismatch");
+        assertEquals(0, expected.compareTo(balanceService.getBalance(updated)), "Balance mismatch");
     }
 
     @Then("the response contains the error message {string}")
@@ -4,7 +4,11 @@ import io.cucumber.spring.CucumberContextConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 
+// The scenarios log the same users in many times from one address, far above the login throttle
 @CucumberContextConfiguration
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bank.login.email.capacity=1000",
+        "bank.login.ip.capacity=10000"
+})
 public class CucumberSpringConfiguration {
-}
\ No newline at end of file
+}
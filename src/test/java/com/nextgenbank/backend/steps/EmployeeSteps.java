@@ -107,7 +107,7 @@ public class EmployeeSteps {
             checkingAccount.setIBAN("NL12BANK" + customerId + "CHECK");
             checkingAccount.setCustomer(customer);
             checkingAccount.setAccountType(AccountType.CHECKING);
-            checkingAccount.setBalance(new BigDecimal("1000.00"));
+            checkingAccount.setOpeningBalance(new BigDecimal("1000.00"));
             checkingAccount.setAbsoluteTransferLimit(new BigDecimal("1000.00"));
             accountRepository.save(checkingAccount);
             
@@ -115,7 +115,7 @@ public class EmployeeSteps {
             savingsAccount.setIBAN("NL12BANK" + customerId + "SAVE");
             savingsAccount.setCustomer(customer);
             savingsAccount.setAccountType(AccountType.SAVINGS);
-            savingsAccount.setBalance(new BigDecimal("2000.00"));
+            savingsAccount.setOpeningBalance(new BigDecimal("2000.00"));
             savingsAccount.setAbsoluteTransferLimit(new BigDecimal("1000.00"));
             accountRepository.save(savingsAccount);
         }
@@ -151,7 +151,7 @@ public class EmployeeSteps {
             account.setIBAN(iban);
             account.setCustomer(customer);
             account.setAccountType(AccountType.CHECKING);
-            account.setBalance(new BigDecimal("1000.00"));
+            account.setOpeningBalance(new BigDecimal("1000.00"));
             account.setAbsoluteTransferLimit(new BigDecimal("1000.00"));
             testAccount = accountRepository.save(account);
         }
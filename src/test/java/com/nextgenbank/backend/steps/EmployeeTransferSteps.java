@@ -13,6 +13,7 @@ import com.nextgenbank.backend.model.dto.TransferRequestDto;
 import com.nextgenbank.backend.repository.AccountRepository;
 import com.nextgenbank.backend.repository.TransactionRepository;
 import com.nextgenbank.backend.repository.UserRepository;
+import com.nextgenbank.backend.service.BalanceService;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
@@ -45,6 +46,9 @@ public class EmployeeTransferSteps {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private BalanceService balanceService;
+
     private String authToken;
     private ResponseEntity<String> response;
     private String transferErrorMessage;
@@ -86,11 +90,15 @@ public class EmployeeTransferSteps {
         
         if (existingAccount.isPresent()) {
             Account account = existingAccount.get();
-            account.setBalance(new BigDecimal(String.valueOf(balance)));
+            // Earlier scenarios left postings on this account, so shift the opening balance instead
+            BigDecimal current = balanceService.getBalance(account);
+            account.setOpeningBalance(account.getOpeningBalance()
+                    .add(new BigDecimal(String.valueOf(balance)).subtract(current)));
             if (transferLimit != null) {
                 account.setAbsoluteTransferLimit(transferLimit);
             }
             accountRepository.save(account);
+            balanceService.evict(iban);
             return;
         }
         
@@ -108,7 +116,7 @@ public class EmployeeTransferSteps {
         account.setIBAN(iban);
         account.setCustomer(savedCustomer);
         account.setAccountType(AccountType.CHECKING);
-        account.setBalance(new BigDecimal(String.valueOf(balance)));
+        account.setOpeningBalance(new BigDecimal(String.valueOf(balance)));
         
         if (transferLimit != null) {
             account.setAbsoluteTransferLimit(transferLimit);
@@ -217,7 +225,7 @@ public class EmployeeTransferSteps {
         Account account = accountRepository.findById(iban)
                 .orElseThrow(() -> new RuntimeException("Account not found: " + iban));
                 
-        BigDecimal actual = account.getBalance();
+        BigDecimal actual = balanceService.getBalance(account);
         BigDecimal expected = new BigDecimal(String.valueOf(expectedBalance));
         
         assertEquals(0, expected.compareTo(actual), 
@@ -229,7 +237,7 @@ public class EmployeeTransferSteps {
         Account account = accountRepository.findById(iban)
                 .orElseThrow(() -> new RuntimeException("Account not found: " + iban));
                 
-        BigDecimal actual = account.getBalance();
+        BigDecimal actual = balanceService.getBalance(account);
         BigDecimal expected = new BigDecimal(String.valueOf(expectedBalance));
         
         assertEquals(0, expected.compareTo(actual), 